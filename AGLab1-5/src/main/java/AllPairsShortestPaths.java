@@ -0,0 +1,270 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Lowest costs between all pairs of vertices of a read-only GraphView.
+ * Engines:
+ *      Floyd-Warshall - for dense graphs; the n*n matrix is split into square tiles and every block of k
+ *          is processed in 3 phases: the diagonal tile, then its row and column tiles in parallel,
+ *          then all the other tiles in parallel. Each tile stays in cache while it is updated.
+ *      Johnson - for sparse graphs; a Bellman-Ford search from a virtual vertex gives potentials h such that
+ *          w(u,v) + h(u) - h(v) >= 0, after which one Dijkstra search per source runs in parallel.
+ * Both accept negative weights and throw if a negative cycle exists. Distances must fit in an int.
+ */
+public class AllPairsShortestPaths {
+    private static final int TILE = 64;
+    private static final int INF = DistanceMatrix.UNREACHABLE;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine that runs in the common ForkJoinPool
+     * @param graph - GraphView to be searched
+     */
+    public AllPairsShortestPaths(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param pool - ForkJoinPool that runs the parallel phases
+     */
+    public AllPairsShortestPaths(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Picks Floyd-Warshall when the graph has more than n*log2(n) edges and Johnson otherwise
+     * @return DistanceMatrix
+     * @throws IllegalStateException
+     *      If the graph has a negative cycle or a distance does not fit in an int
+     */
+    public DistanceMatrix compute() throws IllegalStateException {
+        int n = graph.getNoVertices();
+        double logN = Math.max(1, Math.log(n) / Math.log(2));
+        return graph.getNoEdges() > n * logN ? floydWarshall() : johnson();
+    }
+
+    private int[] vertexIds() {
+        int[] ids = new int[graph.getNoVertices()];
+        for (int v = 0; v < ids.length; v++) {
+            ids[v] = graph.vertexId(v);
+        }
+        return ids;
+    }
+
+    private void parallel(int count, java.util.function.IntConsumer body) {
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(body)).join();
+    }
+
+    // -------------------- Floyd-Warshall --------------------
+
+    /**
+     * @return DistanceMatrix - computed with the tiled Floyd-Warshall algorithm
+     * @throws IllegalStateException
+     *      If the graph has a negative cycle or a distance does not fit in an int
+     */
+    public DistanceMatrix floydWarshall() throws IllegalStateException {
+        int n = graph.getNoVertices();
+        if ((long) n * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many vertices for a distance matrix: " + n);
+        }
+        int[] dist = new int[n * n];
+        int[] next = new int[n * n];
+        Arrays.fill(dist, INF);
+        Arrays.fill(next, -1);
+        for (int u = 0; u < n; u++) {
+            dist[u * n + u] = 0;
+            next[u * n + u] = u;
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                int cell = u * n + v;
+                if (graph.outWeight(e) < dist[cell]) {
+                    dist[cell] = graph.outWeight(e);
+                    next[cell] = v;
+                }
+            }
+        }
+
+        int tiles = (n + TILE - 1) / TILE;
+        for (int k = 0; k < tiles; k++) {
+            int kb = k;
+            relaxTile(dist, next, n, kb, kb, kb);
+            parallel(2 * tiles, t -> {
+                int other = t % tiles;
+                if (other == kb) {
+                    return;
+                }
+                if (t < tiles) {
+                    relaxTile(dist, next, n, kb, other, kb);
+                } else {
+                    relaxTile(dist, next, n, other, kb, kb);
+                }
+            });
+            parallel(tiles * tiles, t -> {
+                int i = t / tiles;
+                int j = t % tiles;
+                if (i != kb && j != kb) {
+                    relaxTile(dist, next, n, i, j, kb);
+                }
+            });
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (dist[v * n + v] < 0) {
+                throw new IllegalStateException("The graph has a negative cycle through vertex " + graph.vertexId(v) + "!");
+            }
+        }
+        return new DistanceMatrix(vertexIds(), dist, next);
+    }
+
+    /**
+     * Relaxes the tile (rowTile, columnTile) through every k of tile kTile
+     */
+    private static void relaxTile(int[] dist, int[] next, int n, int rowTile, int columnTile, int kTile) {
+        int rowEnd = Math.min(n, (rowTile + 1) * TILE);
+        int columnStart = columnTile * TILE;
+        int columnEnd = Math.min(n, columnStart + TILE);
+        int kEnd = Math.min(n, (kTile + 1) * TILE);
+        for (int k = kTile * TILE; k < kEnd; k++) {
+            int kRow = k * n;
+            for (int i = rowTile * TILE; i < rowEnd; i++) {
+                int iRow = i * n;
+                int ik = dist[iRow + k];
+                if (ik == INF) {
+                    continue;
+                }
+                int hop = next[iRow + k];
+                for (int j = columnStart; j < columnEnd; j++) {
+                    int kj = dist[kRow + j];
+                    if (kj == INF) {
+                        continue;
+                    }
+                    long sum = (long) ik + kj;
+                    if (sum < dist[iRow + j]) {
+                        if (sum >= INF || sum < Integer.MIN_VALUE) {
+                            throw new IllegalStateException("Distance does not fit in an int: " + sum);
+                        }
+                        dist[iRow + j] = (int) sum;
+                        next[iRow + j] = hop;
+                    }
+                }
+            }
+        }
+    }
+
+    // -------------------- Johnson --------------------
+
+    /**
+     * @return DistanceMatrix - computed with Johnson's algorithm
+     * @throws IllegalStateException
+     *      If the graph has a negative cycle or a distance does not fit in an int
+     */
+    public DistanceMatrix johnson() throws IllegalStateException {
+        int n = graph.getNoVertices();
+        if ((long) n * n > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many vertices for a distance matrix: " + n);
+        }
+        long[] h = potentials();
+
+        // Reweighted copy of the graph; index v of the copy is index v of the graph
+        EdgeList reweighted = new EdgeList(n, graph.getNoEdges());
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                long weight = graph.outWeight(e) + h[u] - h[v];
+                if (weight > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("Reweighted edge does not fit in an int: " + weight);
+                }
+                reweighted.add(u, v, (int) weight);
+            }
+        }
+        CsrGraph csr = reweighted.toCsr();
+        DijkstraEngine engine = new DijkstraEngine(csr);
+
+        int[] dist = new int[n * n];
+        int[] next = new int[n * n];
+        parallel(n, s -> {
+            ShortestPathTree tree = engine.run(s, DijkstraEngine.Direction.FORWARD);
+            int row = s * n;
+            for (int v = 0; v < n; v++) {
+                if (tree.reaches(v)) {
+                    long distance = tree.getDistance(v) - h[s] + h[v];
+                    if (distance >= INF || distance < Integer.MIN_VALUE) {
+                        throw new IllegalStateException("Distance does not fit in an int: " + distance);
+                    }
+                    dist[row + v] = (int) distance;
+                } else {
+                    dist[row + v] = INF;
+                }
+                next[row + v] = -1;
+            }
+            next[row + s] = s;
+            // The next hop of v is the next hop of its parent, or v itself when the parent is the source
+            int[] stack = new int[16];
+            for (int v = 0; v < n; v++) {
+                int size = 0;
+                int u = v;
+                while (tree.reaches(u) && next[row + u] == -1) {
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = u;
+                    u = tree.getParent(u);
+                }
+                while (size > 0) {
+                    int w = stack[--size];
+                    next[row + w] = tree.getParent(w) == s ? w : next[row + tree.getParent(w)];
+                }
+            }
+        });
+        return new DistanceMatrix(vertexIds(), dist, next);
+    }
+
+    /**
+     * @return long[] - distances from a virtual vertex linked to every vertex with weight 0; all 0 without negative weights
+     */
+    private long[] potentials() {
+        int n = graph.getNoVertices();
+        boolean negative = false;
+        for (int e = 0; e < graph.getNoEdges() && !negative; e++) {
+            negative = graph.outWeight(e) < 0;
+        }
+        if (!negative) {
+            return new long[n];
+        }
+
+        EdgeList extended = new EdgeList(n + 1, graph.getNoEdges() + n);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                extended.add(u, graph.outTarget(e), graph.outWeight(e));
+            }
+            extended.add(n, u, 0);
+        }
+        BellmanFord.Result result = new BellmanFord(extended.toCsr(), pool).run(n);
+        if (result.hasNegativeCycle()) {
+            throw new IllegalStateException("The graph has a negative cycle: " + Arrays.toString(toIds(result.getNegativeCycle())));
+        }
+        long[] h = new long[n];
+        for (int v = 0; v < n; v++) {
+            h[v] = result.getTree().getDistance(v);
+        }
+        return h;
+    }
+
+    /**
+     * Converts the IDs of the extended graph, which are the indices of this graph, to the IDs of this graph
+     */
+    private int[] toIds(int[] indices) {
+        int[] ids = new int[indices.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.vertexId(indices[i]);
+        }
+        return ids;
+    }
+}
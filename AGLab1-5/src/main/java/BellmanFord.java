@@ -0,0 +1,210 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Single-source shortest paths over a read-only GraphView whose weights may be negative.
+ * Works in rounds, like Bellman-Ford, but only around the vertices whose distance changed in the previous round,
+ *  like SPFA. A round runs in parallel:
+ *      - the outbound neighbours of the changed vertices are collected, each once
+ *      - every collected vertex pulls its new distance from its changed inbound neighbours; it is the only writer
+ *          of its own distance and parent, so no locks are needed
+ * Negative cycles are detected by looking for a cycle among the parent links: such a cycle always has a negative cost,
+ *  and once the distances drop below the cost of every simple path, which they do whenever a negative cycle is
+ *  reachable from the root, there is always one. A check walks all n vertices, so it only runs once the rounds since
+ *  the previous check have collected at least n vertices; the checks then cost no more than the rounds themselves.
+ */
+public class BellmanFord {
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine that runs in the common ForkJoinPool
+     * @param graph - GraphView to be searched
+     */
+    public BellmanFord(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param pool - ForkJoinPool that runs the rounds
+     */
+    public BellmanFord(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the lowest cost paths from a vertex, or finds a negative cycle reachable from it
+     * @param rootIndex - index of the vertex the search starts from
+     * @return Result
+     */
+    public Result run(int rootIndex) {
+        int n = graph.getNoVertices();
+        long[] dist = new long[n];
+        long[] next = new long[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parent, -1);
+        dist[rootIndex] = 0;
+        // Round in which a vertex was last collected, and round in which its distance last dropped
+        AtomicIntegerArray collected = new AtomicIntegerArray(n);
+        int[] changedIn = new int[n];
+        Arrays.fill(changedIn, -1);
+        changedIn[rootIndex] = 0;
+
+        int[] active = {rootIndex};
+        int round = 0;
+        long workSinceCheck = 0;
+        while (active.length > 0) {
+            round++;
+            int currentRound = round;
+            int[] frontier = active;
+            int[] candidates = pool.submit(() -> IntStream.of(frontier).parallel()
+                    .flatMap(u -> IntStream.range(graph.outBegin(u), graph.outEnd(u))
+                            .map(graph::outTarget)
+                            .filter(v -> collected.getAndSet(v, currentRound) != currentRound))
+                    .toArray()).join();
+            active = pool.submit(() -> IntStream.of(candidates).parallel()
+                    .filter(v -> pull(v, currentRound, dist, next, parent, changedIn))
+                    .toArray()).join();
+            for (int v : active) {
+                dist[v] = next[v];
+                changedIn[v] = round;
+            }
+
+            workSinceCheck += frontier.length + candidates.length;
+            if (active.length > 0 && workSinceCheck >= n) {
+                workSinceCheck = 0;
+                int[] cycle = findParentCycle(parent);
+                if (cycle != null) {
+                    return new Result(null, toIds(cycle));
+                }
+            }
+        }
+
+        int reached = (int) Arrays.stream(dist).filter(d -> d != ShortestPathTree.UNREACHABLE).count();
+        ShortestPathTree tree = new ShortestPathTree(graph, rootIndex, false, dist, parent, reached);
+        return new Result(tree, null);
+    }
+
+    /**
+     * Lowers the distance of v using its inbound neighbours that changed in the previous round
+     * @return boolean - true if the distance of v dropped; the new value is left in {@code next}
+     */
+    private boolean pull(int v, int round, long[] dist, long[] next, int[] parent, int[] changedIn) {
+        long best = dist[v];
+        int bestParent = -1;
+        for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+            int u = graph.inSource(e);
+            if (changedIn[u] == round - 1) {
+                long candidate = dist[u] + graph.inWeight(e);
+                if (candidate < best) {
+                    best = candidate;
+                    bestParent = u;
+                }
+            }
+        }
+        if (bestParent == -1) {
+            return false;
+        }
+        next[v] = best;
+        parent[v] = bestParent;
+        return true;
+    }
+
+    /**
+     * @return int[] - the vertices of a cycle formed by the parent links, in the direction of the edges; null if there is none
+     */
+    private static int[] findParentCycle(int[] parent) {
+        int n = parent.length;
+        // 0 - not visited, otherwise the number of the walk that visited the vertex
+        int[] walk = new int[n];
+        for (int start = 0; start < n; start++) {
+            if (walk[start] != 0) {
+                continue;
+            }
+            int v = start;
+            while (v != -1 && walk[v] == 0) {
+                walk[v] = start + 1;
+                v = parent[v];
+            }
+            if (v != -1 && walk[v] == start + 1) {
+                return cycleFrom(v, parent);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return int[] - the cycle of parent links through v, in the direction of the edges
+     */
+    private static int[] cycleFrom(int v, int[] parent) {
+        int length = 1;
+        for (int u = parent[v]; u != v; u = parent[u]) {
+            length++;
+        }
+        int[] cycle = new int[length];
+        int u = v;
+        for (int i = length - 1; i >= 0; i--) {
+            cycle[i] = u;
+            u = parent[u];
+        }
+        return cycle;
+    }
+
+    private int[] toIds(int[] indices) {
+        int[] ids = new int[indices.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.vertexId(indices[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Either the lowest cost paths from the root, or a negative cycle reachable from it
+     */
+    public static final class Result {
+        private final ShortestPathTree tree;
+        private final int[] negativeCycle;
+
+        Result(ShortestPathTree tree, int[] negativeCycle) {
+            this.tree = tree;
+            this.negativeCycle = negativeCycle;
+        }
+
+        /**
+         * @return boolean - true if a negative cycle is reachable from the root
+         */
+        public boolean hasNegativeCycle() {
+            return negativeCycle != null;
+        }
+
+        /**
+         * @return int[] - IDs of the vertices of the negative cycle, in the direction of its edges
+         * @throws IllegalStateException
+         *      If there is no negative cycle
+         */
+        public int[] getNegativeCycle() throws IllegalStateException {
+            if (negativeCycle == null) {
+                throw new IllegalStateException("There is no negative cycle!");
+            }
+            return negativeCycle;
+        }
+
+        /**
+         * @return ShortestPathTree - the lowest cost paths from the root
+         * @throws IllegalStateException
+         *      If a negative cycle is reachable from the root, in which case lowest costs are not defined
+         */
+        public ShortestPathTree getTree() throws IllegalStateException {
+            if (tree == null) {
+                throw new IllegalStateException("Negative cycle: " + Arrays.toString(negativeCycle));
+            }
+            return tree;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the latency of repeated lowest cost path queries on a generated graph:
+ *  plain Dijkstra, bidirectional Dijkstra and ALT against a contraction hierarchy.
+ * Usage: Benchmark [grid|gnm|rmat] [noVertices] [noEdges] [noQueries] [seed]
+ *      grid - square grid with edges in both directions between neighbouring cells (noEdges is ignored)
+ *      gnm - G(n,m) random graph
+ *      rmat - R-MAT graph with the usual (0.57, 0.19, 0.19) probabilities
+ */
+public class Benchmark {
+    public static void main(String[] args) {
+        String model = args.length > 0 ? args[0] : "grid";
+        int noVertices = args.length > 1 ? Integer.parseInt(args[1]) : 250000;
+        int noEdges = args.length > 2 ? Integer.parseInt(args[2]) : 4 * noVertices;
+        int noQueries = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        if (noQueries <= 0) {
+            throw new IllegalStateException("The number of queries must be positive!");
+        }
+
+        long time = System.nanoTime();
+        GraphGenerator generator = new GraphGenerator(seed);
+        generator.setWeights(GraphGenerator.WeightDistribution.uniform(1, 500));
+        EdgeList edges;
+        switch (model) {
+            case "gnm":
+                edges = generator.erdosRenyi(noVertices, noEdges);
+                break;
+            case "rmat":
+                edges = generator.rmat(noVertices, noEdges, 0.57, 0.19, 0.19);
+                break;
+            default:
+                edges = grid((int) Math.sqrt(noVertices), seed);
+                break;
+        }
+        Graph graph = edges.toGraph();
+        noVertices = edges.getNoVertices();
+        System.out.printf("Generated %d vertices and %d edges in %.1f ms%n", noVertices, edges.size(), (System.nanoTime() - time) / 1e6);
+
+        time = System.nanoTime();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        System.out.printf("Built %s in %.1f ms%n", hierarchy, (System.nanoTime() - time) / 1e6);
+
+        time = System.nanoTime();
+        PointToPointQuery query = new PointToPointQuery(graph.freeze());
+        query.selectLandmarks(16);
+        System.out.printf("Selected 16 landmarks in %.1f ms%n", (System.nanoTime() - time) / 1e6);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] pairs = new int[noQueries][];
+        for (int i = 0; i < noQueries; i++) {
+            pairs[i] = new int[]{random.nextInt(noVertices), random.nextInt(noVertices)};
+        }
+
+        long[] expected = new long[noQueries];
+        long[] latencies = new long[noQueries];
+        long settled = 0;
+        for (int i = 0; i < noQueries; i++) {
+            int[] pair = pairs[i];
+            time = System.nanoTime();
+            expected[i] = distance(() -> query.dijkstra(pair[0], pair[1]));
+            latencies[i] = System.nanoTime() - time;
+        }
+        report("Dijkstra", latencies);
+        for (int i = 0; i < noQueries; i++) {
+            int[] pair = pairs[i];
+            time = System.nanoTime();
+            check(expected[i], distance(() -> query.bidirectional(pair[0], pair[1])));
+            latencies[i] = System.nanoTime() - time;
+        }
+        report("Bidirectional Dijkstra", latencies);
+        for (int i = 0; i < noQueries; i++) {
+            int[] pair = pairs[i];
+            time = System.nanoTime();
+            check(expected[i], distance(() -> query.alt(pair[0], pair[1])));
+            latencies[i] = System.nanoTime() - time;
+        }
+        report("ALT", latencies);
+        for (int i = 0; i < noQueries; i++) {
+            time = System.nanoTime();
+            check(expected[i], hierarchy.distance(pairs[i][0], pairs[i][1]));
+            latencies[i] = System.nanoTime() - time;
+            settled += hierarchy.getLastSettled();
+        }
+        report("Contraction hierarchy", latencies);
+        System.out.printf("Contraction hierarchy settled %.1f vertices per query%n", (double) settled / noQueries);
+    }
+
+    private static EdgeList grid(int side, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        EdgeList edges = new EdgeList(side * side, 4 * side * side);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int v = row * side + column;
+                if (column + 1 < side) {
+                    int weight = random.nextInt(1, 500);
+                    edges.add(v, v + 1, weight);
+                    edges.add(v + 1, v, weight);
+                }
+                if (row + 1 < side) {
+                    int weight = random.nextInt(1, 500);
+                    edges.add(v, v + side, weight);
+                    edges.add(v + side, v, weight);
+                }
+            }
+        }
+        return edges;
+    }
+
+    private interface Query {
+        PointToPointQuery.Result run();
+    }
+
+    private static long distance(Query query) {
+        try {
+            return query.run().getDistance();
+        } catch (IllegalStateException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static void check(long expected, long actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("Distances differ: expected=" + expected + " & actual=" + actual);
+        }
+    }
+
+    private static void report(String name, long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        double average = Arrays.stream(sorted).average().orElse(0);
+        System.out.printf("%-24s average %9.1f us, p50 %9.1f us, p99 %9.1f us%n", name,
+                average / 1e3, sorted[sorted.length / 2] / 1e3, sorted[(int) (sorted.length * 0.99)] / 1e3);
+    }
+}
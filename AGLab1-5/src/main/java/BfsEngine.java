@@ -0,0 +1,270 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Level-synchronous BFS over a read-only GraphView that switches direction with the size of the frontier.
+ *      Top-down step - every frontier vertex claims its unvisited outbound neighbours; a claim is a compare-and-set
+ *          of the neighbour's bit in the visited bitset, so each vertex gets exactly one parent.
+ *      Bottom-up step - every unvisited vertex looks for an inbound neighbour in the frontier bitset and stops at
+ *          the first one. Each task owns 64 vertices, i.e. one word of every bitset, so no atomics are needed.
+ * Top-down switches to bottom-up once the frontier has more than 1/ALPHA of the edges left to explore, and back once
+ *  the frontier holds fewer than 1/BETA of the vertices. Large levels are processed in parallel.
+ * Serves unweighted shortest paths, reachability and level-by-level traversals.
+ */
+public class BfsEngine {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+    private int minBottomUpVertices = 1 << 12;
+
+    /**
+     * Creates an engine that runs in the common ForkJoinPool
+     * @param graph - GraphView to be searched
+     */
+    public BfsEngine(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param pool - ForkJoinPool that runs the large levels
+     */
+    public BfsEngine(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @param minBottomUpVertices - int - graphs with fewer vertices are only searched top-down, which keeps the
+     *      parents in the order of a plain queue-based BFS
+     */
+    public void setMinBottomUpVertices(int minBottomUpVertices) {
+        this.minBottomUpVertices = minBottomUpVertices;
+    }
+
+    /**
+     * Searches every vertex reachable from the root
+     * @param rootIndex - index of the vertex the search starts from
+     * @return ShortestPathTree - forward tree whose distances are numbers of edges
+     */
+    public ShortestPathTree run(int rootIndex) {
+        return run(rootIndex, -1);
+    }
+
+    /**
+     * Searches level by level from the root, stopping after the level that reaches the target
+     * @param rootIndex - index of the vertex the search starts from
+     * @param targetIndex - index of the vertex that ends the search, -1 to search every reachable vertex
+     * @return ShortestPathTree - forward tree whose distances are numbers of edges; exact for the reached vertices
+     */
+    public ShortestPathTree run(int rootIndex, int targetIndex) {
+        Search search = search(rootIndex, targetIndex, false);
+        long[] dist = new long[search.level.length];
+        for (int v = 0; v < dist.length; v++) {
+            dist[v] = search.level[v] == -1 ? ShortestPathTree.UNREACHABLE : search.level[v];
+        }
+        return new ShortestPathTree(graph, rootIndex, false, dist, search.parent, search.reached);
+    }
+
+    /**
+     * @param rootIndex - index of the vertex the search starts from
+     * @return BitSet - indices of the vertices reachable from the root, the root included
+     */
+    public BitSet reachable(int rootIndex) {
+        Search search = search(rootIndex, -1, false);
+        long[] words = new long[search.visited.length()];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = search.visited.get(w);
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @param rootIndex - index of the vertex the search starts from
+     * @return int[][] - indices of the reachable vertices grouped by their distance from the root, ascending within a level
+     */
+    public int[][] levels(int rootIndex) {
+        Search search = search(rootIndex, -1, true);
+        return search.levels.toArray(new int[0][]);
+    }
+
+    /**
+     * Searches for the shortest path between 2 vertices given by their IDs
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the shortest path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public int[] shortestPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = graph.indexOf(vertexStartID);
+        int end = graph.indexOf(vertexEndID);
+        if (start == -1 || end == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return run(start, end).pathTo(end);
+    }
+
+    private Search search(int rootIndex, int targetIndex, boolean keepLevels) {
+        int n = graph.getNoVertices();
+        Search search = new Search(n);
+        search.claim(rootIndex);
+        search.level[rootIndex] = 0;
+        search.reached = 1;
+        boolean directionOptimizing = n >= minBottomUpVertices;
+
+        int[] frontier = {rootIndex};
+        long unexploredEdges = graph.getNoEdges();
+        boolean bottomUp = false;
+        int depth = 0;
+        while (frontier.length > 0 && (targetIndex == -1 || search.level[targetIndex] == -1)) {
+            if (keepLevels) {
+                int[] level = frontier.clone();
+                Arrays.sort(level);
+                search.levels.add(level);
+            }
+            long frontierEdges = 0;
+            for (int u : frontier) {
+                frontierEdges += graph.outEnd(u) - graph.outBegin(u);
+            }
+            unexploredEdges -= frontierEdges;
+            if (directionOptimizing) {
+                if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                    bottomUp = true;
+                } else if (bottomUp && frontier.length < n / BETA) {
+                    bottomUp = false;
+                }
+            }
+
+            depth++;
+            frontier = bottomUp ? bottomUpStep(search, frontier, depth) : topDownStep(search, frontier, depth);
+            search.reached += frontier.length;
+        }
+        if (keepLevels && frontier.length > 0) {
+            // Stopped at the target; the level that reached it is still part of the traversal
+            int[] level = frontier.clone();
+            Arrays.sort(level);
+            search.levels.add(level);
+        }
+        return search;
+    }
+
+    /**
+     * @return int[] - the vertices claimed from the outbound edges of the frontier
+     */
+    private int[] topDownStep(Search search, int[] frontier, int depth) {
+        if (frontier.length < PARALLEL_THRESHOLD) {
+            return topDown(search, IntStream.of(frontier), depth);
+        }
+        return pool.submit(() -> topDown(search, IntStream.of(frontier).parallel(), depth)).join();
+    }
+
+    private int[] topDown(Search search, IntStream frontier, int depth) {
+        return frontier.flatMap(u -> IntStream.range(graph.outBegin(u), graph.outEnd(u))
+                .filter(e -> {
+                    int v = graph.outTarget(e);
+                    if (!search.claim(v)) {
+                        return false;
+                    }
+                    search.parent[v] = u;
+                    search.level[v] = depth;
+                    return true;
+                })
+                .map(graph::outTarget))
+                .toArray();
+    }
+
+    /**
+     * @return int[] - the unvisited vertices that have an inbound neighbour in the frontier
+     */
+    private int[] bottomUpStep(Search search, int[] frontier, int depth) {
+        int words = search.visited.length();
+        long[] inFrontier = new long[words];
+        for (int u : frontier) {
+            inFrontier[u >>> 6] |= 1L << u;
+        }
+        IntStream wordIndices = IntStream.range(0, words);
+        if (words >= PARALLEL_THRESHOLD / 64) {
+            return pool.submit(() -> bottomUp(search, inFrontier, wordIndices.parallel(), depth)).join();
+        }
+        return bottomUp(search, inFrontier, wordIndices, depth);
+    }
+
+    private int[] bottomUp(Search search, long[] inFrontier, IntStream wordIndices, int depth) {
+        int n = search.level.length;
+        return wordIndices.flatMap(w -> {
+            long visited = search.visited.get(w);
+            long found = 0;
+            int end = Math.min(n, (w + 1) << 6);
+            for (int v = w << 6; v < end; v++) {
+                if ((visited & 1L << v) != 0) {
+                    continue;
+                }
+                for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+                    int u = graph.inSource(e);
+                    if ((inFrontier[u >>> 6] & 1L << u) != 0) {
+                        search.parent[v] = u;
+                        search.level[v] = depth;
+                        found |= 1L << v;
+                        break;
+                    }
+                }
+            }
+            if (found == 0) {
+                return IntStream.empty();
+            }
+            // This task is the only writer of word w during the step
+            search.visited.set(w, visited | found);
+            long bits = found;
+            int[] claimed = new int[Long.bitCount(bits)];
+            for (int i = 0; i < claimed.length; i++) {
+                claimed[i] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+            return IntStream.of(claimed);
+        }).toArray();
+    }
+
+    /**
+     * State of one traversal
+     */
+    private static final class Search {
+        final AtomicLongArray visited;
+        final int[] parent;
+        final int[] level;
+        final List<int[]> levels = new ArrayList<>();
+        int reached;
+
+        Search(int n) {
+            visited = new AtomicLongArray((n + 63) >>> 6);
+            parent = new int[n];
+            level = new int[n];
+            Arrays.fill(parent, -1);
+            Arrays.fill(level, -1);
+        }
+
+        /**
+         * @return boolean - true if this call set the visited bit of v
+         */
+        boolean claim(int v) {
+            int w = v >>> 6;
+            long bit = 1L << v;
+            long old = visited.get(w);
+            while ((old & bit) == 0) {
+                if (visited.compareAndSet(w, old, old | bit)) {
+                    return true;
+                }
+                old = visited.get(w);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Lock-free disjoint sets over the elements 0..n-1, which many threads can merge at once.
+ * A root is linked below another root by a compare-and-set of its parent, so only roots ever change sets and a
+ *  failed link is retried from the new roots. Ranks cannot be kept consistent without locks, so the roots are linked
+ *  by a fixed random priority of the elements instead, which keeps the trees shallow in expectation; finds halve
+ *  the paths they walk with compare-and-sets that are allowed to fail.
+ */
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger noComponents;
+
+    /**
+     * Creates n singleton sets
+     * @param n - int - number of elements
+     */
+    public ConcurrentUnionFind(int n) {
+        this.parent = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++) {
+            parent.set(i, i);
+        }
+        this.noComponents = new AtomicInteger(n);
+    }
+
+    /**
+     * @return int - number of elements
+     */
+    public int size() {
+        return parent.length();
+    }
+
+    /**
+     * @return int - number of disjoint sets
+     */
+    public int getNoComponents() {
+        return noComponents.get();
+    }
+
+    /**
+     * @param x - int - an element
+     * @return int - the representative of the set of x at some point during the call
+     */
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int grandparent = parent.get(p);
+            if (p != grandparent) {
+                parent.compareAndSet(x, p, grandparent);
+            }
+            x = grandparent;
+        }
+    }
+
+    /**
+     * Merges the sets of a and b
+     * @return boolean - false if a and b were already in the same set; of concurrent calls that merge the same two
+     *  sets exactly one returns true
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return false;
+            }
+            if (before(rb, ra)) {
+                int t = ra;
+                ra = rb;
+                rb = t;
+            }
+            // ra has the lower priority and goes below rb, unless another thread linked it first
+            if (parent.compareAndSet(ra, ra, rb)) {
+                noComponents.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return boolean - true if a and b are in the same set
+     */
+    public boolean connected(int a, int b) {
+        while (true) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra == rb) {
+                return true;
+            }
+            // Different roots are only an answer if ra was still a root after rb was found
+            if (parent.get(ra) == ra) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Should be called once the merging threads are done
+     * @return int[] - for every element the number of its set, numbered 0..getNoComponents()-1 in the order of their
+     *  smallest elements
+     */
+    public int[] componentIds() {
+        int n = parent.length();
+        int[] label = new int[n];
+        int[] ids = new int[n];
+        java.util.Arrays.fill(label, -1);
+        int next = 0;
+        for (int x = 0; x < n; x++) {
+            int root = find(x);
+            if (label[root] == -1) {
+                label[root] = next++;
+            }
+            ids[x] = label[root];
+        }
+        return ids;
+    }
+
+    /**
+     * @return boolean - true if x has a lower priority than y; the priorities are a fixed hash of the elements
+     */
+    private static boolean before(int x, int y) {
+        int hx = mix(x);
+        int hy = mix(y);
+        return hx < hy || (hx == hy && x < y);
+    }
+
+    private static int mix(int x) {
+        x ^= x >>> 16;
+        x *= 0x7feb352d;
+        x ^= x >>> 15;
+        x *= 0x846ca68b;
+        x ^= x >>> 16;
+        return x;
+    }
+}
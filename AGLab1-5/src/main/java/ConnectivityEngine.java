@@ -0,0 +1,277 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Connected components and cycle detection of an undirected graph given as a stream of edges, in O(m * alpha(n)).
+ * Every edge is merged into a {@link UnionFind}; an edge whose endpoints are already connected closes a cycle.
+ * With a ForkJoinPool the edges are merged in parallel into a {@link ConcurrentUnionFind} instead; the components
+ *  are the same, but the reported cycle edge is then the first one, in stream order, whose merge failed, which need
+ *  not be the first edge that closes a cycle.
+ * A file is merged chunk by chunk as it is parsed, so only the sets and the chunks being parsed are held in memory.
+ */
+public class ConnectivityEngine {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine that merges the edges in stream order
+     */
+    public ConnectivityEngine() {
+        this.pool = null;
+    }
+
+    /**
+     * Creates an engine that merges the edges in parallel
+     * @param pool - ForkJoinPool
+     */
+    public ConnectivityEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reads the edges of a Graph from {@link Graph#edges()}. The graph stores an undirected edge as two opposite
+     *  directed edges, which are taken once; an edge without its opposite is taken as an undirected edge as well.
+     * @param graph - Graph
+     * @return Report, where vertices are identified by their IDs
+     */
+    public Report run(Graph graph) {
+        int maxId = graph.vertices().mapToInt(Vertex::getvID).max().orElse(-1);
+        int[] vertexIds = graph.vertices().mapToInt(Vertex::getvID).sorted().toArray();
+        int[] indexById = new int[maxId + 1];
+        for (int i = 0; i < vertexIds.length; i++) {
+            indexById[vertexIds[i]] = i;
+        }
+
+        EdgeList edges = new EdgeList(vertexIds.length, graph.getNoEdges());
+        graph.edges()
+                .filter(e -> e.getV1().getvID() <= e.getV2().getvID() || e.getV2().getOutEdge(e.getV1().getvID()).isEmpty())
+                .forEachOrdered(e -> edges.add(indexById[e.getV1().getvID()], indexById[e.getV2().getvID()], e.getWeight()));
+        return run(edges, vertexIds, indexById);
+    }
+
+    /**
+     * Reads the edges of a file without loading it; every record is one undirected edge
+     * @param path - Path of the file
+     * @param format - GraphLoader.Format of the file
+     * @return Report, where vertices are identified by the IDs 0..n-1 of the file
+     * @throws IOException
+     *      Thrown if the file does not exist or cannot be read
+     * @throws IllegalStateException
+     *      Thrown if the file is malformed or its counts do not match its contents
+     */
+    public Report run(Path path, GraphLoader.Format format) throws IOException, IllegalStateException {
+        GraphLoader loader = new GraphLoader(format);
+        if (pool == null) {
+            ChunkMerger merger = new ChunkMerger(false);
+            loader.stream(path, merger, true);
+            return merger.report();
+        }
+
+        ChunkMerger merger = new ChunkMerger(true);
+        try {
+            pool.submit(() -> {
+                try {
+                    loader.stream(path, merger, false);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).join();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        return merger.report();
+    }
+
+    /**
+     * @param edges - EdgeList - every edge is taken as an undirected edge
+     * @return Report, where vertices are identified by the IDs 0..n-1 of the list
+     */
+    public Report run(EdgeList edges) {
+        return run(edges, null, null);
+    }
+
+    private Report run(EdgeList edges, int[] vertexIds, int[] indexById) {
+        int n = edges.getNoVertices();
+        int m = edges.size();
+        if (pool == null || m < PARALLEL_THRESHOLD) {
+            UnionFind sets = new UnionFind(n);
+            int cycleEdge = -1;
+            for (int i = 0; i < m; i++) {
+                if (!sets.union(edges.source(i), edges.target(i)) && cycleEdge == -1) {
+                    cycleEdge = i;
+                }
+            }
+            return report(edges, cycleEdge, sets.getNoComponents(), sets.componentIds(), vertexIds, indexById);
+        }
+
+        ConcurrentUnionFind sets = new ConcurrentUnionFind(n);
+        AtomicInteger cycleEdge = new AtomicInteger(Integer.MAX_VALUE);
+        pool.submit(() -> IntStream.range(0, m).parallel().forEach(i -> {
+            if (!sets.union(edges.source(i), edges.target(i))) {
+                cycleEdge.accumulateAndGet(i, Math::min);
+            }
+        })).join();
+        int first = cycleEdge.get() == Integer.MAX_VALUE ? -1 : cycleEdge.get();
+        return report(edges, first, sets.getNoComponents(), sets.componentIds(), vertexIds, indexById);
+    }
+
+    private static Report report(EdgeList edges, int cycleEdge, int noComponents, int[] componentIds, int[] vertexIds,
+                                 int[] indexById) {
+        int source = cycleEdge == -1 ? -1 : edges.source(cycleEdge);
+        int target = cycleEdge == -1 ? -1 : edges.target(cycleEdge);
+        return new Report(cycleEdge, source, target, noComponents, componentIds, vertexIds, indexById);
+    }
+
+    /**
+     * Merges the chunks of a file as the loader passes them on. The first failed merge is kept as its chunk and its
+     *  position in the chunk, since the position in the file is only known once the sizes of the chunks before it are.
+     */
+    private static final class ChunkMerger implements GraphLoader.ChunkConsumer {
+        private final boolean concurrent;
+        private UnionFind sets;
+        private ConcurrentUnionFind concurrentSets;
+        private int[] chunkSizes;
+        private int cycleChunk = Integer.MAX_VALUE;
+        private int cyclePosition;
+        private int cycleSource = -1;
+        private int cycleTarget = -1;
+
+        ChunkMerger(boolean concurrent) {
+            this.concurrent = concurrent;
+        }
+
+        @Override
+        public void begin(int noVertices, int noChunks) {
+            chunkSizes = new int[noChunks];
+            if (concurrent) {
+                concurrentSets = new ConcurrentUnionFind(noVertices);
+            } else {
+                sets = new UnionFind(noVertices);
+            }
+        }
+
+        @Override
+        public void accept(int chunk, EdgeList edges) {
+            chunkSizes[chunk] = edges.size();
+            int first = -1;
+            for (int i = 0; i < edges.size(); i++) {
+                boolean merged = concurrent
+                        ? concurrentSets.union(edges.source(i), edges.target(i))
+                        : sets.union(edges.source(i), edges.target(i));
+                if (!merged && first == -1) {
+                    first = i;
+                }
+            }
+            if (first != -1) {
+                synchronized (this) {
+                    if (chunk < cycleChunk) {
+                        cycleChunk = chunk;
+                        cyclePosition = first;
+                        cycleSource = edges.source(first);
+                        cycleTarget = edges.target(first);
+                    }
+                }
+            }
+        }
+
+        Report report() {
+            long cycleEdge = -1;
+            if (cycleChunk != Integer.MAX_VALUE) {
+                cycleEdge = cyclePosition;
+                for (int chunk = 0; chunk < cycleChunk; chunk++) {
+                    cycleEdge += chunkSizes[chunk];
+                }
+            }
+            return concurrent
+                    ? new Report(cycleEdge, cycleSource, cycleTarget, concurrentSets.getNoComponents(),
+                            concurrentSets.componentIds(), null, null)
+                    : new Report(cycleEdge, cycleSource, cycleTarget, sets.getNoComponents(), sets.componentIds(), null, null);
+        }
+    }
+
+    /**
+     * Components and the cycle edge found by a run
+     */
+    public static final class Report {
+        private final long cycleEdge;
+        private final int cycleSource;
+        private final int cycleTarget;
+        private final int noComponents;
+        private final int[] componentIds;
+        private final int[] vertexIds;
+        private final int[] indexById;
+
+        Report(long cycleEdge, int cycleSource, int cycleTarget, int noComponents, int[] componentIds, int[] vertexIds,
+               int[] indexById) {
+            this.cycleEdge = cycleEdge;
+            this.cycleSource = cycleSource;
+            this.cycleTarget = cycleTarget;
+            this.noComponents = noComponents;
+            this.componentIds = componentIds;
+            this.vertexIds = vertexIds;
+            this.indexById = indexById;
+        }
+
+        /**
+         * @return boolean - true if the graph has a cycle
+         */
+        public boolean hasCycle() {
+            return cycleEdge != -1;
+        }
+
+        /**
+         * @return long - position in the edge stream of the edge that closes a cycle, -1 if there is none
+         */
+        public long getCycleEdgeIndex() {
+            return cycleEdge;
+        }
+
+        /**
+         * @return int[] - IDs of the two endpoints of the edge that closes a cycle
+         * @throws IllegalStateException
+         *      If the graph has no cycle
+         */
+        public int[] getCycleEdge() throws IllegalStateException {
+            if (cycleEdge == -1) {
+                throw new IllegalStateException("The graph does not contain a cycle!");
+            }
+            return new int[]{vertexId(cycleSource), vertexId(cycleTarget)};
+        }
+
+        /**
+         * @return int - number of connected components
+         */
+        public int getNoComponents() {
+            return noComponents;
+        }
+
+        /**
+         * @param vid - int - ID of a vertex
+         * @return int - number 0..getNoComponents()-1 of the component of the vertex
+         * @throws IllegalStateException
+         *      If the vertex does not exist
+         */
+        public int getComponentId(int vid) throws IllegalStateException {
+            int index = indexById == null ? vid : (vid >= 0 && vid < indexById.length ? indexById[vid] : -1);
+            if (index < 0 || index >= componentIds.length || vertexId(index) != vid) {
+                throw new IllegalStateException("Vertex does not exist!");
+            }
+            return componentIds[index];
+        }
+
+        private int vertexId(int index) {
+            return vertexIds == null ? index : vertexIds[index];
+        }
+
+        @Override
+        public String toString() {
+            return "Connectivity{Components=" + noComponents + ", Cycle=" + (hasCycle()
+                    ? getCycleEdge()[0] + "-" + getCycleEdge()[1] : "none") + "}";
+        }
+    }
+}
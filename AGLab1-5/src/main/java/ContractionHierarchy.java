@@ -0,0 +1,633 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchy of a Graph, answering repeated lowest cost path queries with small upward searches.
+ * Preprocessing contracts the vertices in rounds:
+ *      - the priority of a vertex is its edge difference: shortcuts its contraction needs, minus its remaining edges,
+ *          plus the number of its neighbours already contracted
+ *      - every round contracts, in parallel, the vertices whose priority is lower than that of all their remaining neighbours;
+ *          the witness searches of a round avoid every vertex contracted in that round, so the shortcuts stay exact
+ *      - contracting v adds a shortcut u->w for each pair of neighbours whose lowest cost path goes through v
+ * Contraction stops early if the remaining vertices become too densely connected; they form the core of the hierarchy
+ *  and share the highest rank.
+ * A query runs a forward search from the start and a backward search from the end, both only towards higher ranks
+ *  (and freely inside the core), and unpacks the shortcuts of the best meeting path back into the original vertices.
+ * The hierarchy is a snapshot: it must be built again after the graph changes.
+ */
+public class ContractionHierarchy {
+    private static final long INFINITY = Long.MAX_VALUE;
+    // Witness searches give up after settling this many vertices; the estimate of a priority uses a smaller limit
+    private static final int WITNESS_SETTLED_LIMIT = 200;
+    private static final int ESTIMATE_SETTLED_LIMIT = 40;
+    // Above this many neighbour pairs a priority assumes that every pair needs a shortcut instead of searching for witnesses
+    private static final int ESTIMATE_MAX_PAIRS = 1000;
+    // Contraction stops once the remaining vertices have this many edges on average; they form the core of the hierarchy
+    private static final int CORE_AVERAGE_DEGREE = 24;
+
+    private final Graph graph;
+    private final CsrGraph csr;
+    private final int[] rank;
+    // Upward edges: outbound edges towards higher ranks and inbound edges from higher ranks, with the middle vertex of shortcuts
+    private final int[] upOutOffsets;
+    private final int[] upOutTargets;
+    private final long[] upOutWeights;
+    private final int[] upOutMiddles;
+    private final int[] upInOffsets;
+    private final int[] upInSources;
+    private final long[] upInWeights;
+    private final int[] upInMiddles;
+    private final int noShortcuts;
+
+    // Query state, reused between queries
+    private final long[] distForward;
+    private final long[] distBackward;
+    private final int[] parentForward;
+    private final int[] parentBackward;
+    private final IndexedHeap heapForward;
+    private final IndexedHeap heapBackward;
+    private int[] touched = new int[64];
+    private int noTouched;
+    private int lastSettled;
+
+    private ContractionHierarchy(Graph graph, CsrGraph csr, int[] rank, Adjacency[] upOut, Adjacency[] upIn, int noShortcuts) {
+        int n = csr.getNoVertices();
+        this.graph = graph;
+        this.csr = csr;
+        this.rank = rank;
+        this.noShortcuts = noShortcuts;
+
+        upOutOffsets = new int[n + 1];
+        upInOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            upOutOffsets[v + 1] = upOutOffsets[v] + upOut[v].size;
+            upInOffsets[v + 1] = upInOffsets[v] + upIn[v].size;
+        }
+        upOutTargets = new int[upOutOffsets[n]];
+        upOutWeights = new long[upOutOffsets[n]];
+        upOutMiddles = new int[upOutOffsets[n]];
+        upInSources = new int[upInOffsets[n]];
+        upInWeights = new long[upInOffsets[n]];
+        upInMiddles = new int[upInOffsets[n]];
+        for (int v = 0; v < n; v++) {
+            System.arraycopy(upOut[v].vertices, 0, upOutTargets, upOutOffsets[v], upOut[v].size);
+            System.arraycopy(upOut[v].weights, 0, upOutWeights, upOutOffsets[v], upOut[v].size);
+            System.arraycopy(upOut[v].middles, 0, upOutMiddles, upOutOffsets[v], upOut[v].size);
+            System.arraycopy(upIn[v].vertices, 0, upInSources, upInOffsets[v], upIn[v].size);
+            System.arraycopy(upIn[v].weights, 0, upInWeights, upInOffsets[v], upIn[v].size);
+            System.arraycopy(upIn[v].middles, 0, upInMiddles, upInOffsets[v], upIn[v].size);
+        }
+
+        distForward = new long[n];
+        distBackward = new long[n];
+        parentForward = new int[n];
+        parentBackward = new int[n];
+        Arrays.fill(distForward, INFINITY);
+        Arrays.fill(distBackward, INFINITY);
+        heapForward = new IndexedHeap(n);
+        heapBackward = new IndexedHeap(n);
+    }
+
+    // -------------------- Preprocessing --------------------
+
+    /**
+     * Contracts every vertex of the graph, in parallel rounds
+     * @param graph - Graph with non-negative weights
+     * @return ContractionHierarchy
+     * @throws IllegalStateException
+     *      If the graph has negative weights
+     */
+    public static ContractionHierarchy build(Graph graph) throws IllegalStateException {
+        CsrGraph csr = graph.freeze();
+        int n = csr.getNoVertices();
+
+        // Remaining graph, without loops and with a single lightest edge between 2 vertices
+        long remainingEdges = 0;
+        Adjacency[] out = new Adjacency[n];
+        Adjacency[] in = new Adjacency[n];
+        for (int v = 0; v < n; v++) {
+            out[v] = new Adjacency();
+            in[v] = new Adjacency();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = csr.outBegin(u); e < csr.outEnd(u); e++) {
+                if (csr.outWeight(e) < 0) {
+                    throw new IllegalStateException("Contraction hierarchies require non-negative weights!");
+                }
+                int w = csr.outTarget(e);
+                if (w != u && relax(out, in, u, w, csr.outWeight(e), -1)) {
+                    remainingEdges++;
+                }
+            }
+        }
+
+        int[] rank = new int[n];
+        Arrays.fill(rank, -1);
+        int[] deleted = new int[n];
+        boolean[] inBatch = new boolean[n];
+        ThreadLocal<Witness> witnesses = ThreadLocal.withInitial(() -> new Witness(n));
+        long[] priority = new long[n];
+        IntStream.range(0, n).parallel().forEach(v ->
+                priority[v] = priority(v, out, in, deleted, witnesses.get()));
+
+        int[] remaining = IntStream.range(0, n).toArray();
+        int contracted = 0;
+        int noShortcuts = 0;
+        while (remaining.length > 0 && remainingEdges <= (long) CORE_AVERAGE_DEGREE * remaining.length) {
+            // Vertices whose priority is below that of all their remaining neighbours form an independent set
+            int[] batch = Arrays.stream(remaining).parallel()
+                    .filter(v -> isLocalMinimum(v, out, in, priority))
+                    .toArray();
+            for (int v : batch) {
+                inBatch[v] = true;
+            }
+            List<List<long[]>> shortcuts = IntStream.range(0, batch.length).parallel()
+                    .mapToObj(i -> shortcuts(batch[i], out, in, inBatch, WITNESS_SETTLED_LIMIT, witnesses.get()))
+                    .collect(Collectors.toList());
+
+            // Apply the contractions; the upward edges of a contracted vertex are the remaining ones
+            boolean[] changed = new boolean[n];
+            for (int i = 0; i < batch.length; i++) {
+                int v = batch[i];
+                rank[v] = contracted++;
+                remainingEdges -= out[v].size + in[v].size;
+                for (int k = 0; k < out[v].size; k++) {
+                    int w = out[v].vertices[k];
+                    in[w].remove(v);
+                    deleted[w]++;
+                    changed[w] = true;
+                }
+                for (int k = 0; k < in[v].size; k++) {
+                    int u = in[v].vertices[k];
+                    out[u].remove(v);
+                    deleted[u]++;
+                    changed[u] = true;
+                }
+                for (long[] shortcut : shortcuts.get(i)) {
+                    if (relax(out, in, (int) shortcut[0], (int) shortcut[1], shortcut[2], v)) {
+                        noShortcuts++;
+                        remainingEdges++;
+                    }
+                }
+            }
+            for (int v : batch) {
+                inBatch[v] = false;
+                changed[v] = false;
+            }
+
+            remaining = Arrays.stream(remaining).filter(v -> rank[v] == -1).toArray();
+            int[] update = Arrays.stream(remaining).filter(v -> changed[v]).toArray();
+            IntStream.range(0, update.length).parallel().forEach(i ->
+                    priority[update[i]] = priority(update[i], out, in, deleted, witnesses.get()));
+        }
+
+        // The core keeps all its edges in both directions, so queries search it like a plain bidirectional Dijkstra
+        for (int v : remaining) {
+            rank[v] = contracted;
+        }
+
+        return new ContractionHierarchy(graph, csr, rank, out, in, noShortcuts);
+    }
+
+    private static boolean isLocalMinimum(int v, Adjacency[] out, Adjacency[] in, long[] priority) {
+        for (Adjacency neighbours : new Adjacency[]{out[v], in[v]}) {
+            for (int k = 0; k < neighbours.size; k++) {
+                int x = neighbours.vertices[k];
+                if (priority[x] < priority[v] || (priority[x] == priority[v] && x < v)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long priority(int v, Adjacency[] out, Adjacency[] in, int[] deleted, Witness witness) {
+        long pairs = (long) in[v].size * out[v].size;
+        long added = pairs > ESTIMATE_MAX_PAIRS ? pairs : shortcuts(v, out, in, null, ESTIMATE_SETTLED_LIMIT, witness).size();
+        return added - out[v].size - in[v].size + deleted[v];
+    }
+
+    /**
+     * @return List - {source, target, weight} of every shortcut needed when contracting v
+     */
+    private static List<long[]> shortcuts(int v, Adjacency[] out, Adjacency[] in, boolean[] inBatch, int settledLimit, Witness witness) {
+        List<long[]> shortcuts = new ArrayList<>();
+        long maxOut = 0;
+        for (int k = 0; k < out[v].size; k++) {
+            maxOut = Math.max(maxOut, out[v].weights[k]);
+        }
+        for (int i = 0; i < in[v].size; i++) {
+            int u = in[v].vertices[i];
+            long toV = in[v].weights[i];
+            witness.search(u, v, toV + maxOut, out[v], out, inBatch, settledLimit);
+            for (int k = 0; k < out[v].size; k++) {
+                int w = out[v].vertices[k];
+                long viaV = toV + out[v].weights[k];
+                if (w != u && witness.distance(w) > viaV) {
+                    shortcuts.add(new long[]{u, w, viaV});
+                }
+            }
+            witness.reset();
+        }
+        return shortcuts;
+    }
+
+    /**
+     * Adds the edge u->w or lowers the weight of the existing one
+     * @return boolean - true if a new edge was added
+     */
+    private static boolean relax(Adjacency[] out, Adjacency[] in, int u, int w, long weight, int middle) {
+        int k = out[u].indexOf(w);
+        if (k == -1) {
+            out[u].add(w, weight, middle);
+            in[w].add(u, weight, middle);
+            return true;
+        }
+        if (weight < out[u].weights[k]) {
+            out[u].weights[k] = weight;
+            out[u].middles[k] = middle;
+            int j = in[w].indexOf(u);
+            in[w].weights[j] = weight;
+            in[w].middles[j] = middle;
+        }
+        return false;
+    }
+
+    /**
+     * @return int - number of shortcut edges added by the contraction
+     */
+    public int getNoShortcuts() {
+        return noShortcuts;
+    }
+
+    /**
+     * @param vid - ID of a vertex
+     * @return int - position of the vertex in the contraction order; every core vertex has the highest rank
+     */
+    public int getRank(int vid) {
+        int index = csr.indexOf(vid);
+        if (index == -1) {
+            throw new IllegalStateException("Given vertex does not exist!");
+        }
+        return rank[index];
+    }
+
+    /**
+     * @return int - number of vertices settled by the last query
+     */
+    public int getLastSettled() {
+        return lastSettled;
+    }
+
+    // -------------------- Queries --------------------
+
+    /**
+     * Searches the lowest cost path between 2 vertices given by their IDs
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return List<Vertex> - ordered list of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public List<Vertex> lowestCostPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int[] ids = lowestCostPathIds(vertexStartID, vertexEndID);
+        List<Vertex> path = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            Optional<Vertex> vertex = graph.getVertexById(id);
+            if (vertex.isEmpty()) {
+                throw new IllegalStateException("The graph changed after the hierarchy was built!");
+            }
+            path.add(vertex.get());
+        }
+        return path;
+    }
+
+    /**
+     * Searches the lowest cost path between 2 vertices given by their IDs
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public synchronized int[] lowestCostPathIds(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        try {
+            int meeting = search(start, end);
+            if (meeting == -1) {
+                throw new IllegalStateException("No such path!");
+            }
+            return unpack(start, meeting, end);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * @param vertexStartID - id of the starting Vertex
+     * @param vertexEndID - id of the final Vertex
+     * @return long - cost of the lowest cost path, Long.MAX_VALUE if there is none
+     * @throws IllegalStateException
+     *      If there are no vertices with the given IDs.
+     */
+    public synchronized long distance(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        try {
+            int meeting = search(start, end);
+            return meeting == -1 ? INFINITY : distForward[meeting] + distBackward[meeting];
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Runs both upward searches until neither can improve the best meeting vertex
+     * @return int - the meeting vertex, -1 if the vertices are not connected
+     */
+    private int search(int start, int end) {
+        touch(start);
+        distForward[start] = 0;
+        parentForward[start] = -1;
+        heapForward.push(start, 0);
+        if (distForward[end] == INFINITY) {
+            touch(end);
+        }
+        distBackward[end] = 0;
+        parentBackward[end] = -1;
+        heapBackward.push(end, 0);
+
+        long best = INFINITY;
+        int meeting = -1;
+        int settled = 0;
+        while (true) {
+            boolean forwardOpen = heapForward.minKey() < best;
+            boolean backwardOpen = heapBackward.minKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+            boolean forward = forwardOpen && (!backwardOpen || heapForward.minKey() <= heapBackward.minKey());
+            IndexedHeap heap = forward ? heapForward : heapBackward;
+            long[] dist = forward ? distForward : distBackward;
+            long[] otherDist = forward ? distBackward : distForward;
+            int[] parent = forward ? parentForward : parentBackward;
+            int[] offsets = forward ? upOutOffsets : upInOffsets;
+            int[] vertices = forward ? upOutTargets : upInSources;
+            long[] weights = forward ? upOutWeights : upInWeights;
+
+            int current = heap.pop();
+            settled++;
+            if (otherDist[current] != INFINITY && dist[current] + otherDist[current] < best) {
+                best = dist[current] + otherDist[current];
+                meeting = current;
+            }
+            for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+                int other = vertices[e];
+                long candidate = dist[current] + weights[e];
+                if (candidate < dist[other]) {
+                    if (dist[other] == INFINITY && otherDist[other] == INFINITY) {
+                        touch(other);
+                    }
+                    dist[other] = candidate;
+                    parent[other] = e;
+                    heap.push(other, candidate);
+                }
+            }
+        }
+        lastSettled = settled;
+        return meeting;
+    }
+
+    /**
+     * Follows the parent edges from the meeting vertex to both ends and expands every shortcut on the way
+     */
+    private int[] unpack(int start, int meeting, int end) {
+        // Hierarchy edges of the path, as {source, target, middle}
+        List<int[]> edges = new ArrayList<>();
+        for (int v = meeting; v != start; ) {
+            int e = parentForward[v];
+            int u = ownerOf(upOutOffsets, e);
+            edges.add(new int[]{u, v, upOutMiddles[e]});
+            v = u;
+        }
+        Collections.reverse(edges);
+        for (int v = meeting; v != end; ) {
+            int e = parentBackward[v];
+            int w = ownerOf(upInOffsets, e);
+            edges.add(new int[]{v, w, upInMiddles[e]});
+            v = w;
+        }
+
+        int[] path = new int[16];
+        int length = 0;
+        path[length++] = csr.vertexId(start);
+        int[] stack = new int[48];
+        for (int[] edge : edges) {
+            int top = 0;
+            stack[top++] = edge[0];
+            stack[top++] = edge[1];
+            stack[top++] = edge[2];
+            while (top > 0) {
+                int middle = stack[--top];
+                int target = stack[--top];
+                int source = stack[--top];
+                if (middle == -1) {
+                    if (length == path.length) {
+                        path = Arrays.copyOf(path, length * 2);
+                    }
+                    path[length++] = csr.vertexId(target);
+                    continue;
+                }
+                if (top + 6 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                // source->middle is an inbound edge of middle and middle->target an outbound one; expand the first half first
+                stack[top++] = middle;
+                stack[top++] = target;
+                stack[top++] = upOutMiddles[find(upOutOffsets, upOutTargets, middle, target)];
+                stack[top++] = source;
+                stack[top++] = middle;
+                stack[top++] = upInMiddles[find(upInOffsets, upInSources, middle, source)];
+            }
+        }
+        return Arrays.copyOf(path, length);
+    }
+
+    private static int find(int[] offsets, int[] vertices, int owner, int vertex) {
+        for (int e = offsets[owner]; e < offsets[owner + 1]; e++) {
+            if (vertices[e] == vertex) {
+                return e;
+            }
+        }
+        throw new IllegalStateException("Missing hierarchy edge: " + owner + " " + vertex);
+    }
+
+    /**
+     * @return int - the vertex whose range of the offsets contains the edge
+     */
+    private static int ownerOf(int[] offsets, int e) {
+        int low = 0, high = offsets.length - 2;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (offsets[middle] <= e) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private int index(int vid) {
+        int index = csr.indexOf(vid);
+        if (index == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return index;
+    }
+
+    private void touch(int v) {
+        if (noTouched == touched.length) {
+            touched = Arrays.copyOf(touched, noTouched * 2);
+        }
+        touched[noTouched++] = v;
+    }
+
+    private void reset() {
+        for (int i = 0; i < noTouched; i++) {
+            distForward[touched[i]] = INFINITY;
+            distBackward[touched[i]] = INFINITY;
+        }
+        noTouched = 0;
+        heapForward.clear();
+        heapBackward.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ContractionHierarchy{Vertices=" + csr.getNoVertices() + ", Edges=" + csr.getNoEdges()
+                + ", Shortcuts=" + noShortcuts + ", UpwardEdges=" + (upOutTargets.length + upInSources.length) + "}";
+    }
+
+    /**
+     * Growable list of the neighbours of a vertex on one side, with the weights and shortcut middles of the edges
+     */
+    private static final class Adjacency {
+        int[] vertices = new int[4];
+        long[] weights = new long[4];
+        int[] middles = new int[4];
+        int size;
+
+        int indexOf(int vertex) {
+            for (int k = 0; k < size; k++) {
+                if (vertices[k] == vertex) {
+                    return k;
+                }
+            }
+            return -1;
+        }
+
+        void add(int vertex, long weight, int middle) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            vertices[size] = vertex;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+
+        void remove(int vertex) {
+            int k = indexOf(vertex);
+            if (k != -1) {
+                size--;
+                vertices[k] = vertices[size];
+                weights[k] = weights[size];
+                middles[k] = middles[size];
+            }
+        }
+    }
+
+    /**
+     * Bounded Dijkstra search over the remaining graph, used to find paths that make a shortcut unnecessary.
+     * One instance per thread; only the touched entries are reset between searches.
+     */
+    private static final class Witness {
+        private final long[] dist;
+        private final IndexedHeap heap;
+        private final boolean[] target;
+        private int[] touched = new int[64];
+        private int noTouched;
+
+        Witness(int n) {
+            dist = new long[n];
+            Arrays.fill(dist, INFINITY);
+            heap = new IndexedHeap(n);
+            target = new boolean[n];
+        }
+
+        /**
+         * Searches from source without going through avoided, until every target is settled or a limit is reached
+         */
+        void search(int source, int avoided, long limit, Adjacency targets, Adjacency[] out, boolean[] inBatch, int settledLimit) {
+            for (int k = 0; k < targets.size; k++) {
+                target[targets.vertices[k]] = true;
+            }
+            int remainingTargets = targets.size;
+            visit(source, 0);
+            heap.push(source, 0);
+            int settled = 0;
+            int current;
+            while (remainingTargets > 0 && (current = heap.pop()) != -1 && dist[current] <= limit && settled++ < settledLimit) {
+                if (target[current]) {
+                    remainingTargets--;
+                }
+                Adjacency edges = out[current];
+                for (int k = 0; k < edges.size; k++) {
+                    int other = edges.vertices[k];
+                    if (other == avoided || (inBatch != null && inBatch[other])) {
+                        continue;
+                    }
+                    long candidate = dist[current] + edges.weights[k];
+                    if (candidate < dist[other]) {
+                        visit(other, candidate);
+                        heap.push(other, candidate);
+                    }
+                }
+            }
+            for (int k = 0; k < targets.size; k++) {
+                target[targets.vertices[k]] = false;
+            }
+        }
+
+        private void visit(int v, long distance) {
+            if (dist[v] == INFINITY) {
+                if (noTouched == touched.length) {
+                    touched = Arrays.copyOf(touched, noTouched * 2);
+                }
+                touched[noTouched++] = v;
+            }
+            dist[v] = distance;
+        }
+
+        long distance(int v) {
+            return dist[v];
+        }
+
+        void reset() {
+            for (int i = 0; i < noTouched; i++) {
+                dist[touched[i]] = INFINITY;
+            }
+            noTouched = 0;
+            heap.clear();
+        }
+    }
+}
@@ -1,12 +1,23 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Provides a layer over the operations on a Graph.
  */
 public class Controller {
+    private static final int PATH_CACHE_CAPACITY = 4096;
+
     private Graph graph;
+    private final PathCache pathCache = new PathCache(PATH_CACHE_CAPACITY);
+    private MutationLog mutationLog;
+    private final Object checkpointLock = new Object();
 
     /**
      * Creates a controller over a Graph
@@ -47,7 +58,107 @@ public class Controller {
      * @param graph - Graph
      */
     public void setGraph(Graph graph) {
-        this.graph = graph;
+        synchronized (this) {
+            this.graph = graph;
+        }
+        pathCache.clear();
+        if (mutationLog != null) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Persists every later change of the graph to a synchronous mutation log kept in the given directory.
+     * @param directory - Path of the directory that holds the log
+     * @param compactionThreshold - long - number of logged changes after which a checkpoint runs in the background
+     * @throws IOException
+     *      Thrown if the log could not be opened or recovered
+     * @see #openMutationLog(Path, long, boolean)
+     */
+    public void openMutationLog(Path directory, long compactionThreshold) throws IOException {
+        openMutationLog(directory, compactionThreshold, true);
+    }
+
+    /**
+     * Persists every later change of the graph to a mutation log kept in the given directory.
+     * If the directory already holds a log, the graph is replaced by the one recovered from it;
+     *  otherwise the current graph is checkpointed into it.
+     * A change is validated and applied to the graph, then appended to the log before the changing call returns:
+     *      sync = true - the record is forced to the storage device first, so every change whose call returned
+     *          survives a crash; a crash during the call loses only that change
+     *      sync = false - the record is left to the operating system, so a crash of the machine can lose changes
+     *          whose calls already returned
+     * @param directory - Path of the directory that holds the log
+     * @param compactionThreshold - long - number of logged changes after which a checkpoint runs in the background
+     * @param sync - boolean - whether every record is forced to the storage device before the change returns
+     * @throws IOException
+     *      Thrown if the log could not be opened or recovered
+     */
+    public void openMutationLog(Path directory, long compactionThreshold, boolean sync) throws IOException {
+        closeMutationLog();
+        MutationLog log = new MutationLog(directory, sync);
+        synchronized (this) {
+            if (log.hasState()) {
+                this.graph = log.recover();
+            }
+            this.mutationLog = log;
+        }
+        pathCache.clear();
+        log.setCompaction(compactionThreshold, this::checkpoint);
+        checkpoint();
+    }
+
+    /**
+     * Stops logging the changes of the graph
+     * @throws IOException
+     *      Thrown if the log could not be closed
+     */
+    public void closeMutationLog() throws IOException {
+        if (mutationLog != null) {
+            synchronized (checkpointLock) {
+                synchronized (this) {
+                    mutationLog.close();
+                    mutationLog = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacts the mutation log into a snapshot of the current graph.
+     * The graph is only locked while it is copied, the snapshot is written while changes continue.
+     * @throws UncheckedIOException
+     *      If the snapshot could not be written
+     */
+    public void checkpoint() throws UncheckedIOException {
+        synchronized (checkpointLock) {
+            if (mutationLog == null) {
+                return;
+            }
+            try {
+                MutationLog.Snapshot snapshot;
+                synchronized (this) {
+                    snapshot = mutationLog.rotate(graph);
+                }
+                mutationLog.writeSnapshot(snapshot);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Appends a change to the mutation log, if one is open
+     */
+    private void log(MutationLog.Operation operation, int v1, int v2, int weight) {
+        if (mutationLog == null) {
+            return;
+        }
+        try {
+            mutationLog.append(operation, v1, v2, weight);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
@@ -134,12 +245,8 @@ public class Controller {
      *      If an Edge does not exist between the 2 vertices
      */
     public Edge existsEdge(int v1id, int v2id) throws NullPointerException, IllegalStateException {
-        Optional<Vertex> v1optional = graph.vertices()
-                .filter(vertex -> vertex.getvID() == v1id)
-                .findFirst();
-        Optional<Vertex> v2optional = graph.vertices()
-                .filter(vertex -> vertex.getvID() == v2id)
-                .findFirst();
+        Optional<Vertex> v1optional = graph.getVertexById(v1id);
+        Optional<Vertex> v2optional = graph.getVertexById(v2id);
         if(v1optional.isEmpty() || v2optional.isEmpty())
             throw new NullPointerException("Invalid Vertex!");
 
@@ -157,10 +264,11 @@ public class Controller {
      * Adds an edge to the graph
      * @param edge - Edge to be added
      */
-    public void addEdge(Edge edge) throws IllegalStateException {
-        Optional<Edge> edgeOptional = graph.edges().filter(e -> e.equals(edge)).findAny();
+    public synchronized void addEdge(Edge edge) throws IllegalStateException {
+        Optional<Edge> edgeOptional = graph.existsEdge(edge.getV1(), edge.getV2());
         if (edgeOptional.isEmpty()) {
             graph.addEdge(edge);
+            log(MutationLog.Operation.ADD_EDGE, edge.getV1().getvID(), edge.getV2().getvID(), edge.getWeight());
         } else {
             throw new IllegalStateException("Edge already exists!");
         }
@@ -169,24 +277,203 @@ public class Controller {
     /**
      * Removes an edge from the graph
      * @param edge - Edge to be removed
+     * @throws IllegalStateException
+     *      If no such Edge exists; nothing is changed or logged
      */
-    public void removeEdge(Edge edge) {
-        graph.removeEdge(edge);
+    public synchronized void removeEdge(Edge edge) throws IllegalStateException {
+        Edge existing = graph.getEdge(edge.getV1().getvID(), edge.getV2().getvID())
+                .orElseThrow(() -> new IllegalStateException("No such edge exists!"));
+        graph.removeEdge(existing);
+        log(MutationLog.Operation.REMOVE_EDGE, existing.getV1().getvID(), existing.getV2().getvID(), 0);
+    }
+
+    /**
+     * Updates the weight of the Edge between 2 vertices identified by their ids
+     * @param v1id - Vertex 1 ID
+     * @param v2id - Vertex 2 ID
+     * @param weight - int - new weight of the Edge
+     * @throws IllegalStateException
+     *      If no such Edge exists
+     */
+    public synchronized void updateEdgeWeight(int v1id, int v2id, int weight) throws IllegalStateException {
+        getEdge(v1id, v2id).setWeight(weight);
+        log(MutationLog.Operation.SET_WEIGHT, v1id, v2id, weight);
     }
 
     /**
      * Adds a vertex to the graph
      * @param vertex - Vertex to be added
      */
-    public void addVertex(Vertex vertex) {
+    public synchronized void addVertex(Vertex vertex) {
         graph.addVertex(vertex);
+        log(MutationLog.Operation.ADD_VERTEX, vertex.getvID(), 0, 0);
     }
 
     /**
      * Removes a vertex from the graph and all its connected edges
      * @param vertex - Vertex to be removed
      */
-    public void removeVertex(Vertex vertex) throws IllegalStateException {
+    public synchronized void removeVertex(Vertex vertex) throws IllegalStateException {
+        int vid = vertex.getvID();
         graph.removeVertex(vertex);
+        log(MutationLog.Operation.REMOVE_VERTEX, vid, 0, 0);
+    }
+
+    /**
+     * Starts keeping the topological order of the graph up to date; later edges that would close a cycle are rejected
+     * @throws IllegalStateException
+     *      If the graph already has a cycle
+     */
+    public synchronized void maintainTopologicalOrder() throws IllegalStateException {
+        graph.maintainTopologicalOrder();
+    }
+
+    /**
+     * Reads the maintained topological order without sorting the graph again
+     * @return int[] - the vertex IDs in topological order
+     * @throws IllegalStateException
+     *      If the topological order is not maintained
+     */
+    public synchronized int[] getTopologicalOrder() throws IllegalStateException {
+        return graph.getTopologicalOrder()
+                .orElseThrow(() -> new IllegalStateException("The topological order is not maintained!"))
+                .getOrderIds();
+    }
+
+    /**
+     * @return PathCache - cache of the path queries answered by this controller
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Shortest path between 2 vertices, in number of edges, answered from the path cache when possible.
+     * Like the other single path queries it runs under the lock of the mutators, so it never sees a half-applied
+     *  change and its result is cached under the version it was computed on.
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return List<Vertex> - unmodifiable ordered list of the vertices that form the shortest path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public synchronized List<Vertex> shortestPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return pathCache.get(graph.getId(), graph::getVersion, PathCache.Algorithm.SHORTEST, vertexStartID, vertexEndID,
+                () -> Util.shortestPath(graph, vertexStartID, vertexEndID));
+    }
+
+    /**
+     * Lowest cost path between 2 vertices, answered from the path cache when possible
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return List<Vertex> - unmodifiable ordered list of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices, if there are no vertices with the given IDs or if a weight is negative.
+     */
+    public synchronized List<Vertex> lowestCostPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return pathCache.get(graph.getId(), graph::getVersion, PathCache.Algorithm.LOWEST_COST, vertexStartID, vertexEndID,
+                () -> Util.dijkstraLowestCostPath(graph, vertexStartID, vertexEndID));
+    }
+
+    /**
+     * Highest cost path between 2 vertices of a DAG, answered from the path cache when possible
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return List<Vertex> - unmodifiable ordered list of the vertices that form the highest cost path
+     * @throws IllegalStateException
+     *      If the graph is not a DAG or if there are no vertices with the given IDs.
+     */
+    public synchronized List<Vertex> highestCostPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return pathCache.get(graph.getId(), graph::getVersion, PathCache.Algorithm.HIGHEST_COST, vertexStartID, vertexEndID,
+                () -> Graph.HighestCostPath(graph, vertexStartID, vertexEndID));
+    }
+
+    /**
+     * Answers a batch of shortest path queries, in number of edges.
+     * The pairs are grouped by their starting vertex; every distinct start runs a single BFS that answers all its pairs,
+     *  and distinct starts are searched in parallel over a CsrGraph snapshot of the graph.
+     * @param pairs - int[][] - pairs of {vertexStartID, vertexEndID}
+     * @return List of paths in the order of the pairs; the path of a pair without one is empty
+     * @throws IllegalStateException
+     *      If a pair does not have 2 elements or if there are no vertices with the given IDs.
+     */
+    public List<List<Vertex>> shortestPaths(int[][] pairs) throws IllegalStateException {
+        return batchPaths(pairs, csr -> group -> Util.breadthFirstTree(csr, group[0]));
+    }
+
+    /**
+     * Answers a batch of lowest cost path queries.
+     * The pairs are grouped by their starting vertex; every distinct start runs a single Dijkstra search that answers
+     *  all its pairs, and distinct starts are searched in parallel over a CsrGraph snapshot of the graph.
+     * @param pairs - int[][] - pairs of {vertexStartID, vertexEndID}
+     * @return List of paths in the order of the pairs; the path of a pair without one is empty
+     * @throws IllegalStateException
+     *      If a pair does not have 2 elements, if there are no vertices with the given IDs or if a weight is negative.
+     */
+    public List<List<Vertex>> lowestCostPaths(int[][] pairs) throws IllegalStateException {
+        return batchPaths(pairs, csr -> {
+            DijkstraEngine engine = new DijkstraEngine(csr);
+            // A lone end lets the search stop as soon as it is settled
+            return group -> engine.run(group[0], DijkstraEngine.Direction.FORWARD, group.length == 2 ? group[1] : -1);
+        });
+    }
+
+    /**
+     * Resolves the pairs on a snapshot of the graph, searches once per distinct start and maps the paths back to vertices
+     * @param searches - given the snapshot, returns the search of a group: the index of the start followed by the indices of its ends
+     */
+    private List<List<Vertex>> batchPaths(int[][] pairs, Function<CsrGraph, Function<int[], ShortestPathTree>> searches) {
+        CsrGraph csr;
+        Vertex[] vertices;
+        synchronized (this) {
+            csr = CsrGraph.from(graph);
+            vertices = new Vertex[csr.getNoVertices()];
+            for (Vertex v : graph.getVertices()) {
+                vertices[csr.indexOf(v.getvID())] = v;
+            }
+        }
+        Function<int[], ShortestPathTree> search = searches.apply(csr);
+
+        // (start index << 32 | pair position), sorted so that the pairs of a start are adjacent
+        long[] keys = new long[pairs.length];
+        int[] ends = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] == null || pairs[i].length != 2) {
+                throw new IllegalStateException("Pair " + i + " must have a start and an end!");
+            }
+            int start = csr.indexOf(pairs[i][0]);
+            ends[i] = csr.indexOf(pairs[i][1]);
+            if (start == -1 || ends[i] == -1) {
+                throw new IllegalStateException("Given vertices do not exist: " + Arrays.toString(pairs[i]));
+            }
+            keys[i] = (long) start << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] groupBegin = IntStream.rangeClosed(0, keys.length)
+                .filter(i -> i == 0 || i == keys.length || keys[i] >>> 32 != keys[i - 1] >>> 32)
+                .toArray();
+
+        List<List<Vertex>> paths = new ArrayList<>(Collections.nCopies(pairs.length, null));
+        ForkJoinPool.commonPool().submit(() -> IntStream.range(0, groupBegin.length - 1).parallel().forEach(g -> {
+            int begin = groupBegin[g];
+            int end = groupBegin[g + 1];
+            int[] group = new int[end - begin + 1];
+            group[0] = (int) (keys[begin] >>> 32);
+            for (int i = begin; i < end; i++) {
+                group[i - begin + 1] = ends[(int) keys[i]];
+            }
+            ShortestPathTree tree = search.apply(group);
+            for (int i = begin; i < end; i++) {
+                int position = (int) keys[i];
+                List<Vertex> path = new ArrayList<>();
+                if (tree.reaches(ends[position])) {
+                    for (int id : tree.pathTo(ends[position])) {
+                        path.add(vertices[csr.indexOf(id)]);
+                    }
+                }
+                paths.set(position, path);
+            }
+        })).join();
+        return paths;
     }
 }
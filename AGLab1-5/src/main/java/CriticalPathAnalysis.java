@@ -0,0 +1,251 @@
+import java.util.Arrays;
+
+/**
+ * Critical path analysis of a DAG given as a read-only GraphView, where every edge is an activity whose weight is
+ *  its duration and every vertex is an event.
+ * One forward pass in topological order computes the earliest time of every event reached from the sources, i.e. the
+ *  cost of the highest cost path to it; one backward pass computes the latest time at which it can happen without
+ *  delaying the end of the project. Both passes run over primitive arrays in O(V+E).
+ */
+public class CriticalPathAnalysis {
+    public static final long UNREACHED = Long.MIN_VALUE;
+
+    private final GraphView graph;
+    private final int[] order;
+
+    /**
+     * Sorts the graph topologically once; every analysis reuses the order
+     * @param graph - GraphView to be analysed
+     * @throws IllegalStateException
+     *      If the graph has a cycle
+     */
+    public CriticalPathAnalysis(GraphView graph) throws IllegalStateException {
+        this.graph = graph;
+        this.order = new TopologicalSorter(graph).sort().getOrder();
+    }
+
+    /**
+     * Analyses the project that starts at every vertex without inbound edges
+     * @return Schedule
+     */
+    public Schedule analyze() {
+        int n = graph.getNoVertices();
+        int[] sources = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (graph.getInDegree(v) == 0) {
+                sources[count++] = v;
+            }
+        }
+        return analyze(Arrays.copyOf(sources, count));
+    }
+
+    /**
+     * Analyses the project that starts at the given vertices at time 0; vertices they do not reach are left out
+     * @param sourceIndices - int[] - indices of the starting vertices
+     * @return Schedule
+     */
+    public Schedule analyze(int[] sourceIndices) {
+        int n = graph.getNoVertices();
+        long[] earliest = new long[n];
+        int[] parent = new int[n];
+        Arrays.fill(earliest, UNREACHED);
+        Arrays.fill(parent, -1);
+        for (int s : sourceIndices) {
+            earliest[s] = 0;
+        }
+
+        long length = 0;
+        for (int u : order) {
+            if (earliest[u] == UNREACHED) {
+                continue;
+            }
+            length = Math.max(length, earliest[u]);
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                long candidate = earliest[u] + graph.outWeight(e);
+                if (candidate > earliest[v]) {
+                    earliest[v] = candidate;
+                    parent[v] = u;
+                }
+            }
+        }
+
+        long[] latest = new long[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = order[i];
+            if (earliest[u] == UNREACHED) {
+                latest[u] = UNREACHED;
+                continue;
+            }
+            long time = length;
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                time = Math.min(time, latest[graph.outTarget(e)] - graph.outWeight(e));
+            }
+            latest[u] = time;
+        }
+        return new Schedule(graph, earliest, latest, parent, length);
+    }
+
+    /**
+     * Earliest and latest times of the events of a project
+     */
+    public static final class Schedule {
+        private final GraphView graph;
+        private final long[] earliest;
+        private final long[] latest;
+        private final int[] parent;
+        private final long length;
+
+        Schedule(GraphView graph, long[] earliest, long[] latest, int[] parent, long length) {
+            this.graph = graph;
+            this.earliest = earliest;
+            this.latest = latest;
+            this.parent = parent;
+            this.length = length;
+        }
+
+        /**
+         * @return long - time of the last event, i.e. the cost of the highest cost path from a source
+         */
+        public long getProjectLength() {
+            return length;
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return boolean - true if the vertex is reached from a source
+         */
+        public boolean reaches(int index) {
+            return earliest[index] != UNREACHED;
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return long - earliest time of the event, {@link #UNREACHED} if it is not reached
+         */
+        public long getEarliestStart(int index) {
+            return earliest[index];
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return long - latest time of the event that does not delay the project, {@link #UNREACHED} if it is not reached
+         */
+        public long getLatestStart(int index) {
+            return latest[index];
+        }
+
+        /**
+         * @param index - index of a reached vertex
+         * @return long - how long the event can be delayed without delaying the project
+         */
+        public long getSlack(int index) {
+            return latest[index] - earliest[index];
+        }
+
+        /**
+         * @param edge - index of an outbound edge of the GraphView, i.e. an activity
+         * @return long - earliest start of the activity, the earliest time of its source event, {@link #UNREACHED}
+         *      if the source is not reached
+         */
+        public long getActivityEarliestStart(int edge) {
+            return earliest[sourceOf(edge)];
+        }
+
+        /**
+         * @param edge - index of an outbound edge of the GraphView, i.e. an activity
+         * @return long - latest start of the activity that does not delay the project, the latest time of its target
+         *      event minus its duration, {@link #UNREACHED} if the source is not reached
+         */
+        public long getActivityLatestStart(int edge) {
+            if (earliest[sourceOf(edge)] == UNREACHED) {
+                return UNREACHED;
+            }
+            return latest[graph.outTarget(edge)] - graph.outWeight(edge);
+        }
+
+        /**
+         * The slack of an activity can be larger than the slack of its source event, since another activity may be
+         *  the one that holds the event back
+         * @param edge - index of an outbound edge of the GraphView whose source is reached
+         * @return long - how long the activity can be delayed without delaying the project
+         */
+        public long getActivitySlack(int edge) {
+            return getActivityLatestStart(edge) - getActivityEarliestStart(edge);
+        }
+
+        /**
+         * @param edge - index of an outbound edge of the GraphView
+         * @return boolean - true if the source of the activity is reached and the activity cannot be delayed
+         */
+        public boolean isCriticalActivity(int edge) {
+            return reaches(sourceOf(edge)) && getActivitySlack(edge) == 0;
+        }
+
+        /**
+         * Binary search for the vertex whose outbound edges contain the edge
+         */
+        private int sourceOf(int edge) {
+            int low = 0;
+            int high = earliest.length - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (graph.outBegin(middle) <= edge) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return boolean - true if the event is reached and cannot be delayed
+         */
+        public boolean isCritical(int index) {
+            return reaches(index) && latest[index] == earliest[index];
+        }
+
+        /**
+         * @return int[] - IDs of the vertices of a highest cost path from a source, whose events are all critical
+         */
+        public int[] getCriticalPath() {
+            for (int v = 0; v < earliest.length; v++) {
+                if (reaches(v) && earliest[v] == length) {
+                    return pathTo(v);
+                }
+            }
+            return new int[0];
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return int[] - IDs of the vertices of a highest cost path from a source to the vertex
+         * @throws IllegalStateException
+         *      If no source reaches the vertex
+         */
+        public int[] pathTo(int index) throws IllegalStateException {
+            if (!reaches(index)) {
+                throw new IllegalStateException("No such path!");
+            }
+            int length = 1;
+            for (int v = index; parent[v] != -1; v = parent[v]) {
+                length++;
+            }
+            int[] path = new int[length];
+            int v = index;
+            for (int i = length - 1; i >= 0; i--) {
+                path[i] = graph.vertexId(v);
+                v = parent[v];
+            }
+            return path;
+        }
+
+        @Override
+        public String toString() {
+            return "Schedule{ProjectLength=" + length + "}";
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/**
+ * Immutable compressed-sparse-row snapshot of a directed Graph.
+ * Vertices are addressed through dense indices 0..n-1, assigned in increasing order of their IDs,
+ *  so a Graph whose IDs are already 0..n-1 maps every Vertex onto its own ID.
+ * The outbound edges of the vertex with index u are stored at positions outBegin(u)..outEnd(u)-1
+ *  of the target & weight arrays; the inbound edges are stored the same way in a second set of arrays.
+ */
+public class CsrGraph implements GraphView {
+    private final int[] vertexIds;
+    private final int[] indexById;
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final int[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final int[] inWeights;
+
+    private CsrGraph(int[] vertexIds, int[] indexById, int[] outOffsets, int[] outTargets, int[] outWeights) {
+        this.vertexIds = vertexIds;
+        this.indexById = indexById;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outWeights = outWeights;
+
+        // Build the inbound arrays by counting sort over the outbound ones
+        int n = vertexIds.length;
+        int m = outTargets.length;
+        inOffsets = new int[n + 1];
+        inSources = new int[m];
+        inWeights = new int[m];
+        for (int e = 0; e < m; e++) {
+            inOffsets[outTargets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        int[] fill = Arrays.copyOf(inOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = outOffsets[u]; e < outOffsets[u + 1]; e++) {
+                int slot = fill[outTargets[e]]++;
+                inSources[slot] = u;
+                inWeights[slot] = outWeights[e];
+            }
+        }
+    }
+
+    /**
+     * Builds a snapshot of the given graph. Later changes to the graph are not reflected in the snapshot.
+     * @param graph - Graph to be copied
+     * @return CsrGraph - the snapshot
+     * @throws IllegalStateException
+     *      If the graph contains a Vertex with a negative ID
+     */
+    public static CsrGraph from(Graph graph) throws IllegalStateException {
+        int n = graph.getNoVertices();
+        int[] vertexIds = new int[n];
+        int i = 0;
+        for (Vertex v : graph.getVertices()) {
+            if (v.getvID() < 0) {
+                throw new IllegalStateException("Cannot index Vertex with negative ID: " + v.getvID());
+            }
+            vertexIds[i++] = v.getvID();
+        }
+        Arrays.sort(vertexIds);
+
+        int maxId = n == 0 ? -1 : vertexIds[n - 1];
+        int[] indexById = new int[maxId + 1];
+        Arrays.fill(indexById, -1);
+        for (int u = 0; u < n; u++) {
+            indexById[vertexIds[u]] = u;
+        }
+
+        int[] outOffsets = new int[n + 1];
+        for (Vertex v : graph.getVertices()) {
+            outOffsets[indexById[v.getvID()] + 1] = v.getOutEdges().size();
+        }
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] += outOffsets[u];
+        }
+
+        int[] outTargets = new int[outOffsets[n]];
+        int[] outWeights = new int[outOffsets[n]];
+        for (Vertex v : graph.getVertices()) {
+            int slot = outOffsets[indexById[v.getvID()]];
+            for (Edge edge : v.getOutEdges()) {
+                outTargets[slot] = indexById[edge.getV2().getvID()];
+                outWeights[slot] = edge.getWeight();
+                slot++;
+            }
+        }
+
+        return new CsrGraph(vertexIds, indexById, outOffsets, outTargets, outWeights);
+    }
+
+    /**
+     * Builds a snapshot from an edge list whose vertex IDs are 0..n-1, keeping the order of the edges of each vertex
+     * @param edgeList - EdgeList to be copied
+     * @return CsrGraph - the snapshot
+     * @throws IllegalStateException
+     *      If an edge refers to a vertex outside 0..n-1
+     */
+    public static CsrGraph from(EdgeList edgeList) throws IllegalStateException {
+        int n = edgeList.getNoVertices();
+        int m = edgeList.size();
+        int[] vertexIds = new int[n];
+        for (int u = 0; u < n; u++) {
+            vertexIds[u] = u;
+        }
+
+        int[] outOffsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            int u = edgeList.source(i);
+            int v = edgeList.target(i);
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalStateException("Edge refers to a vertex that does not exist: " + u + " " + v);
+            }
+            outOffsets[u + 1]++;
+        }
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] += outOffsets[u];
+        }
+
+        int[] outTargets = new int[m];
+        int[] outWeights = new int[m];
+        int[] fill = Arrays.copyOf(outOffsets, n);
+        for (int i = 0; i < m; i++) {
+            int slot = fill[edgeList.source(i)]++;
+            outTargets[slot] = edgeList.target(i);
+            outWeights[slot] = edgeList.weight(i);
+        }
+
+        return new CsrGraph(vertexIds, vertexIds, outOffsets, outTargets, outWeights);
+    }
+
+    @Override
+    public int getNoVertices() {
+        return vertexIds.length;
+    }
+
+    @Override
+    public int getNoEdges() {
+        return outTargets.length;
+    }
+
+    @Override
+    public int vertexId(int index) {
+        return vertexIds[index];
+    }
+
+    @Override
+    public int indexOf(int vid) {
+        if (vid < 0 || vid >= indexById.length) {
+            return -1;
+        }
+        return indexById[vid];
+    }
+
+    @Override
+    public int outBegin(int u) {
+        return outOffsets[u];
+    }
+
+    @Override
+    public int outEnd(int u) {
+        return outOffsets[u + 1];
+    }
+
+    @Override
+    public int outTarget(int e) {
+        return outTargets[e];
+    }
+
+    @Override
+    public int outWeight(int e) {
+        return outWeights[e];
+    }
+
+    @Override
+    public int inBegin(int v) {
+        return inOffsets[v];
+    }
+
+    @Override
+    public int inEnd(int v) {
+        return inOffsets[v + 1];
+    }
+
+    @Override
+    public int inSource(int e) {
+        return inSources[e];
+    }
+
+    @Override
+    public int inWeight(int e) {
+        return inWeights[e];
+    }
+
+    @Override
+    public int getOutDegree(int u) {
+        return outOffsets[u + 1] - outOffsets[u];
+    }
+
+    @Override
+    public int getInDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    @Override
+    public String toString() {
+        return "CsrGraph{Vertices=" + getNoVertices() + ", Edges=" + getNoEdges() + "}";
+    }
+}
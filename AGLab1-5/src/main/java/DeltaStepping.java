@@ -0,0 +1,309 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel single-source shortest paths over a read-only GraphView with the delta-stepping algorithm.
+ * Tentative distances are kept in an AtomicLongArray and lowered with compare-and-set, so relaxations need no locks.
+ * Bucket i holds the vertices whose tentative distance lies in [i*delta, (i+1)*delta). The smallest non-empty bucket is
+ *  processed in phases: its light edges (weight <= delta) are relaxed in parallel until the bucket stays empty,
+ *  then the heavy edges of every vertex removed from it are relaxed in parallel once.
+ * Parents are not maintained during the relaxations; they are picked from the final distances in a last pass.
+ * Graphs with fewer vertices than the sequential threshold are searched with a sequential {@link DijkstraEngine}.
+ */
+public class DeltaStepping {
+    private static final int CHUNK = 512;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+    private final boolean zeroWeights;
+    private long delta;
+    private int sequentialThreshold = 50000;
+
+    /**
+     * Creates an engine that runs in the common ForkJoinPool
+     * @param graph - GraphView to be searched
+     * @throws IllegalStateException
+     *      If the graph has negative weights
+     */
+    public DeltaStepping(GraphView graph) throws IllegalStateException {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param pool - ForkJoinPool that runs the relaxations
+     * @throws IllegalStateException
+     *      If the graph has negative weights
+     */
+    public DeltaStepping(GraphView graph, ForkJoinPool pool) throws IllegalStateException {
+        int max = 0;
+        boolean zero = false;
+        for (int u = 0; u < graph.getNoVertices(); u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int weight = graph.outWeight(e);
+                if (weight < 0) {
+                    throw new IllegalStateException("Delta-stepping requires non-negative weights!");
+                }
+                max = Math.max(max, weight);
+                zero |= weight == 0;
+            }
+        }
+        this.graph = graph;
+        this.pool = pool;
+        this.zeroWeights = zero;
+        // Roughly max weight / average degree, which keeps the number of light edges per vertex around 1
+        double averageDegree = graph.getNoVertices() == 0 ? 1 : Math.max(1.0, (double) graph.getNoEdges() / graph.getNoVertices());
+        this.delta = Math.max(1, (long) (max / averageDegree));
+    }
+
+    /**
+     * @return long - width of the distance buckets
+     */
+    public long getDelta() {
+        return delta;
+    }
+
+    /**
+     * @param delta - long - width of the distance buckets; small values approach Dijkstra, large ones Bellman-Ford
+     */
+    public void setDelta(long delta) {
+        if (delta < 1) {
+            throw new IllegalStateException("Delta must be positive!");
+        }
+        this.delta = delta;
+    }
+
+    /**
+     * @param sequentialThreshold - int - graphs with fewer vertices are searched sequentially
+     */
+    public void setSequentialThreshold(int sequentialThreshold) {
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Computes the lowest cost paths from a vertex to every vertex it reaches
+     * @param rootIndex - index of the vertex the search starts from
+     * @return ShortestPathTree - forward tree with the distances and parents of every vertex
+     */
+    public ShortestPathTree run(int rootIndex) {
+        int n = graph.getNoVertices();
+        if (n < sequentialThreshold) {
+            return new DijkstraEngine(graph).run(rootIndex, DijkstraEngine.Direction.FORWARD);
+        }
+
+        AtomicLongArray dist = new AtomicLongArray(n);
+        for (int v = 0; v < n; v++) {
+            dist.set(v, ShortestPathTree.UNREACHABLE);
+        }
+        dist.set(rootIndex, 0);
+
+        // Bucket index -> vertices; a vertex may be listed in a bucket it has since left, such entries are skipped
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        long[] stamp = new long[n];
+        Arrays.fill(stamp, -1);
+        bucket(buckets, 0).add(rootIndex);
+        stamp[rootIndex] = 0;
+        boolean[] removed = new boolean[n];
+
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntList> first = buckets.pollFirstEntry();
+            long index = first.getKey();
+            IntList frontier = current(first.getValue(), dist, index, stamp);
+            IntList settled = new IntList();
+
+            while (frontier.size > 0) {
+                for (int i = 0; i < frontier.size; i++) {
+                    int v = frontier.values[i];
+                    stamp[v] = -1;
+                    if (!removed[v]) {
+                        removed[v] = true;
+                        settled.add(v);
+                    }
+                }
+                int[] improved = pool.invoke(new Relaxation(frontier.values, 0, frontier.size, dist, true));
+                IntList next = new IntList();
+                distribute(improved, dist, buckets, stamp, index, next);
+                frontier = next;
+            }
+
+            int[] improved = pool.invoke(new Relaxation(settled.values, 0, settled.size, dist, false));
+            distribute(improved, dist, buckets, stamp, index, null);
+            for (int i = 0; i < settled.size; i++) {
+                removed[settled.values[i]] = false;
+            }
+        }
+
+        long[] distances = new long[n];
+        int reached = 0;
+        for (int v = 0; v < n; v++) {
+            distances[v] = dist.get(v);
+            if (distances[v] != ShortestPathTree.UNREACHABLE) {
+                reached++;
+            }
+        }
+        return new ShortestPathTree(graph, rootIndex, false, distances, parents(rootIndex, distances), reached);
+    }
+
+    private IntList bucket(TreeMap<Long, IntList> buckets, long index) {
+        return buckets.computeIfAbsent(index, key -> new IntList());
+    }
+
+    /**
+     * @return IntList - the vertices of the bucket that still belong to it
+     */
+    private IntList current(IntList bucket, AtomicLongArray dist, long index, long[] stamp) {
+        IntList frontier = new IntList();
+        for (int i = 0; i < bucket.size; i++) {
+            int v = bucket.values[i];
+            if (stamp[v] == index && dist.get(v) / delta == index) {
+                frontier.add(v);
+                stamp[v] = -2;
+            }
+        }
+        for (int i = 0; i < frontier.size; i++) {
+            stamp[frontier.values[i]] = index;
+        }
+        return frontier;
+    }
+
+    /**
+     * Moves the improved vertices into the buckets of their new distances.
+     * Vertices that fall into the current bucket go to {@code next} instead, if it is given.
+     */
+    private void distribute(int[] improved, AtomicLongArray dist, TreeMap<Long, IntList> buckets, long[] stamp,
+                            long currentIndex, IntList next) {
+        for (int v : improved) {
+            long index = dist.get(v) / delta;
+            if (stamp[v] == index) {
+                continue;
+            }
+            stamp[v] = index;
+            if (index == currentIndex && next != null) {
+                next.add(v);
+            } else {
+                bucket(buckets, index).add(v);
+            }
+        }
+    }
+
+    /**
+     * Picks, for every reached vertex, an inbound edge whose source is at exactly the right distance.
+     * Without zero weights such edges always lead closer to the root, so the choice can be made in parallel;
+     *  otherwise a traversal of those edges from the root avoids cycles of zero weight.
+     */
+    private int[] parents(int rootIndex, long[] dist) {
+        int n = dist.length;
+        int[] parent = new int[n];
+        Arrays.fill(parent, -1);
+        if (!zeroWeights) {
+            pool.submit(() -> IntStream.range(0, n).parallel().forEach(v -> {
+                if (v == rootIndex || dist[v] == ShortestPathTree.UNREACHABLE) {
+                    return;
+                }
+                for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+                    int u = graph.inSource(e);
+                    if (dist[u] != ShortestPathTree.UNREACHABLE && dist[u] + graph.inWeight(e) == dist[v]) {
+                        parent[v] = u;
+                        break;
+                    }
+                }
+            })).join();
+            return parent;
+        }
+
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = rootIndex;
+        parent[rootIndex] = rootIndex;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                if (parent[v] == -1 && dist[u] + graph.outWeight(e) == dist[v]) {
+                    parent[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        parent[rootIndex] = -1;
+        return parent;
+    }
+
+    /**
+     * Relaxes the light or heavy outbound edges of a range of vertices and returns the vertices whose distance dropped
+     */
+    private final class Relaxation extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] vertices;
+        private final int from;
+        private final int to;
+        private final AtomicLongArray dist;
+        private final boolean light;
+
+        Relaxation(int[] vertices, int from, int to, AtomicLongArray dist, boolean light) {
+            this.vertices = vertices;
+            this.from = from;
+            this.to = to;
+            this.dist = dist;
+            this.light = light;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                Relaxation left = new Relaxation(vertices, from, middle, dist, light);
+                left.fork();
+                int[] right = new Relaxation(vertices, middle, to, dist, light).compute();
+                int[] joined = left.join();
+                int[] all = Arrays.copyOf(joined, joined.length + right.length);
+                System.arraycopy(right, 0, all, joined.length, right.length);
+                return all;
+            }
+
+            IntList improved = new IntList();
+            for (int i = from; i < to; i++) {
+                int u = vertices[i];
+                long base = dist.get(u);
+                for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                    int weight = graph.outWeight(e);
+                    if ((weight <= delta) != light) {
+                        continue;
+                    }
+                    int v = graph.outTarget(e);
+                    long candidate = base + weight;
+                    long old = dist.get(v);
+                    while (candidate < old) {
+                        if (dist.compareAndSet(v, old, candidate)) {
+                            improved.add(v);
+                            break;
+                        }
+                        old = dist.get(v);
+                    }
+                }
+            }
+            return Arrays.copyOf(improved.values, improved.size);
+        }
+    }
+
+    /**
+     * Growable list of ints
+     */
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
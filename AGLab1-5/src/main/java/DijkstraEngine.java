@@ -0,0 +1,321 @@
+import java.util.Arrays;
+
+/**
+ * Single-source Dijkstra searches over a read-only GraphView, with distances and parents kept in primitive arrays.
+ * Queues:
+ *      D_ARY_HEAP - indexed 4-ary heap with decrease-key; works for any non-negative weights
+ *      DIAL - circular array of maxWeight+1 buckets; O(1) operations, suited to small integer weights
+ *      RADIX_HEAP - monotone heap of 65 buckets keyed by the highest bit that differs from the last minimum
+ * Every queue relies on the weights being non-negative, which is checked when the engine is created.
+ */
+public class DijkstraEngine {
+    public enum QueueKind { D_ARY_HEAP, DIAL, RADIX_HEAP }
+    public enum Direction { FORWARD, BACKWARD }
+
+    /**
+     * Largest maximum weight for which the default queue is {@link QueueKind#DIAL}
+     */
+    public static final int DIAL_MAX_WEIGHT = 1 << 12;
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    private final GraphView graph;
+    private final QueueKind queueKind;
+    private final int maxWeight;
+
+    /**
+     * Creates an engine that picks Dial's buckets for small weights and the 4-ary heap otherwise
+     * @param graph - GraphView to be searched
+     * @throws IllegalStateException
+     *      If the graph has negative weights
+     */
+    public DijkstraEngine(GraphView graph) throws IllegalStateException {
+        this(graph, null);
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param queueKind - QueueKind used by the searches
+     * @throws IllegalStateException
+     *      If the graph has negative weights or if its weights are too large for Dial's buckets
+     */
+    public DijkstraEngine(GraphView graph, QueueKind queueKind) throws IllegalStateException {
+        int max = 0;
+        for (int u = 0; u < graph.getNoVertices(); u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int weight = graph.outWeight(e);
+                if (weight < 0) {
+                    throw new IllegalStateException("Dijkstra's algorithm requires non-negative weights!");
+                }
+                max = Math.max(max, weight);
+            }
+        }
+        if (queueKind == null) {
+            queueKind = max <= DIAL_MAX_WEIGHT ? QueueKind.DIAL : QueueKind.D_ARY_HEAP;
+        }
+        if (queueKind == QueueKind.DIAL && max >= MAX_BUCKETS) {
+            throw new IllegalStateException("Weights are too large for Dial's buckets: " + max);
+        }
+        this.graph = graph;
+        this.queueKind = queueKind;
+        this.maxWeight = max;
+    }
+
+    /**
+     * @return QueueKind - the queue used by the searches
+     */
+    public QueueKind getQueueKind() {
+        return queueKind;
+    }
+
+    /**
+     * Searches the lowest cost paths from a vertex to all the vertices it reaches
+     * @param rootIndex - index of the vertex the search starts from
+     * @param direction - FORWARD follows the outbound edges, BACKWARD the inbound ones
+     * @return ShortestPathTree
+     */
+    public ShortestPathTree run(int rootIndex, Direction direction) {
+        return run(rootIndex, direction, -1);
+    }
+
+    /**
+     * Searches the lowest cost paths from a vertex, stopping as soon as the target is settled
+     * @param rootIndex - index of the vertex the search starts from
+     * @param direction - FORWARD follows the outbound edges, BACKWARD the inbound ones
+     * @param targetIndex - index of the vertex that ends the search, -1 to settle every reachable vertex
+     * @return ShortestPathTree - exact for the settled vertices
+     */
+    public ShortestPathTree run(int rootIndex, Direction direction, int targetIndex) {
+        int n = graph.getNoVertices();
+        long[] dist = new long[n];
+        int[] parent = new int[n];
+        Arrays.fill(dist, ShortestPathTree.UNREACHABLE);
+        Arrays.fill(parent, -1);
+        VertexQueue queue = newQueue(dist);
+        boolean backward = direction == Direction.BACKWARD;
+
+        dist[rootIndex] = 0;
+        queue.push(rootIndex, 0);
+        int settled = 0;
+        int current;
+        while ((current = queue.pop()) != -1) {
+            settled++;
+            if (current == targetIndex) {
+                break;
+            }
+            long base = dist[current];
+            int end = backward ? graph.inEnd(current) : graph.outEnd(current);
+            for (int e = backward ? graph.inBegin(current) : graph.outBegin(current); e < end; e++) {
+                int other = backward ? graph.inSource(e) : graph.outTarget(e);
+                long candidate = base + (backward ? graph.inWeight(e) : graph.outWeight(e));
+                if (candidate < dist[other]) {
+                    dist[other] = candidate;
+                    parent[other] = current;
+                    queue.push(other, candidate);
+                }
+            }
+        }
+        return new ShortestPathTree(graph, rootIndex, backward, dist, parent, settled);
+    }
+
+    /**
+     * Searches the lowest cost path between 2 vertices given by their IDs with a backwards search from the end
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public int[] lowestCostPath(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = graph.indexOf(vertexStartID);
+        int end = graph.indexOf(vertexEndID);
+        if (start == -1 || end == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return run(end, Direction.BACKWARD, start).pathTo(start);
+    }
+
+    private VertexQueue newQueue(long[] dist) {
+        switch (queueKind) {
+            case DIAL:
+                return new DialQueue(dist, maxWeight);
+            case RADIX_HEAP:
+                return new RadixHeap(dist);
+            default:
+                IndexedHeap heap = new IndexedHeap(dist.length);
+                return new VertexQueue() {
+                    @Override
+                    public void push(int v, long key) {
+                        heap.push(v, key);
+                    }
+
+                    @Override
+                    public int pop() {
+                        return heap.pop();
+                    }
+                };
+        }
+    }
+
+    /**
+     * Queue of vertex indices ordered by their distance
+     */
+    private interface VertexQueue {
+        /**
+         * Inserts a vertex or lowers its key; the key is also stored in the distance array
+         */
+        void push(int v, long key);
+
+        /**
+         * @return int - a vertex of minimum key, -1 if the queue is empty
+         */
+        int pop();
+    }
+
+    /**
+     * Dial's bucket queue: every key in the queue lies within maxWeight of the current minimum,
+     *  so maxWeight+1 circular buckets of intrusive doubly linked lists suffice
+     */
+    private static final class DialQueue implements VertexQueue {
+        private final int[] head;
+        private final int[] next;
+        private final int[] previous;
+        private final int[] bucketOf;
+        private long current;
+        private int size;
+
+        DialQueue(long[] dist, int maxWeight) {
+            this.head = new int[maxWeight + 1];
+            this.next = new int[dist.length];
+            this.previous = new int[dist.length];
+            this.bucketOf = new int[dist.length];
+            Arrays.fill(head, -1);
+            Arrays.fill(bucketOf, -1);
+        }
+
+        @Override
+        public void push(int v, long key) {
+            if (bucketOf[v] != -1) {
+                unlink(v);
+            } else {
+                size++;
+            }
+            int b = (int) (key % head.length);
+            bucketOf[v] = b;
+            previous[v] = -1;
+            next[v] = head[b];
+            if (head[b] != -1) {
+                previous[head[b]] = v;
+            }
+            head[b] = v;
+        }
+
+        private void unlink(int v) {
+            if (previous[v] != -1) {
+                next[previous[v]] = next[v];
+            } else {
+                head[bucketOf[v]] = next[v];
+            }
+            if (next[v] != -1) {
+                previous[next[v]] = previous[v];
+            }
+        }
+
+        @Override
+        public int pop() {
+            if (size == 0) {
+                return -1;
+            }
+            int b = (int) (current % head.length);
+            while (head[b] == -1) {
+                current++;
+                b = (int) (current % head.length);
+            }
+            int v = head[b];
+            unlink(v);
+            bucketOf[v] = -1;
+            size--;
+            return v;
+        }
+    }
+
+    /**
+     * Radix heap: bucket i holds the keys whose highest bit differing from the last minimum is bit i-1.
+     * Lowered keys are inserted again; outdated entries are dropped when their bucket is emptied.
+     */
+    private static final class RadixHeap implements VertexQueue {
+        private static final int BUCKETS = 65;
+        private final long[] dist;
+        private final long[][] keys = new long[BUCKETS][];
+        private final int[][] vertices = new int[BUCKETS][];
+        private final int[] sizes = new int[BUCKETS];
+        private long last;
+        private int size;
+
+        RadixHeap(long[] dist) {
+            this.dist = dist;
+            for (int b = 0; b < BUCKETS; b++) {
+                keys[b] = new long[4];
+                vertices[b] = new int[4];
+            }
+        }
+
+        private int bucket(long key) {
+            return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+        }
+
+        private void add(int b, int v, long key) {
+            if (sizes[b] == keys[b].length) {
+                keys[b] = Arrays.copyOf(keys[b], sizes[b] * 2);
+                vertices[b] = Arrays.copyOf(vertices[b], sizes[b] * 2);
+            }
+            keys[b][sizes[b]] = key;
+            vertices[b][sizes[b]++] = v;
+        }
+
+        @Override
+        public void push(int v, long key) {
+            add(bucket(key), v, key);
+            size++;
+        }
+
+        @Override
+        public int pop() {
+            while (size > 0) {
+                if (sizes[0] == 0) {
+                    int b = 1;
+                    while (sizes[b] == 0) {
+                        b++;
+                    }
+                    long min = Long.MAX_VALUE;
+                    for (int i = 0; i < sizes[b]; i++) {
+                        if (keys[b][i] == dist[vertices[b][i]]) {
+                            min = Math.min(min, keys[b][i]);
+                        }
+                    }
+                    int count = sizes[b];
+                    sizes[b] = 0;
+                    if (min == Long.MAX_VALUE) {
+                        size -= count;
+                        continue;
+                    }
+                    last = min;
+                    for (int i = 0; i < count; i++) {
+                        long key = keys[b][i];
+                        if (key == dist[vertices[b][i]]) {
+                            add(bucket(key), vertices[b][i], key);
+                        } else {
+                            size--;
+                        }
+                    }
+                }
+                int v = vertices[0][--sizes[0]];
+                long key = keys[0][sizes[0]];
+                size--;
+                if (key == dist[v]) {
+                    return v;
+                }
+            }
+            return -1;
+        }
+    }
+}
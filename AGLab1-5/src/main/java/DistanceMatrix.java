@@ -0,0 +1,244 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lowest costs between all pairs of vertices, with the next hop of every lowest cost path.
+ * Both tables are flat row-major int arrays indexed by vertex index, so a lookup is a single array access.
+ * The matrix can be written to a file and mapped back, in which case the operating system pages it in on demand.
+ * File layout (big-endian ints): MAGIC, VERSION, n, then the n vertex IDs, the n*n distances and the n*n next hops.
+ */
+public class DistanceMatrix {
+    public static final int MAGIC = 0x41505350;
+    public static final int VERSION = 1;
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int HEADER_INTS = 3;
+
+    private final int noVertices;
+    private final int[] vertexIds;
+    private final Map<Integer, Integer> indexById;
+    private final int[] distances;
+    private final int[] nextHops;
+    private final MappedGraph.IntSection mappedDistances;
+    private final MappedGraph.IntSection mappedNextHops;
+
+    /**
+     * @param vertexIds - ID of the vertex of every index
+     * @param distances - n*n lowest costs, {@link #UNREACHABLE} where there is no path
+     * @param nextHops - n*n indices of the vertex after the row vertex on the path to the column vertex, -1 where there is no path
+     */
+    DistanceMatrix(int[] vertexIds, int[] distances, int[] nextHops) {
+        this.noVertices = vertexIds.length;
+        this.vertexIds = vertexIds;
+        this.indexById = sortedIds(vertexIds) ? null : indexById(vertexIds);
+        this.distances = distances;
+        this.nextHops = nextHops;
+        this.mappedDistances = null;
+        this.mappedNextHops = null;
+    }
+
+    private DistanceMatrix(int[] vertexIds, MappedGraph.IntSection distances, MappedGraph.IntSection nextHops) {
+        this.noVertices = vertexIds.length;
+        this.vertexIds = vertexIds;
+        this.indexById = sortedIds(vertexIds) ? null : indexById(vertexIds);
+        this.distances = null;
+        this.nextHops = null;
+        this.mappedDistances = distances;
+        this.mappedNextHops = nextHops;
+    }
+
+    private static boolean sortedIds(int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i - 1] >= ids[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<Integer, Integer> indexById(int[] ids) {
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+        return index;
+    }
+
+    /**
+     * @return int - number of vertices
+     */
+    public int getNoVertices() {
+        return noVertices;
+    }
+
+    /**
+     * @param vid - ID of a vertex
+     * @return int - index of the vertex, -1 if there is none with this ID
+     */
+    public int indexOf(int vid) {
+        if (indexById != null) {
+            return indexById.getOrDefault(vid, -1);
+        }
+        int index = Arrays.binarySearch(vertexIds, vid);
+        return index < 0 ? -1 : index;
+    }
+
+    private int get(int[] heap, MappedGraph.IntSection mapped, int from, int to) {
+        long cell = (long) from * noVertices + to;
+        return heap != null ? heap[(int) cell] : mapped.get(cell);
+    }
+
+    /**
+     * @param fromIndex - index of the first vertex
+     * @param toIndex - index of the last vertex
+     * @return int - lowest cost between the vertices, {@link #UNREACHABLE} if there is no path
+     */
+    public int distanceAt(int fromIndex, int toIndex) {
+        return get(distances, mappedDistances, fromIndex, toIndex);
+    }
+
+    /**
+     * @param fromIndex - index of the first vertex
+     * @param toIndex - index of the last vertex
+     * @return int - index of the vertex after the first one on the lowest cost path, -1 if there is no path
+     */
+    public int nextHopAt(int fromIndex, int toIndex) {
+        return get(nextHops, mappedNextHops, fromIndex, toIndex);
+    }
+
+    /**
+     * @param vertexStartID - id of the starting Vertex
+     * @param vertexEndID - id of the final Vertex
+     * @return int - lowest cost between the vertices, {@link #UNREACHABLE} if there is no path
+     * @throws IllegalStateException
+     *      If there are no vertices with the given IDs.
+     */
+    public int distance(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return distanceAt(index(vertexStartID), index(vertexEndID));
+    }
+
+    /**
+     * @param vertexStartID - id of the starting Vertex
+     * @param vertexEndID - id of the final Vertex
+     * @return int - ID of the vertex after the starting one on the lowest cost path, -1 if there is no path
+     * @throws IllegalStateException
+     *      If there are no vertices with the given IDs.
+     */
+    public int nextHop(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int next = nextHopAt(index(vertexStartID), index(vertexEndID));
+        return next == -1 ? -1 : vertexIds[next];
+    }
+
+    /**
+     * Follows the next hops between 2 vertices
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public int[] path(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        if (nextHopAt(start, end) == -1) {
+            throw new IllegalStateException("No such path!");
+        }
+        int length = 1;
+        for (int v = start; v != end; v = nextHopAt(v, end)) {
+            length++;
+        }
+        int[] path = new int[length];
+        int v = start;
+        for (int i = 0; i < length; i++) {
+            path[i] = vertexIds[v];
+            v = nextHopAt(v, end);
+        }
+        return path;
+    }
+
+    private int index(int vid) {
+        int index = indexOf(vid);
+        if (index == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return index;
+    }
+
+    /**
+     * Writes the matrix in the layout read by {@link #map(Path)}
+     * @param path - Path of the file to be created or overwritten
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedGraph.IntWriter writer = new MappedGraph.IntWriter(channel);
+            writer.put(MAGIC);
+            writer.put(VERSION);
+            writer.put(noVertices);
+            for (int id : vertexIds) {
+                writer.put(id);
+            }
+            for (int from = 0; from < noVertices; from++) {
+                for (int to = 0; to < noVertices; to++) {
+                    writer.put(distanceAt(from, to));
+                }
+            }
+            for (int from = 0; from < noVertices; from++) {
+                for (int to = 0; to < noVertices; to++) {
+                    writer.put(nextHopAt(from, to));
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * Maps a matrix written by {@link #write(Path)} without reading it into memory
+     * @param path - Path of the file
+     * @return DistanceMatrix - view over the file
+     * @throws IOException
+     *      Thrown if the file cannot be opened or mapped
+     * @throws IllegalStateException
+     *      Thrown if the file is not a valid distance matrix
+     */
+    public static DistanceMatrix map(Path path) throws IOException, IllegalStateException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_INTS * Integer.BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Not a distance matrix file!");
+            }
+            int n = header.getInt();
+            long cells = (long) n * n;
+            long expected = (HEADER_INTS + n + 2 * cells) * Integer.BYTES;
+            if (channel.size() != expected) {
+                throw new IllegalStateException("Distance matrix file size does not match its header: expected=" + expected + " & actual=" + channel.size());
+            }
+
+            long position = HEADER_INTS * (long) Integer.BYTES;
+            MappedGraph.IntSection ids = new MappedGraph.IntSection(channel, position, n);
+            int[] vertexIds = new int[n];
+            for (int i = 0; i < n; i++) {
+                vertexIds[i] = ids.get(i);
+            }
+            position += n * (long) Integer.BYTES;
+            MappedGraph.IntSection distances = new MappedGraph.IntSection(channel, position, cells);
+            position += cells * Integer.BYTES;
+            MappedGraph.IntSection nextHops = new MappedGraph.IntSection(channel, position, cells);
+            return new DistanceMatrix(vertexIds, distances, nextHops);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DistanceMatrix{Vertices=" + noVertices + ", Mapped=" + (distances == null) + "}";
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Topological order of a growing DAG, kept up to date edge by edge with the Pearce-Kelly algorithm.
+ * Adding an edge from x to y that already goes forward in the order costs nothing. Otherwise only the region between
+ *  the positions of y and x is searched: the vertices reachable from y and the vertices that reach x within that
+ *  region are found, and are given the same positions in a new relative order (first the ones that reach x).
+ *  If x is reachable from y the edge would close a cycle and is rejected before the graph is changed.
+ * Positions and marks are kept in primitive arrays indexed by vertex ID.
+ */
+public class DynamicTopologicalOrder {
+    private int[] positionById = new int[0];
+    private int[] markById = new int[0];
+    private int mark;
+    private Vertex[] vertexAt = new Vertex[16];
+    private int size;
+    private int lastAffected;
+
+    /**
+     * Creates the order of the current vertices of a graph
+     * @param graph - Graph - must be a DAG
+     * @throws IllegalStateException
+     *      If the graph has a cycle or a vertex with a negative ID
+     */
+    public DynamicTopologicalOrder(Graph graph) throws IllegalStateException {
+        Stack<Vertex> sorted = Graph.TopologicalSort(graph);
+        for (Vertex vertex : sorted) {
+            addVertex(vertex);
+        }
+    }
+
+    /**
+     * Places a new vertex, which has no edges yet, last in the order
+     * @param vertex - Vertex to be placed
+     * @throws IllegalStateException
+     *      If the vertex has a negative ID
+     */
+    public void addVertex(Vertex vertex) throws IllegalStateException {
+        int vid = vertex.getvID();
+        if (vid < 0) {
+            throw new IllegalStateException("Cannot order Vertex with negative ID: " + vid);
+        }
+        if (vid >= positionById.length) {
+            int length = Math.max(vid + 1, positionById.length * 2);
+            int old = positionById.length;
+            positionById = Arrays.copyOf(positionById, length);
+            Arrays.fill(positionById, old, length, -1);
+            markById = Arrays.copyOf(markById, length);
+        }
+        if (positionById[vid] != -1) {
+            return;
+        }
+        if (size == vertexAt.length) {
+            vertexAt = Arrays.copyOf(vertexAt, size * 2);
+        }
+        positionById[vid] = size;
+        vertexAt[size++] = vertex;
+    }
+
+    /**
+     * Updates the order for an edge that is about to be added
+     * @param from - Vertex the edge leaves
+     * @param to - Vertex the edge enters
+     * @throws IllegalStateException
+     *      If the edge would close a cycle, in which case the order is left unchanged
+     */
+    public void addEdge(Vertex from, Vertex to) throws IllegalStateException {
+        addVertex(from);
+        addVertex(to);
+        int lower = positionOf(to);
+        int upper = positionOf(from);
+        lastAffected = 0;
+        if (from == to) {
+            throw new IllegalStateException("Edge " + from.getvID() + " -> " + to.getvID() + " would close a cycle!");
+        }
+        if (lower > upper) {
+            return;
+        }
+
+        mark++;
+        int[] forward = search(to, upper, from, true);
+        if (forward == null) {
+            throw new IllegalStateException("Edge " + from.getvID() + " -> " + to.getvID() + " would close a cycle!");
+        }
+        int[] backward = search(from, lower, null, false);
+        reorder(backward, forward);
+        lastAffected = backward.length + forward.length;
+    }
+
+    /**
+     * Depth-first search restricted to the affected region
+     * @param bound - forward searches stay below this position, backward searches above it
+     * @param cycleVertex - reaching this vertex in a forward search means a cycle
+     * @return int[] - positions of the visited vertices; null if {@code cycleVertex} was reached
+     */
+    private int[] search(Vertex start, int bound, Vertex cycleVertex, boolean forward) {
+        int[] visited = new int[8];
+        int count = 0;
+        ArrayList<Vertex> stack = new ArrayList<>();
+        stack.add(start);
+        markById[start.getvID()] = mark;
+        while (!stack.isEmpty()) {
+            Vertex current = stack.remove(stack.size() - 1);
+            if (count == visited.length) {
+                visited = Arrays.copyOf(visited, count * 2);
+            }
+            visited[count++] = positionOf(current);
+            for (Edge edge : forward ? current.getOutEdges() : current.getInEdges()) {
+                Vertex next = forward ? edge.getV2() : edge.getV1();
+                if (next == cycleVertex) {
+                    return null;
+                }
+                int position = positionOf(next);
+                boolean inRegion = forward ? position < bound : position > bound;
+                if (inRegion && markById[next.getvID()] != mark) {
+                    markById[next.getvID()] = mark;
+                    stack.add(next);
+                }
+            }
+        }
+        return Arrays.copyOf(visited, count);
+    }
+
+    /**
+     * Moves the vertices that reach the new edge's source before the vertices reachable from its target,
+     *  reusing the positions they held
+     */
+    private void reorder(int[] backward, int[] forward) {
+        Arrays.sort(backward);
+        Arrays.sort(forward);
+        Vertex[] moved = new Vertex[backward.length + forward.length];
+        int[] positions = new int[moved.length];
+        for (int i = 0; i < backward.length; i++) {
+            moved[i] = vertexAt[backward[i]];
+            positions[i] = backward[i];
+        }
+        for (int i = 0; i < forward.length; i++) {
+            moved[backward.length + i] = vertexAt[forward[i]];
+            positions[backward.length + i] = forward[i];
+        }
+        Arrays.sort(positions);
+        for (int i = 0; i < moved.length; i++) {
+            vertexAt[positions[i]] = moved[i];
+            positionById[moved[i].getvID()] = positions[i];
+        }
+    }
+
+    /**
+     * @param vertex - Vertex in the order
+     * @return int - position of the vertex; every edge goes from a lower position to a higher one
+     */
+    public int positionOf(Vertex vertex) {
+        return positionById[vertex.getvID()];
+    }
+
+    /**
+     * @return int - number of ordered vertices
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return int - number of vertices moved by the last edge insertion; 0 if the edge already went forward
+     */
+    public int getLastAffected() {
+        return lastAffected;
+    }
+
+    /**
+     * @return List<Vertex> - the vertices in topological order
+     */
+    public List<Vertex> getOrder() {
+        return new ArrayList<>(Arrays.asList(vertexAt).subList(0, size));
+    }
+
+    /**
+     * @return int[] - the vertex IDs in topological order
+     */
+    public int[] getOrderIds() {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = vertexAt[i].getvID();
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "DynamicTopologicalOrder{Vertices=" + size + "}";
+    }
+}
@@ -1,9 +1,13 @@
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Represents an Edge in a directed graph.
  * It is an outbound edge with regards to Vertex 1 and inbound with regards to Vertex 2.
  * Holds an associated weight (or cost).
  */
 public class Edge implements Comparable {
+    private static final AtomicLong weightChanges = new AtomicLong();
+
     private Vertex v1;
     private Vertex v2;
     private int weight;
@@ -47,6 +51,15 @@ public class Edge implements Comparable {
      */
     public void setWeight(int weight) {
         this.weight = weight;
+        weightChanges.incrementAndGet();
+    }
+
+    /**
+     * Counts the calls to {@link #setWeight(int)} on any Edge; part of {@link Graph#getVersion()}
+     * @return long - number of weight updates so far
+     */
+    public static long getWeightChanges() {
+        return weightChanges.get();
     }
 
     @Override
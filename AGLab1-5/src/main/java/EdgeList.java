@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * Growable list of directed weighted edges stored in parallel int arrays.
+ * Vertices are identified by IDs 0..noVertices-1.
+ */
+public class EdgeList {
+    private int noVertices;
+    private int[] sources;
+    private int[] targets;
+    private int[] weights;
+    private int size;
+
+    /**
+     * Creates an empty edge list over the given number of vertices
+     * @param noVertices - int - number of vertices
+     */
+    public EdgeList(int noVertices) {
+        this(noVertices, 16);
+    }
+
+    /**
+     * Creates an empty edge list with room for {@code capacity} edges
+     * @param noVertices - int - number of vertices
+     * @param capacity - int - number of edges that can be added before the arrays grow
+     */
+    public EdgeList(int noVertices, int capacity) {
+        this.noVertices = noVertices;
+        this.sources = new int[Math.max(1, capacity)];
+        this.targets = new int[Math.max(1, capacity)];
+        this.weights = new int[Math.max(1, capacity)];
+        this.size = 0;
+    }
+
+    /**
+     * @return int - number of vertices
+     */
+    public int getNoVertices() {
+        return noVertices;
+    }
+
+    /**
+     * @param noVertices - int - number of vertices
+     */
+    public void setNoVertices(int noVertices) {
+        this.noVertices = noVertices;
+    }
+
+    /**
+     * @return int - number of edges
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i - position of an edge
+     * @return int - ID of the outbound vertex of the edge
+     */
+    public int source(int i) {
+        return sources[i];
+    }
+
+    /**
+     * @param i - position of an edge
+     * @return int - ID of the inbound vertex of the edge
+     */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    /**
+     * @param i - position of an edge
+     * @return int - weight of the edge
+     */
+    public int weight(int i) {
+        return weights[i];
+    }
+
+    /**
+     * Appends an edge
+     * @param source - ID of the outbound vertex
+     * @param target - ID of the inbound vertex
+     * @param weight - weight of the edge
+     */
+    public void add(int source, int target, int weight) {
+        if (size == sources.length) {
+            grow(size + 1);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        weights[size] = weight;
+        size++;
+    }
+
+    /**
+     * Appends all the edges of another list
+     * @param other - EdgeList
+     */
+    public void addAll(EdgeList other) {
+        if (size + other.size > sources.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.sources, 0, sources, size, other.size);
+        System.arraycopy(other.targets, 0, targets, size, other.size);
+        System.arraycopy(other.weights, 0, weights, size, other.size);
+        size += other.size;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(minCapacity, sources.length * 2L));
+        if (capacity < minCapacity) {
+            throw new IllegalStateException("Too many edges for an EdgeList: " + minCapacity);
+        }
+        sources = Arrays.copyOf(sources, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        weights = Arrays.copyOf(weights, capacity);
+    }
+
+    /**
+     * Builds a Graph with the vertices 0..noVertices-1 and the edges of the list
+     * @return Graph
+     */
+    public Graph toGraph() {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[noVertices];
+        for (int i = 0; i < noVertices; i++) {
+            vertices[i] = new Vertex(i);
+            graph.addVertex(vertices[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            graph.addEdge(new Edge(vertices[sources[i]], vertices[targets[i]], weights[i]));
+        }
+        return graph;
+    }
+
+    /**
+     * Builds a CsrGraph directly from the arrays, without creating any Vertex or Edge
+     * @return CsrGraph
+     */
+    public CsrGraph toCsr() {
+        return CsrGraph.from(this);
+    }
+
+    @Override
+    public String toString() {
+        return "EdgeList{Vertices=" + noVertices + ", Edges=" + size + "}";
+    }
+}
@@ -1,14 +1,21 @@
 import java.io.*;
 import java.lang.reflect.Array;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class Graph {
     private Set<Vertex> vertices;
     private Set<Edge> edges;
+    private List<Vertex> vertexIndex;
     private int noVertices;
     private int noEdges;
+    private static final AtomicLong nextId = new AtomicLong();
+    private final long id = nextId.getAndIncrement();
+    private long structuralChanges;
+    private DynamicTopologicalOrder topologicalOrder;
 
     // -------------------- Constructors --------------------
     /**
@@ -17,6 +24,7 @@ public class Graph {
     public Graph() {
         this.vertices = new LinkedHashSet<>();
         this.edges = new LinkedHashSet<>();
+        this.vertexIndex = new ArrayList<>();
         this.noVertices = 0;
         this.noEdges = 0;
     }
@@ -31,6 +39,7 @@ public class Graph {
         this.edges = new LinkedHashSet<>(edges);
         this.noVertices = vertices.size();
         this.noEdges = edges.size();
+        rebuildVertexIndex();
     }
 
     /**
@@ -40,6 +49,7 @@ public class Graph {
     public Graph(Graph other) {
         vertices = new LinkedHashSet<>(other.vertices);
         edges = new LinkedHashSet<>(other.edges);
+        vertexIndex = new ArrayList<>(other.vertexIndex);
         noVertices = other.noVertices;
         noEdges = other.noEdges;
     }
@@ -54,6 +64,7 @@ public class Graph {
         Graph graph = Graph.readGraph(filename);
         vertices = graph.vertices;
         edges = graph.edges;
+        vertexIndex = graph.vertexIndex;
         noVertices = graph.noVertices;
         noEdges = graph.noEdges;
     }
@@ -93,10 +104,10 @@ public class Graph {
      * @return Optional<Vertex> - empty if a Vertex with the @vid does not exist; contains the Vertex otherwise
      */
     public Optional<Vertex> getVertexById(int vid) {
-        Optional<Vertex> vertex = vertices.stream()
-                .filter(v -> v.getvID() == vid)
-                .findFirst();
-        return vertex;
+        if (vid < 0 || vid >= vertexIndex.size()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(vertexIndex.get(vid));
     }
 
     /**
@@ -106,10 +117,7 @@ public class Graph {
      * @return Optional<Edge> - empty if the Edge does not exists; contains the Edge otherwise
      */
     public Optional<Edge> getEdge(int v1id, int v2id) {
-        Optional<Edge> edge = edges.stream()
-                .filter(e -> e.getV1().getvID() == v1id && e.getV2().getvID() == v2id)
-                .findFirst();
-        return edge;
+        return getVertexById(v1id).flatMap(v1 -> v1.getOutEdge(v2id));
     }
 
     // -------------------- Operations --------------------
@@ -153,8 +161,7 @@ public class Graph {
      * @return boolean - true if the Vertex exists; false otherwise
      */
     public boolean existsVertex(int vid) {
-        return vertices.stream()
-                .anyMatch(v -> v.getvID() == vid);
+        return getVertexById(vid).isPresent();
     }
 
     /**
@@ -164,33 +171,24 @@ public class Graph {
      * @return Optional<Edge> - empty if the edge does not exists; otherwise contains the Edge
      */
     public Optional<Edge> existsEdge(Vertex v1, Vertex v2) {
-        Optional<Edge> edgeOptional;
-
-        edgeOptional = v1.outEdges()
-                .filter(edge -> edge.getV1().equals(v1) && edge.getV2().equals(v2))
-                .findFirst();
-        if (edgeOptional.isPresent()) {
-            return edgeOptional;
-        }
-
-        edgeOptional = v2.inEdges()
-                .filter(edge -> edge.getV1().equals(v2) && edge.getV2().equals(v1))
-                .findFirst();
-        if (edgeOptional.isPresent()) {
-            return edgeOptional;
-        }        
-        return Optional.empty();
+        return v1.getOutEdge(v2.getvID());
     }
 
     /**
      * Adds an edge to the graph
      * @param edge - Edge to be added
+     * @throws IllegalStateException
+     *      If the topological order is maintained and the edge would close a cycle; the graph is left unchanged
      */
-    public void addEdge(Edge edge) {
+    public void addEdge(Edge edge) throws IllegalStateException {
+        if (topologicalOrder != null) {
+            topologicalOrder.addEdge(edge.getV1(), edge.getV2());
+        }
         this.edges.add(edge);
         edge.getV1().addOutEdge(edge);
         edge.getV2().addInEdge(edge);
         this.noEdges++;
+        this.structuralChanges++;
     }
 
     /**
@@ -202,6 +200,7 @@ public class Graph {
         edge.getV1().removeOutEdge(edge);
         edge.getV2().removeInEdge(edge);
         this.noEdges--;
+        this.structuralChanges++;
     }
 
     /**
@@ -210,7 +209,12 @@ public class Graph {
      */
     public void addVertex(Vertex vertex) {
         this.vertices.add(vertex);
+        indexVertex(vertex);
         this.noVertices++;
+        this.structuralChanges++;
+        if (topologicalOrder != null) {
+            topologicalOrder.addVertex(vertex);
+        }
     }
 
     /**
@@ -218,9 +222,15 @@ public class Graph {
      * @param vertex - Vertex to be removed
      */
     public void removeVertex(Vertex vertex) {
+        for (Edge edge : new ArrayList<>(vertex.getOutEdges())) {
+            edge.getV2().removeInEdge(edge);
+        }
+        for (Edge edge : new ArrayList<>(vertex.getInEdges())) {
+            edge.getV1().removeOutEdge(edge);
+        }
         this.edges = this.edges()
                 .filter(edge -> !(edge.getV1() == vertex || edge.getV2() == vertex))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
         this.vertices.remove(vertex);
         this.vertices.stream()
@@ -228,67 +238,116 @@ public class Graph {
                 .forEach(v -> v.setvID(v.getvID() - 1));
         this.noVertices--;
         this.noEdges = this.edges.size();
+        this.structuralChanges++;
+
+        // The IDs have shifted, so the lookups keyed by ID have to be rebuilt
+        this.vertices.forEach(Vertex::reindexEdges);
+        rebuildVertexIndex();
+        if (topologicalOrder != null) {
+            topologicalOrder = new DynamicTopologicalOrder(this);
+        }
     }
 
-    // -------------------- Static --------------------
+    /**
+     * Registers a Vertex in the ID lookup; the first Vertex added with a given ID is the one returned by lookups
+     * @param vertex - Vertex to be registered
+     */
+    private void indexVertex(Vertex vertex) {
+        int vid = vertex.getvID();
+        if (vid < 0) {
+            return;
+        }
+        while (vertexIndex.size() <= vid) {
+            vertexIndex.add(null);
+        }
+        if (vertexIndex.get(vid) == null) {
+            vertexIndex.set(vid, vertex);
+        }
+    }
 
     /**
-     * Generates a random directed graph with the specified number of vertices and edges
-     * @param noVertices - int - the number of vertices
-     * @param noEdges - int - the number of edges
-     * @return Graph - generated graph
+     * Recreates the ID lookup from the current set of vertices
      */
-    public static Graph generateGraph(int noVertices, int noEdges) {
-        Graph g = new Graph();
-        Random rand = new Random();
+    private void rebuildVertexIndex() {
+        this.vertexIndex = new ArrayList<>();
+        this.vertices.forEach(this::indexVertex);
+    }
 
-        for(int i = 0; i < noVertices; i++) {
-            g.addVertex(new Vertex(i));
-        }
+    /**
+     * Starts keeping a topological order of the graph up to date with every change.
+     * From then on {@link #addEdge(Edge)} rejects the edges that would close a cycle.
+     * @throws IllegalStateException
+     *      If the graph already has a cycle
+     */
+    public void maintainTopologicalOrder() throws IllegalStateException {
+        this.topologicalOrder = new DynamicTopologicalOrder(this);
+    }
 
-        int i = 0;
-        while (i < noEdges) {
-            int v1id = rand.nextInt(noVertices);
-            int v2id = rand.nextInt(noVertices);
-            Vertex v1 = g.getVertexById(v1id).get();
-            Vertex v2 = g.getVertexById(v2id).get();
+    /**
+     * Stops keeping the topological order; cycles can be created again
+     */
+    public void dropTopologicalOrder() {
+        this.topologicalOrder = null;
+    }
 
-            if (g.existsEdge(v1, v2).isPresent()) {
-                continue;
-            }
+    /**
+     * @return Optional of the maintained topological order; empty if it is not maintained
+     */
+    public Optional<DynamicTopologicalOrder> getTopologicalOrder() {
+        return Optional.ofNullable(topologicalOrder);
+    }
 
-            int weight = rand.nextInt(500);
-            g.addEdge(new Edge(v1, v2, weight));
-            i++;
-        }
+    /**
+     * @return long - identity of this Graph object, unique among the graphs created by this process
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Version of the graph, which grows with every added or removed vertex or edge and every weight update.
+     * Weight updates are counted over all edges, so a weight change in another graph also bumps it;
+     *  equal versions of the same graph always mean an unchanged graph. Versions of different graphs are not
+     *  comparable, so they must be told apart by {@link #getId()}.
+     * @return long - current version
+     */
+    public long getVersion() {
+        return structuralChanges + Edge.getWeightChanges();
+    }
+
+    /**
+     * Builds an immutable compressed-sparse-row snapshot of the graph, used by the read-only query algorithms
+     * @return CsrGraph - snapshot of the current vertices and edges
+     */
+    public CsrGraph freeze() {
+        return CsrGraph.from(this);
+    }
+
+    // -------------------- Static --------------------
 
-        return g;
+    /**
+     * Generates a random directed graph with the specified number of vertices and edges.
+     * Uses the G(n,m) model of {@link GraphGenerator} with weights in [0, 500).
+     * @param noVertices - int - the number of vertices
+     * @param noEdges - int - the number of edges
+     * @return Graph - generated graph
+     */
+    public static Graph generateGraph(int noVertices, int noEdges) {
+        return new GraphGenerator(new Random().nextLong()).erdosRenyi(noVertices, noEdges).toGraph();
     }
 
     /**
      * Writes the passed graph to the specified file in the following manner:
      *      Number_of_vertices Number_of_Edges - on the first line
      *      Vertex_1(outbound) Vertex_2(inbound) Weight - until file end
+     * The edges are streamed through a {@link GraphWriter}.
      * @param graph - the Graph to be saved
-     * @param filename - String - the name of the file to be written to
+     * @param filename - String - path of the file to be written to
      * @throws IOException
      *      Thrown if the file could not be created succesfully
      */
     public static void saveGraph(Graph graph, String filename) throws IOException {
-        File file = new File("res/" + filename);
-        file.createNewFile();
-        PrintWriter writer = new PrintWriter(new FileWriter(file));
-
-        writer.println(graph.getNoVertices() + " " + graph.getNoEdges());
-        Iterator<Edge> iterator = graph.edges().iterator();
-        for(int i = 0; i < graph.noEdges-1; i++) {
-            Edge edge = iterator.next();
-            writer.println(edge.getV1().getvID() + " " + edge.getV2().getvID() + " " + edge.getWeight());
-        }
-        Edge edge = iterator.next();
-        writer.print(edge.getV1().getvID() + " " + edge.getV2().getvID() + " " + edge.getWeight());
-
-        writer.close();
+        GraphWriter.write(graph, Paths.get(filename));
     }
 
     /**
@@ -297,6 +356,7 @@ public class Graph {
      *      Number_of_vertices Number_of_Edges - on the first line
      *      Vertex_1(outbound) Vertex_2(inbound) Weight - until file end
      * The number of read vertices and edges should correspond to the values read on the 1st line
+     * The file is parsed in parallel by a {@link GraphLoader} and the graph is built from the read edges in bulk.
      * @param filename - String - path to the file that contains Graph data
      * @return Graph - containing the read vertices and edges
      * @throws FileNotFoundException
@@ -305,52 +365,13 @@ public class Graph {
      *      Thrown if the read values for vertex & edge count do not match the actual number of read edges and vertices
      */
     public static Graph readGraph(String filename) throws FileNotFoundException, IllegalStateException {
-        Graph graph = new Graph();
-
-        File file = new File(filename);
-        Scanner scanner = new Scanner(file);
-
-        int noVertices, noEdges;
-        noVertices = scanner.nextInt();
-        noEdges = scanner.nextInt();
-
-        for(int i = 0; i < noVertices; i++) {
-            Vertex v = new Vertex(i);
-            graph.addVertex(v);
-        }
-
-        int v1id, v2id, weight;
-        while(scanner.hasNextLine()) {
-            v1id = scanner.nextInt();
-            v2id = scanner.nextInt();
-            weight = scanner.nextInt();
-
-            //if (!graph.existsVertex(v1id))
-            //    graph.addVertex(new Vertex(v1id));
-            Vertex v1 = graph.getVertexById(v1id).get();
-
-            //if (!graph.existsVertex(v2id))
-            //    graph.addVertex(new Vertex(v2id));
-            Vertex v2 = graph.getVertexById(v2id).get();
-
-            Edge edge = new Edge(v1, v2, weight);
-
-            v1.addOutEdge(edge);
-            v2.addInEdge(edge);
-            graph.edges.add(edge);
+        try {
+            return GraphLoader.readEdges(filename).toGraph();
+        } catch (FileNotFoundException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
-        graph.noVertices = graph.vertices.size();
-        graph.noEdges = graph.edges.size();
-
-        //Safety Check
-        if (graph.noEdges != noEdges)
-            throw new IllegalStateException("Read number of edges not equal to actual number of edges");
-        if (graph.noVertices != noVertices)
-            throw new IllegalStateException("Read number of vertices not equal to actual number of vertices: specified=" + noVertices + " & generated=" + graph.noVertices);
-
-        scanner.close();
-
-        return graph;
     }
 
     /*
@@ -364,6 +385,7 @@ public class Graph {
     /**
      * If the graph is a DAG then returns a stack containing the vertices, where the top
      *  of the stack is the last reached vertex
+     * Sorts a {@link CsrGraph} snapshot with a {@link TopologicalSorter}, so the vertex IDs need not be dense.
      * @param graph Directed Graph to be sorted
      * @throws IllegalStateException
      *      Thrown if the graph cannot be topologically sorted i.e. if the graph contains a cycle
@@ -371,47 +393,15 @@ public class Graph {
      */
     public static Stack<Vertex> TopologicalSort(Graph graph) throws IllegalStateException {
         Stack<Vertex> topoSortedContainer = new Stack<>();
-        Stack<Vertex> queue = new Stack<>();
-        Map<Vertex, Integer> inCountMap = new HashMap<>();
-        boolean[] visited = new boolean[graph.getNoVertices()];
-
-        for(int i = 0; i < graph.getNoVertices(); i++) {
-            visited[i] = false;
-        }
-
-        for(Vertex v : graph.vertices) {
-            inCountMap.put(v, v.getInDegree());
-            if (v.getInDegree() == 0) {
-                queue.add(v);
-                visited[v.getvID()] = true;
-            }
-        }
-
-        while(!queue.isEmpty()) {
-            Vertex current = queue.pop();
-            topoSortedContainer.push(current);
-            for(Vertex v : current.getOutVertices()) {
-                if (!visited[v.getvID()]) {
-                    inCountMap.put(v, inCountMap.get(v) - 1);
-                    if (inCountMap.get(v) <= 0 && !visited[v.getvID()]) {
-                        queue.add(v);
-                        visited[v.getvID()] = true;
-                    }
-                }
-            }
+        for (int vid : new TopologicalSorter(graph.freeze()).sort().getOrderIds()) {
+            topoSortedContainer.push(graph.getVertexById(vid).get());
         }
-
-        for(int i = 0; i < graph.getNoVertices(); i++) {
-            if (!visited[i]) {
-                throw new IllegalStateException("TopologicalSort could not reach all vertices!");
-            }
-        }
-
         return topoSortedContainer;
     }
 
     /**
      * Uses the topological sorting of the graph and constructs a highest cost path using the sorting.
+     * Runs a {@link CriticalPathAnalysis} from {@code source} over a {@link CsrGraph} snapshot.
      * @param graph Graph
      * @param source Vertex where the path begins
      * @param destination Vertex where the path ends
@@ -419,64 +409,46 @@ public class Graph {
      * @throws IllegalStateException
      *      If the {@code graph} is not a DAG
      *      If the {@code source} Vertex or {@code destination} Vertex do not exist
+     *      If there is no path between the vertices
      */
     public static List<Vertex> HighestCostPath(Graph graph, int source, int destination) throws IllegalStateException {
-        Stack<Vertex> topoSorted;
-        try {
-            topoSorted = Graph.TopologicalSort(graph);
-        } catch (IllegalStateException ex) {
-            System.err.println("Could not perform TopologicalSort!");
-            throw ex;
-        }
-
-        // Cache start and end vertex
-        Optional<Vertex> vertexStartOptional = graph.getVertexById(source);
-        Optional<Vertex> vertexEndOptional = graph.getVertexById(destination);
-        if (vertexEndOptional.isEmpty() || vertexStartOptional.isEmpty()) {
-            throw new IllegalStateException("Given vertices do not exist!");
-        }
-        Vertex vertexStart = vertexStartOptional.get();
-        Vertex vertexEnd = vertexEndOptional.get();
-        int distance[] = new int[graph.noVertices];
-        Map<Vertex, Vertex> maxDist = new HashMap<>();
-
-        // Initialize Distances to MIN and mark the source distance as 0
-        for (int i = 0; i < graph.noVertices; i++) {
-            distance[i] = Integer.MAX_VALUE;
-        }
-        distance[destination] = 0;
-
-        // Process the vertices in the order given by the Topological sort
-        while (!topoSorted.empty()) {
-            Vertex nextVertex = topoSorted.pop();
-
-            // Compute the path lenghts
-            for (Vertex v : nextVertex.getInVertices()) {
-                if (distance[v.getvID()] > distance[nextVertex.getvID()]) {
-                    Edge edge = graph.getEdge(v.getvID(), nextVertex.getvID()).get();
-                    distance[v.getvID()] = distance[nextVertex.getvID()] + edge.getWeight();
-                    maxDist.put(v, nextVertex);
-                }
-            }
-        }
-
-        // Construct Path
         List<Vertex> path = new ArrayList<>();
-        if(distance[vertexStart.getvID()] == Integer.MAX_VALUE) {
-            throw new IllegalStateException("No such path!");
+        for (int vid : HighestCostPath(graph.freeze(), source, destination)) {
+            path.add(graph.getVertexById(vid).get());
         }
+        return path;
+    }
 
-        Vertex currVertex = vertexStart;
-        path.add(currVertex);
-        boolean pathFound = false;
-        while (!pathFound) {
-            currVertex = maxDist.get(currVertex);
-            path.add(currVertex);
-            if (currVertex.getvID() == destination) {
-                pathFound = true;
-            }
-        }
+    /**
+     * Topologically sorts a read-only graph using Kahn's algorithm over the in-degree of each vertex
+     * @param graph GraphView to be sorted
+     * @return int[] - the vertex IDs in topological order; the first element has no inbound edges
+     * @throws IllegalStateException
+     *      Thrown if the graph cannot be topologically sorted i.e. if the graph contains a cycle
+     */
+    public static int[] TopologicalSort(GraphView graph) throws IllegalStateException {
+        return new TopologicalSorter(graph).sort().getOrderIds();
+    }
 
-        return path;
+    /**
+     * Processes the graph in topological order with a {@link CriticalPathAnalysis} from {@code source}
+     *  and constructs a highest cost path to {@code destination}.
+     * @param graph GraphView
+     * @param source ID of the Vertex where the path begins
+     * @param destination ID of the Vertex where the path ends
+     * @return int[] - the IDs of the vertices that build a highest cost path from {@code source} to {@code destination}
+     * @throws IllegalStateException
+     *      If the {@code graph} is not a DAG
+     *      If the {@code source} Vertex or {@code destination} Vertex do not exist
+     *      If there is no path between the vertices
+     */
+    public static int[] HighestCostPath(GraphView graph, int source, int destination) throws IllegalStateException {
+        CriticalPathAnalysis analysis = new CriticalPathAnalysis(graph);
+        int start = graph.indexOf(source);
+        int end = graph.indexOf(destination);
+        if (start == -1 || end == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return analysis.analyze(new int[]{start}).pathTo(end);
     }
 }
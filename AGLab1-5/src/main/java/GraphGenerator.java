@@ -0,0 +1,427 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random directed graphs that depend only on the seed, never on the number of cores.
+ * The work is cut into fixed blocks and each block draws from its own random stream derived from
+ *  (seed, block), so blocks can be generated in parallel and are always emitted in block order.
+ * Models:
+ *      Erdos-Renyi G(n,m) - m distinct edges (self loops allowed); the edges of a block of source vertices
+ *          are drawn uniformly, with the number of edges of each block proportional to its size
+ *      R-MAT - m distinct edges placed by recursively choosing a quadrant of the adjacency matrix
+ *          with probabilities a, b, c and 1-a-b-c
+ *      Barabasi-Albert - every new vertex links to k distinct earlier vertices chosen proportionally to their degree;
+ *          each link depends on the previous ones, so this model is generated sequentially
+ */
+public class GraphGenerator {
+    /**
+     * Draws edge weights
+     */
+    public interface WeightDistribution {
+        int sample(SplittableRandom random);
+
+        /**
+         * @param low - smallest weight
+         * @param high - bound on the weights (exclusive)
+         * @return WeightDistribution - weights drawn uniformly from [low, high)
+         */
+        static WeightDistribution uniform(int low, int high) {
+            return random -> random.nextInt(low, high);
+        }
+
+        /**
+         * @param weight - the weight of every edge
+         * @return WeightDistribution - a fixed weight
+         */
+        static WeightDistribution constant(int weight) {
+            return random -> weight;
+        }
+
+        /**
+         * @param mean - mean weight
+         * @return WeightDistribution - weights drawn from a geometric distribution, i.e. a discrete exponential one
+         */
+        static WeightDistribution geometric(double mean) {
+            double p = 1.0 / (mean + 1.0);
+            double logQ = Math.log(1.0 - p);
+            return random -> (int) Math.min(Integer.MAX_VALUE, Math.floor(Math.log(1.0 - random.nextDouble()) / logQ));
+        }
+    }
+
+    /**
+     * Receives the generated edges block by block, in a deterministic order
+     */
+    public interface EdgeSink {
+        void accept(EdgeList block) throws IOException;
+    }
+
+    private static final int BLOCK_EDGES = 1 << 20;
+    private static final int MAX_BLOCKS = 4096;
+    private static final long WEIGHT_STREAM = 0x5745494748545321L;
+    private static final int MAX_STALLED_ROUNDS = 8;
+    private static final int MAX_DRAWS_PER_EDGE = 64;
+
+    private final long seed;
+    private WeightDistribution weights = WeightDistribution.uniform(0, 500);
+
+    /**
+     * Creates a generator whose output depends only on the given seed
+     * @param seed - long
+     */
+    public GraphGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param weights - WeightDistribution used for the edges of later graphs; uniform over [0, 500) by default
+     */
+    public void setWeights(WeightDistribution weights) {
+        this.weights = weights;
+    }
+
+    // -------------------- Erdos-Renyi --------------------
+
+    /**
+     * Generates a G(n,m) graph in memory
+     * @param noVertices - int - number of vertices
+     * @param noEdges - int - number of edges
+     * @return EdgeList - the edges, ordered by block
+     * @throws IllegalStateException
+     *      If more edges are requested than there are vertex pairs
+     */
+    public EdgeList erdosRenyi(int noVertices, int noEdges) throws IllegalStateException {
+        EdgeList edges = new EdgeList(noVertices, noEdges);
+        try {
+            erdosRenyi(noVertices, noEdges, edges::addAll);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return edges;
+    }
+
+    /**
+     * Generates a G(n,m) graph straight into a file, without holding more than a few blocks in memory
+     * @param noVertices - int - number of vertices
+     * @param noEdges - long - number of edges
+     * @param writer - GraphWriter the graph is written to; its header is written here
+     * @throws IOException
+     *      If the edges could not be written
+     */
+    public void erdosRenyi(int noVertices, long noEdges, GraphWriter writer) throws IOException {
+        writer.writeHeader(noVertices, noEdges);
+        erdosRenyi(noVertices, noEdges, writerSink(writer));
+    }
+
+    /**
+     * Generates a G(n,m) graph and passes its edges to the sink
+     * @param noVertices - int - number of vertices
+     * @param noEdges - long - number of edges
+     * @param sink - EdgeSink
+     * @throws IOException
+     *      If the sink fails
+     * @throws IllegalStateException
+     *      If more edges are requested than there are vertex pairs
+     */
+    public void erdosRenyi(int noVertices, long noEdges, EdgeSink sink) throws IOException, IllegalStateException {
+        if (noVertices < 0 || noEdges < 0 || noEdges > (long) noVertices * noVertices) {
+            throw new IllegalStateException("Cannot place " + noEdges + " edges among " + noVertices + " vertices!");
+        }
+        if (noEdges == 0) {
+            // Also the only graph without vertices
+            return;
+        }
+
+        // Blocks of consecutive source vertices, each receiving a share of the edges proportional to its size
+        int blocks = (int) Math.max(1, Math.min(Math.min(noVertices, MAX_BLOCKS), (noEdges + BLOCK_EDGES - 1) / BLOCK_EDGES));
+        long[] firstSource = new long[blocks + 1];
+        long[] firstEdge = new long[blocks + 1];
+        for (int b = 0; b <= blocks; b++) {
+            firstSource[b] = (long) noVertices * b / blocks;
+            firstEdge[b] = multiplyDivide(noEdges, firstSource[b], noVertices);
+        }
+
+        emitInBatches(blocks, sink, b -> {
+            int from = (int) firstSource[b];
+            int sources = (int) (firstSource[b + 1] - from);
+            int count = (int) (firstEdge[b + 1] - firstEdge[b]);
+            SplittableRandom random = stream(b);
+            EdgeList block = new EdgeList(noVertices, count);
+            LongHashSet seen = new LongHashSet(count);
+            while (block.size() < count) {
+                int source = from + random.nextInt(sources);
+                int target = random.nextInt(noVertices);
+                if (seen.add((long) source * noVertices + target)) {
+                    block.add(source, target, weights.sample(random));
+                }
+            }
+            return block;
+        });
+    }
+
+    // -------------------- R-MAT --------------------
+
+    /**
+     * Generates an R-MAT graph in memory
+     * @param noVertices - int - number of vertices
+     * @param noEdges - int - number of distinct edges
+     * @param a - probability of the top-left quadrant
+     * @param b - probability of the top-right quadrant
+     * @param c - probability of the bottom-left quadrant
+     * @return EdgeList - the edges, ordered by source and target
+     * @throws IllegalStateException
+     *      If the probabilities are invalid, more edges are requested than there are vertex pairs, or the
+     *      probabilities concentrate on too few pairs to produce the requested number of distinct edges
+     */
+    public EdgeList rmat(int noVertices, int noEdges, double a, double b, double c) throws IllegalStateException {
+        if (a < 0 || b < 0 || c < 0 || a + b + c > 1) {
+            throw new IllegalStateException("Invalid R-MAT probabilities!");
+        }
+        if (noVertices < 0 || noEdges < 0 || noEdges > (long) noVertices * noVertices) {
+            throw new IllegalStateException("Cannot place " + noEdges + " edges among " + noVertices + " vertices!");
+        }
+        int scale = 32 - Integer.numberOfLeadingZeros(Math.max(1, noVertices - 1));
+
+        // Draw edge keys in rounds until enough distinct keys exist; each round has its own streams
+        long[] keys = new long[0];
+        int round = 0;
+        int stalledRounds = 0;
+        while (keys.length < noEdges) {
+            int missing = noEdges - keys.length;
+            int blocks = Math.max(1, (missing + BLOCK_EDGES - 1) / BLOCK_EDGES);
+            int currentRound = round;
+            long[][] drawn = new long[blocks][];
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                int count = (int) (multiplyDivide(missing, block + 1, blocks) - multiplyDivide(missing, block, blocks));
+                SplittableRandom random = stream(((long) currentRound << 32) | block);
+                long[] part = new long[count];
+                int i = 0;
+                // Draws outside the vertex range are rejected; give up on a block that keeps missing it
+                for (long draws = (long) count * MAX_DRAWS_PER_EDGE; i < count && draws > 0; draws--) {
+                    long source = 0, target = 0;
+                    for (int level = 0; level < scale; level++) {
+                        double r = random.nextDouble();
+                        source <<= 1;
+                        target <<= 1;
+                        if (r < a) {
+                            // top-left
+                        } else if (r < a + b) {
+                            target |= 1;
+                        } else if (r < a + b + c) {
+                            source |= 1;
+                        } else {
+                            source |= 1;
+                            target |= 1;
+                        }
+                    }
+                    if (source < noVertices && target < noVertices) {
+                        part[i++] = (source << 32) | target;
+                    }
+                }
+                drawn[block] = i == count ? part : Arrays.copyOf(part, i);
+            });
+
+            int total = keys.length;
+            for (long[] part : drawn) {
+                total += part.length;
+            }
+            long[] merged = Arrays.copyOf(keys, total);
+            int position = keys.length;
+            for (long[] part : drawn) {
+                System.arraycopy(part, 0, merged, position, part.length);
+                position += part.length;
+            }
+            Arrays.parallelSort(merged);
+            int before = keys.length;
+            keys = distinctPrefix(merged, noEdges);
+            round++;
+            stalledRounds = keys.length > before ? 0 : stalledRounds + 1;
+            if (stalledRounds == MAX_STALLED_ROUNDS) {
+                throw new IllegalStateException("The R-MAT probabilities produced only " + keys.length + " of "
+                        + noEdges + " distinct edges!");
+            }
+        }
+
+        EdgeList edges = new EdgeList(noVertices, noEdges);
+        int blocks = Math.max(1, (noEdges + BLOCK_EDGES - 1) / BLOCK_EDGES);
+        int[] weightsByEdge = new int[noEdges];
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            SplittableRandom random = stream(WEIGHT_STREAM ^ block);
+            int end = (int) Math.min(noEdges, (long) (block + 1) * BLOCK_EDGES);
+            for (int i = block * BLOCK_EDGES; i < end; i++) {
+                weightsByEdge[i] = weights.sample(random);
+            }
+        });
+        for (int i = 0; i < noEdges; i++) {
+            edges.add((int) (keys[i] >>> 32), (int) keys[i], weightsByEdge[i]);
+        }
+        return edges;
+    }
+
+    /**
+     * Generates an R-MAT graph into a file.
+     * Unlike the other models, the distinct edges are drawn and sorted in memory before they are written, so the
+     *  graph is limited to what fits in memory: 8 bytes per edge while drawing, and at most Integer.MAX_VALUE edges.
+     * @param noVertices - int - number of vertices
+     * @param noEdges - int - number of distinct edges
+     * @param a - probability of the top-left quadrant
+     * @param b - probability of the top-right quadrant
+     * @param c - probability of the bottom-left quadrant
+     * @param writer - GraphWriter the graph is written to; its header is written here
+     * @throws IOException
+     *      If the edges could not be written
+     */
+    public void rmat(int noVertices, int noEdges, double a, double b, double c, GraphWriter writer) throws IOException {
+        EdgeList edges = rmat(noVertices, noEdges, a, b, c);
+        writer.writeHeader(noVertices, edges.size());
+        writerSink(writer).accept(edges);
+    }
+
+    // -------------------- Barabasi-Albert --------------------
+
+    /**
+     * Generates a preferential attachment graph in memory.
+     * The first k+1 vertices form a directed cycle; every later vertex links to k distinct earlier vertices.
+     * @param noVertices - int - number of vertices
+     * @param edgesPerVertex - int - number of links k of every new vertex
+     * @return EdgeList - the edges, in order of creation
+     * @throws IllegalStateException
+     *      If there are not more vertices than links per vertex
+     */
+    public EdgeList barabasiAlbert(int noVertices, int edgesPerVertex) throws IllegalStateException {
+        int k = edgesPerVertex;
+        if (k < 1 || noVertices <= k) {
+            throw new IllegalStateException("A preferential attachment graph needs more than " + k + " vertices!");
+        }
+        long total = (k + 1) + (long) (noVertices - k - 1) * k;
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many edges for an in-memory graph: " + total);
+        }
+        EdgeList edges = new EdgeList(noVertices, (int) total);
+        SplittableRandom random = stream(0);
+
+        // Every endpoint of every edge appears once, so a uniform pick is proportional to the degree
+        int[] endpoints = new int[(int) (2 * total)];
+        int size = 0;
+        for (int v = 0; v <= k; v++) {
+            int next = (v + 1) % (k + 1);
+            edges.add(v, next, weights.sample(random));
+            endpoints[size++] = v;
+            endpoints[size++] = next;
+        }
+
+        int[] chosen = new int[k];
+        for (int v = k + 1; v < noVertices; v++) {
+            int found = 0;
+            while (found < k) {
+                int target = endpoints[random.nextInt(size)];
+                boolean duplicate = false;
+                for (int i = 0; i < found && !duplicate; i++) {
+                    duplicate = chosen[i] == target;
+                }
+                if (!duplicate) {
+                    chosen[found++] = target;
+                }
+            }
+            for (int i = 0; i < k; i++) {
+                edges.add(v, chosen[i], weights.sample(random));
+                endpoints[size++] = v;
+                endpoints[size++] = chosen[i];
+            }
+        }
+        return edges;
+    }
+
+    // -------------------- Helpers --------------------
+
+    private interface BlockGenerator {
+        EdgeList generate(int block);
+    }
+
+    /**
+     * Generates blocks in parallel, a batch at a time, and emits each batch in block order
+     */
+    private static void emitInBatches(int blocks, EdgeSink sink, BlockGenerator generator) throws IOException {
+        int batch = Math.max(1, 2 * Runtime.getRuntime().availableProcessors());
+        for (int first = 0; first < blocks; first += batch) {
+            int last = Math.min(blocks, first + batch);
+            EdgeList[] generated = new EdgeList[last - first];
+            int offset = first;
+            IntStream.range(first, last).parallel().forEach(b -> generated[b - offset] = generator.generate(b));
+            for (EdgeList block : generated) {
+                sink.accept(block);
+            }
+        }
+    }
+
+    private static EdgeSink writerSink(GraphWriter writer) {
+        return block -> {
+            for (int i = 0; i < block.size(); i++) {
+                writer.writeEdge(block.source(i), block.target(i), block.weight(i));
+            }
+        };
+    }
+
+    /**
+     * @return SplittableRandom - the random stream of the given block, independent of the other blocks
+     */
+    private SplittableRandom stream(long block) {
+        return new SplittableRandom(mix(seed ^ mix(block + 0x9E3779B97F4A7C15L)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return long - floor(value * numerator / denominator) without overflowing
+     */
+    private static long multiplyDivide(long value, long numerator, long denominator) {
+        if (Math.multiplyHigh(value, numerator) == 0 && value * numerator >= 0) {
+            return value * numerator / denominator;
+        }
+        return BigInteger.valueOf(value).multiply(BigInteger.valueOf(numerator)).divide(BigInteger.valueOf(denominator)).longValue();
+    }
+
+    private static long[] distinctPrefix(long[] sorted, int limit) {
+        int size = 0;
+        for (int i = 0; i < sorted.length && size < limit; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, size);
+    }
+
+    /**
+     * Open addressing set of long keys, used to reject repeated edges inside a block
+     */
+    private static final class LongHashSet {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private final long[] table;
+        private final int mask;
+
+        LongHashSet(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+            table = new long[capacity];
+            Arrays.fill(table, EMPTY);
+            mask = capacity - 1;
+        }
+
+        boolean add(long key) {
+            int slot = (int) mix(key) & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == key) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+            return true;
+        }
+    }
+}
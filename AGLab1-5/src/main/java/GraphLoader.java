@@ -0,0 +1,666 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Reads graph files through memory-mapped NIO buffers.
+ * The file body is split into chunks that end on line boundaries, and the chunks are parsed in parallel
+ *  into primitive edge arrays which are then concatenated in file order.
+ * Files written with a compressing {@link GraphWriter} are decompressed into a temporary file first, see
+ *  {@link #load(Path, GraphWriter.Compression)}.
+ * {@link #stream(Path, ChunkConsumer, boolean)} passes the chunks on as they are parsed instead, for callers that
+ *  only need to see every edge once.
+ * Supported formats:
+ *      DEFAULT - "Number_of_vertices Number_of_Edges" on the first line, then "Vertex_1 Vertex_2 Weight" lines
+ *      SNAP - "Vertex_1 Vertex_2 [Weight]" lines, '#' comments, optionally a "# Nodes: n Edges: m" comment
+ *      MATRIX_MARKET - coordinate Matrix Market files with 1-based indices and pattern, integer or real values
+ *      BINARY - files written by {@link GraphWriter} with {@link GraphWriter.Encoding#BINARY}, split on record boundaries
+ */
+public class GraphLoader {
+    public enum Format { DEFAULT, SNAP, MATRIX_MARKET, BINARY }
+
+    /**
+     * Receives the edges of a file one parsed chunk at a time
+     */
+    public interface ChunkConsumer {
+        /**
+         * Called once, before the first chunk
+         * @param noVertices - int - number of vertices of the file; every vertex index of a chunk is below it
+         * @param noChunks - int - number of chunks that follow
+         */
+        void begin(int noVertices, int noChunks);
+
+        /**
+         * @param chunk - int - position 0..noChunks-1 of the chunk in the file
+         * @param edges - EdgeList - the edges of the chunk, in file order
+         */
+        void accept(int chunk, EdgeList edges);
+    }
+
+    private static final long TARGET_CHUNK_SIZE = 16L << 20;
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+    private static final int RECORD_SIZE = 3 * Integer.BYTES;
+
+    private final Format format;
+    private Statistics statistics;
+
+    /**
+     * Creates a loader for the given file format
+     * @param format - Format
+     */
+    public GraphLoader(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Reads a directed graph from a file in the {@link Format#DEFAULT} format.
+     * @param filename - String - path to the file that contains Graph data
+     * @return EdgeList - the read edges
+     * @throws IOException
+     *      Thrown if the file does not exist or cannot be read
+     * @throws IllegalStateException
+     *      Thrown if the read values for vertex & edge count do not match the actual number of read edges and vertices
+     */
+    public static EdgeList readEdges(String filename) throws IOException, IllegalStateException {
+        return new GraphLoader(Format.DEFAULT).load(Paths.get(filename));
+    }
+
+    /**
+     * @return Statistics of the last call to {@link #load(Path)} or {@link #stream(Path, ChunkConsumer, boolean)}; null if nothing was loaded yet
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Parses the given file
+     * @param path - Path of the file
+     * @return EdgeList - the edges of the file, in file order
+     * @throws IOException
+     *      Thrown if the file does not exist or cannot be read
+     * @throws IllegalStateException
+     *      Thrown if the file is malformed or its counts do not match its contents
+     */
+    public EdgeList load(Path path) throws IOException, IllegalStateException {
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(path.toString());
+        }
+        long startTime = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel);
+            long[] boundaries = split(channel, header, size);
+            int chunks = boundaries.length - 1;
+
+            EdgeList[] parts = new EdgeList[chunks];
+            forEachChunk(path, channel, header, boundaries, false, (part, i) -> parts[i] = part);
+
+            int total = 0;
+            for (EdgeList part : parts) {
+                total += part.size();
+            }
+            EdgeList edges = new EdgeList(0, total);
+            for (EdgeList part : parts) {
+                edges.addAll(part);
+            }
+            edges.setNoVertices(finish(header, check(header, edges)));
+
+            statistics = new Statistics(size, edges.size(), chunks, System.nanoTime() - startTime);
+            return edges;
+        }
+    }
+
+    /**
+     * Parses a file written by a {@link GraphWriter} with the given compression. A compressed file cannot be split
+     *  into chunks, so it is decompressed into a temporary file, which is parsed like a plain file and then deleted.
+     *  The statistics report the size of the decompressed file.
+     * @param path - Path of the file
+     * @param compression - GraphWriter.Compression the file was written with
+     * @return EdgeList - the edges of the file, in file order
+     * @throws IOException
+     *      Thrown if the file does not exist, cannot be read or cannot be decompressed
+     * @throws IllegalStateException
+     *      Thrown if the file is malformed or its counts do not match its contents
+     */
+    public EdgeList load(Path path, GraphWriter.Compression compression) throws IOException, IllegalStateException {
+        if (compression == GraphWriter.Compression.NONE) {
+            return load(path);
+        }
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(path.toString());
+        }
+        Path plain = Files.createTempFile("graph-", ".tmp");
+        try {
+            try (InputStream input = GraphWriter.openDecompressed(path, compression)) {
+                Files.copy(input, plain, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return load(plain);
+        } finally {
+            Files.deleteIfExists(plain);
+        }
+    }
+
+    /**
+     * Parses the given file without keeping its edges: every chunk is passed to the consumer and dropped once it
+     *  returns, so only the chunks being parsed are held in memory.
+     * The number of vertices comes from the header, except for SNAP files, which are parsed twice since their number
+     *  of vertices is only known once every edge was read.
+     * The vertex indices of a chunk are checked before it is passed on, but the number of edges only after the last
+     *  chunk, so a malformed file can throw after the consumer saw all of its edges.
+     * @param path - Path of the file
+     * @param consumer - ChunkConsumer
+     * @param ordered - boolean - true to parse the chunks one at a time, in file order, on the calling thread; false to
+     *      parse them in parallel, in which case the consumer is called from many threads at once
+     * @throws IOException
+     *      Thrown if the file does not exist or cannot be read
+     * @throws IllegalStateException
+     *      Thrown if the file is malformed or its counts do not match its contents
+     */
+    public void stream(Path path, ChunkConsumer consumer, boolean ordered) throws IOException, IllegalStateException {
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException(path.toString());
+        }
+        long startTime = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel);
+            long[] boundaries = split(channel, header, size);
+            int chunks = boundaries.length - 1;
+
+            int noVertices = header.noVertices;
+            if (format == Format.SNAP) {
+                Tally counted = new Tally();
+                forEachChunk(path, channel, header, boundaries, ordered, (edges, i) -> counted.add(check(header, edges)));
+                noVertices = finish(header, counted);
+            }
+
+            Tally tally = new Tally();
+            consumer.begin(noVertices, chunks);
+            forEachChunk(path, channel, header, boundaries, ordered, (edges, i) -> {
+                tally.add(check(header, edges));
+                consumer.accept(i, edges);
+            });
+            finish(header, tally);
+
+            statistics = new Statistics(size, tally.edges, chunks, System.nanoTime() - startTime);
+        }
+    }
+
+    private long[] split(FileChannel channel, Header header, long size) throws IOException {
+        return format == Format.BINARY
+                ? splitRecords(header.bodyStart, size)
+                : splitBody(channel, header.bodyStart, size);
+    }
+
+    /**
+     * Parses every chunk and passes it to the action, with its position in the file
+     */
+    private void forEachChunk(Path path, FileChannel channel, Header header, long[] boundaries, boolean ordered,
+                              ObjIntConsumer<EdgeList> action) {
+        IntStream chunks = IntStream.range(0, boundaries.length - 1);
+        (ordered ? chunks : chunks.parallel()).forEach(i -> {
+            try {
+                action.accept(format == Format.BINARY
+                        ? parseRecords(channel, boundaries[i], boundaries[i + 1])
+                        : parseChunk(channel, boundaries[i], boundaries[i + 1], header.symmetric), i);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not read " + path, ex);
+            }
+        });
+    }
+
+    // -------------------- Header --------------------
+
+    private static final class Header {
+        long bodyStart;
+        int noVertices = -1;
+        long noEdges = -1;
+        int rows = -1;
+        int cols = -1;
+        boolean symmetric;
+    }
+
+    /**
+     * Reads the leading lines of the file that come before the edges
+     */
+    private Header readHeader(FileChannel channel) throws IOException {
+        Header header = new Header();
+        LineReader reader = new LineReader(channel);
+        String line;
+
+        switch (format) {
+            case BINARY:
+                ByteBuffer bytes = ByteBuffer.allocate(GraphWriter.BINARY_HEADER_SIZE);
+                channel.read(bytes, 0);
+                bytes.flip();
+                if (bytes.remaining() < GraphWriter.BINARY_HEADER_SIZE || bytes.getInt() != GraphWriter.BINARY_MAGIC) {
+                    throw new IllegalStateException("Not a binary graph file!");
+                }
+                int version = bytes.getInt();
+                if (version != GraphWriter.BINARY_VERSION) {
+                    throw new IllegalStateException("Unsupported binary graph version: " + version);
+                }
+                header.noVertices = bytes.getInt();
+                header.noEdges = bytes.getLong();
+                header.bodyStart = GraphWriter.BINARY_HEADER_SIZE;
+                return header;
+            case DEFAULT:
+                line = reader.nextNonEmptyLine();
+                if (line == null) {
+                    throw new IllegalStateException("Missing number of vertices and edges!");
+                }
+                String[] counts = line.trim().split("\\s+");
+                if (counts.length < 2) {
+                    throw new IllegalStateException("Missing number of vertices and edges!");
+                }
+                header.noVertices = Integer.parseInt(counts[0]);
+                header.noEdges = Long.parseLong(counts[1]);
+                break;
+            case SNAP:
+                // Keep the comments in the body, but look for the node and edge count among them
+                long position = 0;
+                while ((line = reader.nextLine()) != null && (line.startsWith("#") || line.isBlank())) {
+                    String lower = line.toLowerCase(Locale.ROOT);
+                    if (lower.contains("nodes:") && lower.contains("edges:")) {
+                        String[] parts = lower.replaceAll("[^0-9]+", " ").trim().split(" ");
+                        if (parts.length >= 2) {
+                            header.noVertices = Integer.parseInt(parts[0]);
+                            header.noEdges = Long.parseLong(parts[1]);
+                        }
+                    }
+                    position = reader.position();
+                }
+                header.bodyStart = position;
+                return header;
+            case MATRIX_MARKET:
+                line = reader.nextLine();
+                if (line == null || !line.toLowerCase(Locale.ROOT).startsWith("%%matrixmarket")) {
+                    throw new IllegalStateException("Missing %%MatrixMarket banner!");
+                }
+                String banner = line.toLowerCase(Locale.ROOT);
+                if (!banner.contains("coordinate")) {
+                    throw new IllegalStateException("Only coordinate Matrix Market files describe graphs!");
+                }
+                header.symmetric = banner.contains("symmetric") || banner.contains("hermitian");
+                do {
+                    line = reader.nextLine();
+                } while (line != null && (line.startsWith("%") || line.isBlank()));
+                if (line == null) {
+                    throw new IllegalStateException("Missing Matrix Market size line!");
+                }
+                String[] sizes = line.trim().split("\\s+");
+                header.rows = Integer.parseInt(sizes[0]);
+                header.cols = Integer.parseInt(sizes[1]);
+                header.noVertices = Math.max(header.rows, header.cols);
+                header.noEdges = Long.parseLong(sizes[2]);
+                break;
+        }
+        header.bodyStart = reader.position();
+        return header;
+    }
+
+    /**
+     * Counts of the edges read so far
+     */
+    private static final class Tally {
+        long edges;
+        long loops;
+        int maxId = -1;
+
+        synchronized void add(Tally other) {
+            edges += other.edges;
+            loops += other.loops;
+            maxId = Math.max(maxId, other.maxId);
+        }
+    }
+
+    /**
+     * Checks the vertex indices of some of the edges of the file against the header
+     */
+    private Tally check(Header header, EdgeList edges) throws IllegalStateException {
+        Tally tally = new Tally();
+        tally.edges = edges.size();
+        for (int i = 0; i < edges.size(); i++) {
+            int source = edges.source(i);
+            int target = edges.target(i);
+            if (source < 0 || target < 0)
+                throw new IllegalStateException("Negative vertex id: " + source + " " + target);
+            if (format == Format.MATRIX_MARKET && !header.symmetric && (source >= header.rows || target >= header.cols))
+                throw new IllegalStateException("Entry outside the matrix: " + (source + 1) + " " + (target + 1));
+            tally.maxId = Math.max(tally.maxId, Math.max(source, target));
+            if (source == target) {
+                tally.loops++;
+            }
+        }
+        if (format != Format.SNAP && tally.maxId >= header.noVertices)
+            throw new IllegalStateException("Read number of vertices not equal to actual number of vertices: specified=" + header.noVertices + " & generated=" + (tally.maxId + 1));
+        return tally;
+    }
+
+    /**
+     * Checks the counts of the whole file against the header
+     * @return int - number of vertices of the file
+     */
+    private int finish(Header header, Tally tally) throws IllegalStateException {
+        switch (format) {
+            case SNAP:
+                if (header.noEdges != -1 && tally.edges != header.noEdges)
+                    throw new IllegalStateException("Read number of edges not equal to actual number of edges");
+                return Math.max(tally.maxId + 1, header.noVertices);
+            case MATRIX_MARKET:
+                // Every off-diagonal entry of a symmetric matrix was stored in both directions
+                long entries = header.symmetric ? tally.loops + (tally.edges - tally.loops) / 2 : tally.edges;
+                if (entries != header.noEdges)
+                    throw new IllegalStateException("Read number of edges not equal to actual number of edges");
+                return header.noVertices;
+            default:
+                if (tally.edges != header.noEdges)
+                    throw new IllegalStateException("Read number of edges not equal to actual number of edges");
+                return header.noVertices;
+        }
+    }
+
+    // -------------------- Body --------------------
+
+    /**
+     * Splits [start, end) into ranges that each end right after a line break
+     */
+    private static long[] splitBody(FileChannel channel, long start, long end) throws IOException {
+        long length = end - start;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunkCount = Math.max(1, Math.min(length / TARGET_CHUNK_SIZE, parallelism * 4L));
+        chunkCount = Math.max(chunkCount, (length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+
+        long[] boundaries = new long[(int) chunkCount + 1];
+        boundaries[0] = start;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        int count = 1;
+        for (long i = 1; i < chunkCount; i++) {
+            long position = Math.max(start + length * i / chunkCount, boundaries[count - 1]);
+            position = nextLineStart(channel, probe, position, end);
+            if (position > boundaries[count - 1] && position < end) {
+                boundaries[count++] = position;
+            }
+        }
+        boundaries[count++] = end;
+        long[] result = new long[count];
+        System.arraycopy(boundaries, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Splits [start, end) into ranges of whole fixed-size edge records
+     */
+    private static long[] splitRecords(long start, long end) {
+        if ((end - start) % RECORD_SIZE != 0) {
+            throw new IllegalStateException("Binary graph file ends with a partial edge record!");
+        }
+        long records = (end - start) / RECORD_SIZE;
+        long perChunk = Math.max(1, Math.min(TARGET_CHUNK_SIZE, MAX_CHUNK_SIZE) / RECORD_SIZE);
+        int chunkCount = (int) Math.max(1, (records + perChunk - 1) / perChunk);
+        long[] boundaries = new long[chunkCount + 1];
+        for (int i = 0; i <= chunkCount; i++) {
+            boundaries[i] = start + Math.min(records, i * perChunk) * RECORD_SIZE;
+        }
+        return boundaries;
+    }
+
+    private static EdgeList parseRecords(FileChannel channel, long start, long end) throws IOException {
+        int count = (int) ((end - start) / RECORD_SIZE);
+        EdgeList edges = new EdgeList(0, count);
+        if (count == 0) {
+            return edges;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        for (int i = 0; i < count; i++) {
+            edges.add(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        }
+        return edges;
+    }
+
+    private static long nextLineStart(FileChannel channel, ByteBuffer probe, long position, long end) throws IOException {
+        while (position < end) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return end;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return end;
+    }
+
+    private EdgeList parseChunk(FileChannel channel, long start, long end, boolean symmetric) throws IOException {
+        EdgeList edges = new EdgeList(0, (int) Math.max(16, (end - start) / 16));
+        if (end <= start) {
+            return edges;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = buffer.limit();
+        int offset = format == Format.MATRIX_MARKET ? 1 : 0;
+        long[] values = new long[3];
+        int i = 0;
+
+        while (i < limit) {
+            // Skip blank space and comment lines
+            byte b = buffer.get(i);
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') {
+                i++;
+                continue;
+            }
+            if (b == '#' || b == '%') {
+                while (i < limit && buffer.get(i) != '\n') {
+                    i++;
+                }
+                continue;
+            }
+
+            // Parse up to 3 numbers from the current line
+            int found = 0;
+            while (i < limit && buffer.get(i) != '\n') {
+                b = buffer.get(i);
+                if (b == ' ' || b == '\t' || b == '\r' || b == ',') {
+                    i++;
+                    continue;
+                }
+                int tokenStart = i;
+                while (i < limit && !isSeparator(buffer.get(i))) {
+                    i++;
+                }
+                if (found < 3) {
+                    values[found] = parseNumber(buffer, tokenStart, i, found == 2);
+                }
+                found++;
+            }
+
+            if (found < 2 || (format == Format.DEFAULT && found < 3)) {
+                throw new IllegalStateException("Malformed edge line at byte " + (start + i));
+            }
+            long source = values[0] - offset;
+            long target = values[1] - offset;
+            long weight = found >= 3 ? values[2] : 1;
+            if (!isInt(source) || !isInt(target) || !isInt(weight)) {
+                throw new IllegalStateException("Malformed edge line at byte " + (start + i));
+            }
+            edges.add((int) source, (int) target, (int) weight);
+            if (symmetric && source != target) {
+                edges.add((int) target, (int) source, (int) weight);
+            }
+        }
+        return edges;
+    }
+
+    private static boolean isSeparator(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == ',';
+    }
+
+    private static boolean isInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Parses an integer token without creating a String; values beyond the int range saturate at 2^32 so that they
+     *  stay out of it
+     * @param rounded - boolean - true to round tokens that are not integers, false to reject them
+     */
+    private static long parseNumber(ByteBuffer buffer, int from, int to, boolean rounded) {
+        long value = 0;
+        boolean negative = false;
+        int i = from;
+        if (buffer.get(i) == '-' || buffer.get(i) == '+') {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == to) {
+            throw new IllegalStateException("Malformed number");
+        }
+        for (; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                byte[] token = new byte[to - from];
+                for (int j = 0; j < token.length; j++) {
+                    token[j] = buffer.get(from + j);
+                }
+                if (!rounded) {
+                    throw new IllegalStateException("Malformed number: " + new String(token, StandardCharsets.US_ASCII));
+                }
+                try {
+                    return Math.round(Double.parseDouble(new String(token, StandardCharsets.US_ASCII)));
+                } catch (NumberFormatException ex) {
+                    throw new IllegalStateException("Malformed number: " + new String(token, StandardCharsets.US_ASCII));
+                }
+            }
+            value = Math.min(value * 10 + (b - '0'), 1L << 32);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads lines from the start of a channel while keeping track of the byte position after the last line
+     */
+    private static final class LineReader {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        private long position = 0;
+
+        LineReader(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long position() {
+            return position;
+        }
+
+        String nextLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    return line.length() == 0 ? null : line.toString().strip();
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') {
+                        position += i + 1;
+                        return line.toString().strip();
+                    }
+                    line.append((char) b);
+                }
+                position += read;
+            }
+        }
+
+        String nextNonEmptyLine() throws IOException {
+            String line;
+            do {
+                line = nextLine();
+            } while (line != null && line.isEmpty());
+            return line;
+        }
+    }
+
+    /**
+     * Size and throughput of a load
+     */
+    public static final class Statistics {
+        private final long bytes;
+        private final long edges;
+        private final int chunks;
+        private final long nanos;
+
+        Statistics(long bytes, long edges, int chunks, long nanos) {
+            this.bytes = bytes;
+            this.edges = edges;
+            this.chunks = chunks;
+            this.nanos = Math.max(1, nanos);
+        }
+
+        /**
+         * @return long - size of the file in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return long - number of read edges
+         */
+        public long getEdges() {
+            return edges;
+        }
+
+        /**
+         * @return int - number of chunks the file was split into
+         */
+        public int getChunks() {
+            return chunks;
+        }
+
+        /**
+         * @return double - time taken to load the file in milliseconds
+         */
+        public double getMillis() {
+            return nanos / 1e6;
+        }
+
+        /**
+         * @return double - parse throughput in megabytes per second
+         */
+        public double getMegabytesPerSecond() {
+            return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+        }
+
+        /**
+         * @return double - parse throughput in edges per second
+         */
+        public double getEdgesPerSecond() {
+            return edges / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "Load{Bytes=%d, Edges=%d, Chunks=%d, Time=%.1fms, Throughput=%.1fMB/s, %.0f edges/s}",
+                    bytes, edges, chunks, getMillis(), getMegabytesPerSecond(), getEdgesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Read-only view of a directed graph whose vertices are addressed through dense indices 0..n-1.
+ * The outbound edges of the vertex with index u are found at positions outBegin(u)..outEnd(u)-1,
+ *  and its inbound edges at positions inBegin(u)..inEnd(u)-1.
+ */
+public interface GraphView {
+    /**
+     * @return int - number of vertices
+     */
+    int getNoVertices();
+
+    /**
+     * @return int - number of edges
+     */
+    int getNoEdges();
+
+    /**
+     * @param index - dense index of a vertex
+     * @return int - the ID of the Vertex stored at {@code index}
+     */
+    int vertexId(int index);
+
+    /**
+     * @param vid - ID of a Vertex
+     * @return int - the dense index of the Vertex; -1 if there is no Vertex with the given ID
+     */
+    int indexOf(int vid);
+
+    /**
+     * @param u - vertex index
+     * @return int - position of the first outbound edge of {@code u}
+     */
+    int outBegin(int u);
+
+    /**
+     * @param u - vertex index
+     * @return int - position after the last outbound edge of {@code u}
+     */
+    int outEnd(int u);
+
+    /**
+     * @param e - position of an outbound edge
+     * @return int - index of the vertex the edge points to
+     */
+    int outTarget(int e);
+
+    /**
+     * @param e - position of an outbound edge
+     * @return int - weight of the edge
+     */
+    int outWeight(int e);
+
+    /**
+     * @param v - vertex index
+     * @return int - position of the first inbound edge of {@code v}
+     */
+    int inBegin(int v);
+
+    /**
+     * @param v - vertex index
+     * @return int - position after the last inbound edge of {@code v}
+     */
+    int inEnd(int v);
+
+    /**
+     * @param e - position of an inbound edge
+     * @return int - index of the vertex the edge comes from
+     */
+    int inSource(int e);
+
+    /**
+     * @param e - position of an inbound edge
+     * @return int - weight of the edge
+     */
+    int inWeight(int e);
+
+    /**
+     * @param u - vertex index
+     * @return int - the outbound degree of {@code u}
+     */
+    default int getOutDegree(int u) {
+        return outEnd(u) - outBegin(u);
+    }
+
+    /**
+     * @param v - vertex index
+     * @return int - the inbound degree of {@code v}
+     */
+    default int getInDegree(int v) {
+        return inEnd(v) - inBegin(v);
+    }
+}
@@ -0,0 +1,377 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Streams edges to a file through a reusable byte buffer.
+ * Numbers are encoded directly into the buffer, so no String is created per edge.
+ * Encodings:
+ *      TEXT - "Number_of_vertices Number_of_Edges" on the first line, then "Vertex_1 Vertex_2 Weight" lines
+ *      BINARY - MAGIC, VERSION, Number_of_vertices (int), Number_of_Edges (long), then 3 ints per edge (big-endian)
+ * Compressions:
+ *      NONE - the encoded bytes are written as they are
+ *      GZIP - a standard gzip stream
+ *      BLOCK - independent blocks, each stored as its raw length, compressed length and deflated bytes,
+ *          so that blocks can be compressed quickly and decompressed separately
+ * Every combination can be read back by {@link GraphLoader#load(Path, Compression)}, with the DEFAULT format for TEXT
+ *  and the BINARY format for BINARY.
+ */
+public class GraphWriter implements Closeable {
+    public enum Encoding { TEXT, BINARY }
+    public enum Compression { NONE, GZIP, BLOCK }
+
+    public static final int BINARY_MAGIC = 0x47454447;
+    public static final int BINARY_VERSION = 1;
+    public static final int BINARY_HEADER_SIZE = 2 * Integer.BYTES + Integer.BYTES + Long.BYTES;
+    public static final int BLOCK_MAGIC = 0x47424c4b;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_RECORD_SIZE = 64;
+
+    private final Encoding encoding;
+    private final Compression compression;
+    private final FileChannel channel;
+    private final OutputStream stream;
+    private final ByteBuffer buffer;
+    private final byte[] digits = new byte[12];
+    private Deflater deflater;
+    private byte[] compressed;
+    private long edgesWritten;
+    private long expectedEdges = -1;
+
+    /**
+     * Opens a writer to the given file, creating or overwriting it
+     * @param path - Path of the file
+     * @param encoding - Encoding of the edges
+     * @param compression - Compression applied to the encoded bytes
+     * @throws IOException
+     *      Thrown if the file could not be opened
+     */
+    public GraphWriter(Path path, Encoding encoding, Compression compression) throws IOException {
+        this.encoding = encoding;
+        this.compression = compression;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        switch (compression) {
+            case GZIP:
+                this.stream = new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                break;
+            case BLOCK:
+                this.stream = null;
+                this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                this.deflater = new Deflater(Deflater.BEST_SPEED);
+                this.compressed = new byte[BUFFER_SIZE + BUFFER_SIZE / 8 + 64];
+                ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES).putInt(BLOCK_MAGIC);
+                magic.flip();
+                writeFully(magic);
+                break;
+            default:
+                this.stream = null;
+                this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                break;
+        }
+    }
+
+    /**
+     * Writes a Graph to a text file without compression
+     * @param graph - Graph to be written
+     * @param path - Path of the file
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public static void write(Graph graph, Path path) throws IOException {
+        write(graph, path, Encoding.TEXT, Compression.NONE);
+    }
+
+    /**
+     * Writes a Graph with the given encoding and compression
+     * @param graph - Graph to be written
+     * @param path - Path of the file
+     * @param encoding - Encoding of the edges
+     * @param compression - Compression applied to the encoded bytes
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public static void write(Graph graph, Path path, Encoding encoding, Compression compression) throws IOException {
+        try (GraphWriter writer = new GraphWriter(path, encoding, compression)) {
+            writer.writeHeader(graph.getNoVertices(), graph.getEdges().size());
+            for (Edge edge : graph.getEdges()) {
+                writer.writeEdge(edge.getV1().getvID(), edge.getV2().getvID(), edge.getWeight());
+            }
+        }
+    }
+
+    /**
+     * Writes a read-only graph with the given encoding and compression
+     * @param graph - GraphView to be written
+     * @param path - Path of the file
+     * @param encoding - Encoding of the edges
+     * @param compression - Compression applied to the encoded bytes
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public static void write(GraphView graph, Path path, Encoding encoding, Compression compression) throws IOException {
+        try (GraphWriter writer = new GraphWriter(path, encoding, compression)) {
+            writer.writeHeader(graph.getNoVertices(), graph.getNoEdges());
+            for (int u = 0; u < graph.getNoVertices(); u++) {
+                for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                    writer.writeEdge(graph.vertexId(u), graph.vertexId(graph.outTarget(e)), graph.outWeight(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes an edge list with the given encoding and compression
+     * @param edges - EdgeList to be written
+     * @param path - Path of the file
+     * @param encoding - Encoding of the edges
+     * @param compression - Compression applied to the encoded bytes
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public static void write(EdgeList edges, Path path, Encoding encoding, Compression compression) throws IOException {
+        try (GraphWriter writer = new GraphWriter(path, encoding, compression)) {
+            writer.writeHeader(edges.getNoVertices(), edges.size());
+            for (int i = 0; i < edges.size(); i++) {
+                writer.writeEdge(edges.source(i), edges.target(i), edges.weight(i));
+            }
+        }
+    }
+
+    /**
+     * Writes the vertex and edge count. Must be called once, before any edge is written.
+     * @param noVertices - int - number of vertices
+     * @param noEdges - long - number of edges that will be written
+     * @throws IOException
+     *      Thrown if the bytes could not be written
+     */
+    public void writeHeader(int noVertices, long noEdges) throws IOException {
+        expectedEdges = noEdges;
+        if (encoding == Encoding.BINARY) {
+            buffer.putInt(BINARY_MAGIC);
+            buffer.putInt(BINARY_VERSION);
+            buffer.putInt(noVertices);
+            buffer.putLong(noEdges);
+        } else {
+            putNumber(noVertices);
+            buffer.put((byte) ' ');
+            putNumber(noEdges);
+            buffer.put((byte) '\n');
+        }
+    }
+
+    /**
+     * Appends an edge
+     * @param v1 - ID of the outbound vertex
+     * @param v2 - ID of the inbound vertex
+     * @param weight - weight of the edge
+     * @throws IOException
+     *      Thrown if the bytes could not be written
+     */
+    public void writeEdge(int v1, int v2, int weight) throws IOException {
+        if (buffer.remaining() < MAX_RECORD_SIZE) {
+            flushBuffer();
+        }
+        if (encoding == Encoding.BINARY) {
+            buffer.putInt(v1);
+            buffer.putInt(v2);
+            buffer.putInt(weight);
+        } else {
+            putNumber(v1);
+            buffer.put((byte) ' ');
+            putNumber(v2);
+            buffer.put((byte) ' ');
+            putNumber(weight);
+            buffer.put((byte) '\n');
+        }
+        edgesWritten++;
+    }
+
+    /**
+     * @return long - number of edges written so far
+     */
+    public long getEdgesWritten() {
+        return edgesWritten;
+    }
+
+    /**
+     * Flushes the remaining bytes and closes the file
+     * @throws IOException
+     *      Thrown if the bytes could not be written
+     * @throws IllegalStateException
+     *      Thrown if the number of written edges does not match the count given in the header
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+            if (stream != null) {
+                stream.close();
+            }
+            if (deflater != null) {
+                deflater.end();
+            }
+        } finally {
+            channel.close();
+        }
+        if (expectedEdges != -1 && expectedEdges != edgesWritten) {
+            throw new IllegalStateException("Written number of edges not equal to the number of edges in the header: specified=" + expectedEdges + " & written=" + edgesWritten);
+        }
+    }
+
+    /**
+     * Encodes a non-negative or negative number as ASCII digits
+     */
+    private void putNumber(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        switch (compression) {
+            case GZIP:
+                stream.write(buffer.array(), 0, buffer.limit());
+                break;
+            case BLOCK:
+                if (buffer.hasRemaining()) {
+                    deflater.reset();
+                    deflater.setInput(buffer.array(), 0, buffer.limit());
+                    deflater.finish();
+                    int length = 0;
+                    while (!deflater.finished()) {
+                        length += deflater.deflate(compressed, length, compressed.length - length);
+                    }
+                    ByteBuffer blockHeader = ByteBuffer.allocate(2 * Integer.BYTES);
+                    blockHeader.putInt(buffer.limit()).putInt(length).flip();
+                    writeFully(blockHeader);
+                    writeFully(ByteBuffer.wrap(compressed, 0, length));
+                }
+                break;
+            default:
+                writeFully(buffer);
+                break;
+        }
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Opens a file written by a GraphWriter and returns its decompressed bytes as a stream
+     * @param path - Path of the file
+     * @param compression - Compression used when the file was written
+     * @return InputStream of the encoded graph
+     * @throws IOException
+     *      Thrown if the file could not be opened
+     */
+    public static InputStream openDecompressed(Path path, Compression compression) throws IOException {
+        InputStream input = new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16);
+        switch (compression) {
+            case GZIP:
+                return new GZIPInputStream(input, 1 << 16);
+            case BLOCK:
+                return new BlockInputStream(input);
+            default:
+                return input;
+        }
+    }
+
+    /**
+     * Reads the blocks written with {@link Compression#BLOCK}
+     */
+    private static final class BlockInputStream extends InputStream {
+        private final DataInputStream input;
+        private final Inflater inflater = new Inflater();
+        private byte[] block = new byte[0];
+        private byte[] compressed = new byte[0];
+        private int position;
+        private int length;
+
+        BlockInputStream(InputStream input) throws IOException {
+            this.input = new DataInputStream(input);
+            if (this.input.readInt() != BLOCK_MAGIC) {
+                throw new IOException("Not a block compressed graph file!");
+            }
+        }
+
+        private boolean nextBlock() throws IOException {
+            int rawLength, compressedLength;
+            try {
+                rawLength = input.readInt();
+            } catch (EOFException ex) {
+                return false;
+            }
+            compressedLength = input.readInt();
+            if (block.length < rawLength) {
+                block = new byte[rawLength];
+            }
+            if (compressed.length < compressedLength) {
+                compressed = new byte[compressedLength];
+            }
+            input.readFully(compressed, 0, compressedLength);
+            inflater.reset();
+            inflater.setInput(compressed, 0, compressedLength);
+            try {
+                length = inflater.inflate(block, 0, rawLength);
+            } catch (DataFormatException ex) {
+                throw new IOException("Corrupted block", ex);
+            }
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (position == length) {
+                if (!nextBlock()) {
+                    return -1;
+                }
+            }
+            return block[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int count) throws IOException {
+            while (position == length) {
+                if (!nextBlock()) {
+                    return -1;
+                }
+            }
+            int read = Math.min(count, length - position);
+            System.arraycopy(block, position, bytes, offset, read);
+            position += read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,551 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Exact search for a Hamiltonian cycle of a read-only GraphView; an undirected graph is given by edges in both directions.
+ * Graphs of at most {@link #HELD_KARP_MAX_VERTICES} vertices are solved with the Held-Karp dynamic programming over
+ *  subsets, which also yields a lowest cost cycle. Larger graphs are searched by backtracking from vertex 0:
+ *      - the search is split into the paths of the first few steps, which are extended in parallel
+ *      - degree pruning: every unvisited vertex keeps the number of edges it can still enter and leave through,
+ *          and a step that leaves one of them at 0 is undone at once
+ *      - connectivity pruning: every few steps the unvisited vertices must all be reachable from the end of the path
+ *      - the next vertex with the fewest ways out is tried first; when the lowest cost cycle is wanted the cheapest
+ *          edge is tried first instead and paths that already cost as much as the best cycle are dropped
+ * The search stops at the time limit or when it is cancelled. The graph is never modified.
+ */
+public class HamiltonianCycleSolver {
+    public static final int HELD_KARP_MAX_VERTICES = 16;
+    private static final int SPLIT_DEPTH = 3;
+    private static final int CONNECTIVITY_INTERVAL = 4;
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+    private int maxHeldKarpVertices = HELD_KARP_MAX_VERTICES;
+    private boolean lowestCost;
+    private long timeLimitMillis = -1;
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a solver that runs in the common ForkJoinPool
+     * @param graph - GraphView to be searched
+     */
+    public HamiltonianCycleSolver(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be searched
+     * @param pool - ForkJoinPool that runs the parallel backtracking
+     */
+    public HamiltonianCycleSolver(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @param lowestCost - boolean - true to search for a lowest cost cycle instead of any cycle
+     */
+    public void setLowestCost(boolean lowestCost) {
+        this.lowestCost = lowestCost;
+    }
+
+    /**
+     * @param maxHeldKarpVertices - int - largest graph solved by dynamic programming instead of backtracking,
+     *      at most {@link #HELD_KARP_MAX_VERTICES}
+     */
+    public void setMaxHeldKarpVertices(int maxHeldKarpVertices) {
+        this.maxHeldKarpVertices = Math.min(maxHeldKarpVertices, HELD_KARP_MAX_VERTICES);
+    }
+
+    /**
+     * @param timeLimitMillis - long - time budget of a search in milliseconds, -1 for none
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Stops the running search, which then returns {@link Status#CANCELLED}; can be called from any thread
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Searches for a Hamiltonian cycle
+     * @return Result
+     */
+    public Result solve() {
+        cancelled = false;
+        int n = graph.getNoVertices();
+        long deadline = timeLimitMillis < 0 ? Long.MAX_VALUE : System.nanoTime() + timeLimitMillis * 1_000_000L;
+        Search search = new Search(deadline);
+        if (n == 0) {
+            return search.result(Status.NOT_FOUND);
+        }
+        if (n == 1) {
+            long loop = closingCost(0);
+            if (loop != Long.MAX_VALUE) {
+                search.offer(new int[]{0}, loop);
+            }
+        } else if (n <= maxHeldKarpVertices) {
+            heldKarp(search);
+        } else {
+            backtrack(search);
+        }
+
+        if (search.best != null && !lowestCost) {
+            return search.result(Status.FOUND);
+        }
+        if (search.stopReason != null) {
+            return search.result(search.stopReason);
+        }
+        return search.result(search.best != null ? Status.FOUND : Status.NOT_FOUND);
+    }
+
+    /**
+     * @return long - cost of the cheapest edge from u back to vertex 0, Long.MAX_VALUE if there is none
+     */
+    private long closingCost(int u) {
+        long best = Long.MAX_VALUE;
+        for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+            if (graph.outTarget(e) == 0) {
+                best = Math.min(best, graph.outWeight(e));
+            }
+        }
+        return best;
+    }
+
+    // -------------------- Held-Karp --------------------
+
+    /**
+     * cost[mask * n + v] is the lowest cost of a path that starts at vertex 0, visits the vertices 1..n-1 in mask
+     *  (bit i for vertex i+1) and ends at v
+     */
+    private void heldKarp(Search search) {
+        int n = graph.getNoVertices();
+        int masks = 1 << (n - 1);
+        long[] cost = new long[masks * n];
+        Arrays.fill(cost, Long.MAX_VALUE);
+        for (int e = graph.outBegin(0); e < graph.outEnd(0); e++) {
+            int v = graph.outTarget(e);
+            if (v != 0) {
+                int cell = (1 << (v - 1)) * n + v;
+                cost[cell] = Math.min(cost[cell], graph.outWeight(e));
+            }
+        }
+
+        for (int mask = 1; mask < masks; mask++) {
+            if ((mask & (CHECK_INTERVAL - 1)) == 0 && search.shouldStop(cancelled)) {
+                return;
+            }
+            for (int u = 1; u < n; u++) {
+                long base = cost[mask * n + u];
+                if (base == Long.MAX_VALUE) {
+                    continue;
+                }
+                for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                    int v = graph.outTarget(e);
+                    if (v == 0 || (mask & 1 << (v - 1)) != 0) {
+                        continue;
+                    }
+                    int cell = (mask | 1 << (v - 1)) * n + v;
+                    cost[cell] = Math.min(cost[cell], base + graph.outWeight(e));
+                }
+            }
+        }
+
+        int full = masks - 1;
+        int last = -1;
+        long best = Long.MAX_VALUE;
+        for (int u = 1; u < n; u++) {
+            long closing = closingCost(u);
+            if (cost[full * n + u] != Long.MAX_VALUE && closing != Long.MAX_VALUE && cost[full * n + u] + closing < best) {
+                best = cost[full * n + u] + closing;
+                last = u;
+            }
+        }
+        if (last == -1) {
+            return;
+        }
+
+        // Walk back through the table, picking at every step a predecessor that accounts for the cost
+        int[] path = new int[n];
+        int mask = full;
+        int v = last;
+        for (int i = n - 1; i > 0; i--) {
+            path[i] = v;
+            int previousMask = mask & ~(1 << (v - 1));
+            long target = cost[mask * n + v];
+            int previous = -1;
+            for (int e = graph.inBegin(v); e < graph.inEnd(v) && previous == -1; e++) {
+                int u = graph.inSource(e);
+                if (i == 1 && u == 0 && graph.inWeight(e) == target) {
+                    previous = 0;
+                } else if (i > 1 && u != 0 && (previousMask & 1 << (u - 1)) != 0
+                        && cost[previousMask * n + u] != Long.MAX_VALUE && cost[previousMask * n + u] + graph.inWeight(e) == target) {
+                    previous = u;
+                }
+            }
+            mask = previousMask;
+            v = previous;
+        }
+        path[0] = 0;
+        search.offer(path, best);
+    }
+
+    // -------------------- Backtracking --------------------
+
+    private void backtrack(Search search) {
+        for (int v = 0; v < graph.getNoVertices(); v++) {
+            if (graph.getInDegree(v) == 0 || graph.getOutDegree(v) == 0) {
+                return;
+            }
+        }
+        // Every path of the first steps that survives the pruning becomes an independent task
+        List<int[]> prefixes = new ArrayList<>();
+        Walker splitter = new Walker(search);
+        splitter.run(Math.min(SPLIT_DEPTH, graph.getNoVertices() - 1), prefixes);
+        if (search.shouldStop(cancelled)) {
+            return;
+        }
+        pool.submit(() -> IntStream.range(0, prefixes.size()).parallel().forEach(i -> {
+            Walker walker = new Walker(search);
+            int[] prefix = prefixes.get(i);
+            for (int d = 1; d < prefix.length; d++) {
+                walker.extend(edgeBetween(prefix[d - 1], prefix[d]));
+            }
+            walker.run(graph.getNoVertices(), null);
+        })).join();
+    }
+
+    /**
+     * @return int - the cheapest edge from u to v
+     */
+    private int edgeBetween(int u, int v) {
+        int best = -1;
+        for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+            if (graph.outTarget(e) == v && (best == -1 || graph.outWeight(e) < graph.outWeight(best))) {
+                best = e;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Depth-first extension of a path from vertex 0, with its own copy of the pruning state
+     */
+    private final class Walker {
+        private final Search search;
+        private final int n = graph.getNoVertices();
+        private final int[] path = new int[n];
+        private final boolean[] visited = new boolean[n];
+        // Edges from an unvisited vertex or the end of the path into v, and from v into an unvisited vertex or vertex 0
+        private final int[] inFree = new int[n];
+        private final int[] outFree = new int[n];
+        private final int[][] candidates = new int[n][];
+        private final int[] candidateCount = new int[n];
+        private final int[] candidatePosition = new int[n];
+        private final int[] queue = new int[n];
+        private final int[] reachedMark = new int[n];
+        private int mark;
+        private int depth;
+        private long cost;
+        private long steps;
+
+        Walker(Search search) {
+            this.search = search;
+            for (int v = 0; v < n; v++) {
+                inFree[v] = graph.getInDegree(v);
+                outFree[v] = graph.getOutDegree(v);
+            }
+            path[0] = 0;
+            visited[0] = true;
+            depth = 1;
+        }
+
+        /**
+         * Moves the end of the path along edge e
+         * @return boolean - false if the step leaves an unvisited vertex without a way in or out
+         */
+        boolean extend(int e) {
+            int u = path[depth - 1];
+            int v = graph.outTarget(e);
+            boolean alive = true;
+            for (int f = graph.outBegin(u); f < graph.outEnd(u); f++) {
+                int w = graph.outTarget(f);
+                if (--inFree[w] == 0 && !visited[w] && w != v) {
+                    alive = false;
+                }
+            }
+            for (int f = graph.inBegin(v); f < graph.inEnd(v); f++) {
+                int w = graph.inSource(f);
+                if (--outFree[w] == 0 && !visited[w] && w != v) {
+                    alive = false;
+                }
+            }
+            visited[v] = true;
+            path[depth++] = v;
+            cost += graph.outWeight(e);
+            return alive;
+        }
+
+        /**
+         * Undoes the last step, which was taken along edge e
+         */
+        void retract(int e) {
+            int v = path[--depth];
+            int u = path[depth - 1];
+            cost -= graph.outWeight(e);
+            visited[v] = false;
+            for (int f = graph.inBegin(v); f < graph.inEnd(v); f++) {
+                outFree[graph.inSource(f)]++;
+            }
+            for (int f = graph.outBegin(u); f < graph.outEnd(u); f++) {
+                inFree[graph.outTarget(f)]++;
+            }
+        }
+
+        /**
+         * @return boolean - true if every unvisited vertex can be reached from the end of the path through unvisited vertices
+         */
+        boolean connected() {
+            mark++;
+            int head = 0, tail = 0;
+            queue[tail++] = path[depth - 1];
+            int reached = 0;
+            while (head < tail) {
+                int u = queue[head++];
+                for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                    int v = graph.outTarget(e);
+                    if (!visited[v] && reachedMark[v] != mark) {
+                        reachedMark[v] = mark;
+                        queue[tail++] = v;
+                        reached++;
+                    }
+                }
+            }
+            return reached == n - depth;
+        }
+
+        /**
+         * Lists the edges that can extend the path, in the order they should be tried
+         */
+        void prepare() {
+            int u = path[depth - 1];
+            int count = 0;
+            int[] list = candidates[depth - 1];
+            if (list == null || list.length < graph.getOutDegree(u)) {
+                list = new int[graph.getOutDegree(u)];
+                candidates[depth - 1] = list;
+            }
+            // Of parallel edges only the cheapest is kept
+            mark++;
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                if (visited[v]) {
+                    continue;
+                }
+                if (reachedMark[v] != mark) {
+                    reachedMark[v] = mark;
+                    queue[v] = count;
+                    list[count++] = e;
+                } else if (graph.outWeight(e) < graph.outWeight(list[queue[v]])) {
+                    list[queue[v]] = e;
+                }
+            }
+            // Insertion sort; the lists are short
+            for (int i = 1; i < count; i++) {
+                int e = list[i];
+                long key = key(e);
+                int j = i - 1;
+                while (j >= 0 && key(list[j]) > key) {
+                    list[j + 1] = list[j];
+                    j--;
+                }
+                list[j + 1] = e;
+            }
+            candidateCount[depth - 1] = count;
+            candidatePosition[depth - 1] = 0;
+        }
+
+        private long key(int e) {
+            return lowestCost ? graph.outWeight(e) : outFree[graph.outTarget(e)];
+        }
+
+        /**
+         * Extends the path depth-first until it has {@code limit} vertices.
+         * @param prefixes - receives the paths that reach the limit; null to search for whole cycles
+         */
+        void run(int limit, List<int[]> prefixes) {
+            int base = depth;
+            prepare();
+            while (true) {
+                if ((++steps & (CHECK_INTERVAL - 1)) == 0 && search.shouldStop(cancelled)) {
+                    return;
+                }
+                if (search.done) {
+                    return;
+                }
+                int level = depth - 1;
+                if (candidatePosition[level] == candidateCount[level]) {
+                    if (depth == base) {
+                        return;
+                    }
+                    retract(lastEdge());
+                    continue;
+                }
+                int e = candidates[level][candidatePosition[level]++];
+                boolean alive = extend(e);
+                if (alive && lowestCost && search.bounded && cost >= search.bestCost.get()) {
+                    alive = false;
+                }
+                if (alive && depth < n && depth % CONNECTIVITY_INTERVAL == 0) {
+                    alive = connected();
+                }
+                if (!alive) {
+                    retract(e);
+                } else if (depth == n) {
+                    long closing = closingCost(path[n - 1]);
+                    if (closing != Long.MAX_VALUE) {
+                        search.offer(path.clone(), cost + closing);
+                    }
+                    retract(e);
+                } else if (depth == limit) {
+                    prefixes.add(Arrays.copyOf(path, depth));
+                    retract(e);
+                } else {
+                    prepare();
+                }
+            }
+        }
+
+        /**
+         * @return int - the edge of the last step, which is the current candidate of the level before it
+         */
+        private int lastEdge() {
+            int level = depth - 2;
+            return candidates[level][candidatePosition[level] - 1];
+        }
+    }
+
+    /**
+     * State shared by the walkers of one search
+     */
+    private final class Search {
+        private final long deadline;
+        private final boolean bounded;
+        private final AtomicLong bestCost = new AtomicLong(Long.MAX_VALUE);
+        private int[] best;
+        private volatile boolean done;
+        private volatile Status stopReason;
+
+        Search(long deadline) {
+            this.deadline = deadline;
+            boolean nonNegative = true;
+            for (int u = 0; u < graph.getNoVertices() && nonNegative; u++) {
+                for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                    nonNegative &= graph.outWeight(e) >= 0;
+                }
+            }
+            this.bounded = nonNegative;
+        }
+
+        boolean shouldStop(boolean cancelled) {
+            if (done) {
+                return true;
+            }
+            if (cancelled) {
+                stopReason = Status.CANCELLED;
+                done = true;
+            } else if (System.nanoTime() > deadline) {
+                stopReason = Status.TIMED_OUT;
+                done = true;
+            }
+            return done;
+        }
+
+        synchronized void offer(int[] cycle, long cycleCost) {
+            if (best == null || cycleCost < bestCost.get()) {
+                best = cycle;
+                bestCost.set(cycleCost);
+            }
+            if (!lowestCost) {
+                done = true;
+            }
+        }
+
+        synchronized Result result(Status status) {
+            int[] ids = null;
+            if (best != null) {
+                ids = new int[best.length + 1];
+                for (int i = 0; i < best.length; i++) {
+                    ids[i] = graph.vertexId(best[i]);
+                }
+                ids[best.length] = ids[0];
+            }
+            return new Result(status, ids, best == null ? 0 : bestCost.get());
+        }
+    }
+
+    public enum Status {FOUND, NOT_FOUND, TIMED_OUT, CANCELLED}
+
+    /**
+     * Outcome of a search
+     */
+    public static final class Result {
+        private final Status status;
+        private final int[] cycle;
+        private final long cost;
+
+        Result(Status status, int[] cycle, long cost) {
+            this.status = status;
+            this.cycle = cycle;
+            this.cost = cost;
+        }
+
+        /**
+         * @return Status - FOUND if the search completed with a cycle, which is a lowest cost one if that was asked for;
+         *      TIMED_OUT or CANCELLED if it stopped early, possibly with a cycle that is not the cheapest
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return boolean - true if a cycle was found
+         */
+        public boolean hasCycle() {
+            return cycle != null;
+        }
+
+        /**
+         * @return int[] - IDs of the vertices of the cycle, starting and ending with the same vertex
+         * @throws IllegalStateException
+         *      If no cycle was found
+         */
+        public int[] getCycle() throws IllegalStateException {
+            if (cycle == null) {
+                throw new IllegalStateException("No Hamiltonian cycle was found: " + status);
+            }
+            return cycle;
+        }
+
+        /**
+         * @return long - total weight of the cycle
+         */
+        public long getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return "HamiltonianCycle{Status=" + status + ", Cost=" + cost + ", Cycle=" + Arrays.toString(cycle) + "}";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.Arrays;
+
+/**
+ * Indexed 4-ary min-heap of vertex indices 0..n-1 with long keys and decrease-key.
+ * A popped vertex can be pushed again, and {@link #clear()} only touches the vertices still in the heap,
+ *  so the same heap can be reused by many searches over the same graph.
+ */
+class IndexedHeap {
+    private static final int ARITY = 4;
+    private final long[] keys;
+    private final int[] position;
+    private int[] heap = new int[64];
+    private int size;
+
+    /**
+     * @param n - int - number of vertices
+     */
+    IndexedHeap(int n) {
+        this.keys = new long[n];
+        this.position = new int[n];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return long - smallest key, Long.MAX_VALUE if the heap is empty
+     */
+    long minKey() {
+        return size == 0 ? Long.MAX_VALUE : keys[heap[0]];
+    }
+
+    /**
+     * Inserts a vertex or changes its key to a smaller one
+     */
+    void push(int v, long key) {
+        int i = position[v];
+        if (i == -1) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            i = size++;
+        }
+        keys[v] = key;
+        while (i > 0) {
+            int up = (i - 1) / ARITY;
+            if (keys[heap[up]] <= key) {
+                break;
+            }
+            heap[i] = heap[up];
+            position[heap[i]] = i;
+            i = up;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    /**
+     * @return int - a vertex of minimum key, -1 if the heap is empty
+     */
+    int pop() {
+        if (size == 0) {
+            return -1;
+        }
+        int top = heap[0];
+        position[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            long key = keys[last];
+            int i = 0;
+            while (true) {
+                int first = ARITY * i + 1;
+                if (first >= size) {
+                    break;
+                }
+                int best = first;
+                int stop = Math.min(size, first + ARITY);
+                for (int c = first + 1; c < stop; c++) {
+                    if (keys[heap[c]] < keys[heap[best]]) {
+                        best = c;
+                    }
+                }
+                if (keys[heap[best]] >= key) {
+                    break;
+                }
+                heap[i] = heap[best];
+                position[heap[i]] = i;
+                i = best;
+            }
+            heap[i] = last;
+            position[last] = i;
+        }
+        return top;
+    }
+
+    /**
+     * Removes every vertex from the heap
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+}
@@ -1,5 +1,6 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.SQLOutput;
 import java.util.InputMismatchException;
 import java.util.Optional;
@@ -26,7 +27,9 @@ public class Main {
         strBuilder.append("\t15. Shortest path\n");
         strBuilder.append("\t16. Lowest cost path\n");
         strBuilder.append("\t17. Highest cost path (DAG)\n");
-        strBuilder.append("\t18. Detect a cycle (Undirected Graph)");
+        strBuilder.append("\t18. Detect a cycle (Undirected Graph)\n");
+        strBuilder.append("\t19. Open mutation log\n");
+        strBuilder.append("\t20. Hamiltonian cycle (Undirected Graph)");
         System.out.println(strBuilder);
     }
 
@@ -105,7 +108,7 @@ public class Main {
                                 if (answer == 1) {
                                     System.out.println("Give new weight: ");
                                     weight = scanner.nextInt();
-                                    edge.setWeight(weight);
+                                    controller.updateEdgeWeight(v1, v2, weight);
                                     // Leave this break here
                                     break;
                                 } else {
@@ -152,14 +155,17 @@ public class Main {
                         case 12:
                             // Save graph
                             System.out.println("Name file: ");
-                            filename = scanner.next();
+                            filename = "res/";
+                            filename += scanner.next();
                             Graph.saveGraph(graph, filename);
                             break;
                         case 13:
                             System.out.println("Enter file name: ");
                             filename = "res/";
                             filename += scanner.next();
-                            controller.setGraph(Graph.readGraph(filename));
+                            GraphLoader loader = new GraphLoader(GraphLoader.Format.DEFAULT);
+                            controller.setGraph(loader.load(Paths.get(filename)).toGraph());
+                            System.out.println(loader.getStatistics());
                             graph = controller.getGraph();
                             break;
                         case 14:
@@ -183,7 +189,7 @@ public class Main {
                             v1 = scanner.nextInt();
                             System.out.println("Give vertex2 id: ");
                             v2 = scanner.nextInt();
-                            Util.shortestPath(controller.getGraph(), v1, v2).forEach(v -> {
+                            controller.shortestPath(v1, v2).forEach(v -> {
                                 System.out.println(v.toString());
                             });
                             break;
@@ -193,7 +199,7 @@ public class Main {
                             v1 = scanner.nextInt();
                             System.out.println("Give vertex2 id: ");
                             v2 = scanner.nextInt();
-                            Util.dijkstraLowestCostPath(controller.getGraph(), v1, v2).forEach(v -> {
+                            controller.lowestCostPath(v1, v2).forEach(v -> {
                                 System.out.println(v.toString());
                             });
                             break;
@@ -203,12 +209,30 @@ public class Main {
                             v1 = scanner.nextInt();
                             System.out.println("Give vertex2 id: ");
                             v2 = scanner.nextInt();
-                            Graph.HighestCostPath(graph, v1, v2).forEach(v -> {
+                            controller.highestCostPath(v1, v2).forEach(v -> {
                                 System.out.println(v.toString());
                             });
                             break;
                         case 18:
                             // Cycle detection - Undirected Graph
+                            ConnectivityEngine.Report report = new ConnectivityEngine().run(graph);
+                            System.out.println(report.hasCycle()
+                                    ? "Cycle closed by edge " + report.getCycleEdge()[0] + " - " + report.getCycleEdge()[1]
+                                    : "The graph does not contain a cycle");
+                            System.out.println("Connected components: " + report.getNoComponents());
+                            break;
+                        case 19:
+                            // Persist every change to a mutation log
+                            System.out.println("Enter log directory: ");
+                            filename = "res/";
+                            filename += scanner.next();
+                            controller.openMutationLog(Paths.get(filename), 10000);
+                            graph = controller.getGraph();
+                            System.out.println("Logging changes to " + filename);
+                            break;
+                        case 20:
+                            // Hamiltonian cycle - Undirected Graph
+                            System.out.println("Searching for at most " + Util.HAMILTONIAN_TIME_LIMIT_MILLIS + "ms");
                             Util.FindHamiltonianCycle(graph).forEach(v -> {
                                 System.out.println(v.toString());
                             });
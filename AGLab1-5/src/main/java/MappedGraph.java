@@ -0,0 +1,326 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only graph stored in a binary file and accessed through memory-mapped buffers, so that
+ *  none of its vertices or edges live on the heap.
+ * The file is structured as (all values are big-endian ints):
+ *      Header - MAGIC, VERSION, Number_of_vertices, Number_of_edges, Flags
+ *      Vertex IDs - n values, in increasing order
+ *      Outbound offsets - n+1 values, followed by m targets and m weights
+ *      Inbound offsets - n+1 values, followed by m sources and m weights
+ */
+public class MappedGraph implements GraphView {
+    public static final int MAGIC = 0x43535247;
+    public static final int VERSION = 1;
+    private static final int HEADER_INTS = 5;
+    private static final int FLAG_DENSE_IDS = 1;
+
+    private final int noVertices;
+    private final int noEdges;
+    private final boolean denseIds;
+    private final IntSection vertexIds;
+    private final IntSection outOffsets;
+    private final IntSection outTargets;
+    private final IntSection outWeights;
+    private final IntSection inOffsets;
+    private final IntSection inSources;
+    private final IntSection inWeights;
+
+    private MappedGraph(FileChannel channel, boolean trusted) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_INTS * Integer.BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_INTS * Integer.BYTES || header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a mapped graph file!");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported mapped graph version: " + version);
+        }
+        noVertices = header.getInt();
+        noEdges = header.getInt();
+        denseIds = (header.getInt() & FLAG_DENSE_IDS) != 0;
+        if (noVertices < 0 || noEdges < 0) {
+            throw new IllegalStateException("Corrupt mapped graph file: negative counts in its header");
+        }
+
+        long expected = fileSize(noVertices, noEdges);
+        if (channel.size() != expected) {
+            throw new IllegalStateException("Mapped graph file size does not match its header: expected=" + expected + " & actual=" + channel.size());
+        }
+
+        long position = HEADER_INTS * (long) Integer.BYTES;
+        vertexIds = new IntSection(channel, position, noVertices);
+        position += noVertices * (long) Integer.BYTES;
+        outOffsets = new IntSection(channel, position, noVertices + 1L);
+        position += (noVertices + 1L) * Integer.BYTES;
+        outTargets = new IntSection(channel, position, noEdges);
+        position += noEdges * (long) Integer.BYTES;
+        outWeights = new IntSection(channel, position, noEdges);
+        position += noEdges * (long) Integer.BYTES;
+        inOffsets = new IntSection(channel, position, noVertices + 1L);
+        position += (noVertices + 1L) * Integer.BYTES;
+        inSources = new IntSection(channel, position, noEdges);
+        position += noEdges * (long) Integer.BYTES;
+        inWeights = new IntSection(channel, position, noEdges);
+        if (!trusted) {
+            validate();
+        }
+    }
+
+    /**
+     * Checks the structure the algorithms rely on, so that a damaged file fails here instead of deep inside a search
+     */
+    private void validate() throws IllegalStateException {
+        for (int u = 0; u < noVertices; u++) {
+            int id = vertexIds.get(u);
+            if ((denseIds && id != u) || (u > 0 && id <= vertexIds.get(u - 1))) {
+                throw new IllegalStateException("Corrupt mapped graph file: vertex IDs are not increasing at index " + u);
+            }
+        }
+        validateOffsets(outOffsets, outTargets, "outbound");
+        validateOffsets(inOffsets, inSources, "inbound");
+    }
+
+    private void validateOffsets(IntSection offsets, IntSection endpoints, String direction) throws IllegalStateException {
+        if (offsets.get(0) != 0 || offsets.get(noVertices) != noEdges) {
+            throw new IllegalStateException("Corrupt mapped graph file: " + direction + " offsets do not span the edges");
+        }
+        for (int u = 0; u < noVertices; u++) {
+            if (offsets.get(u) > offsets.get(u + 1)) {
+                throw new IllegalStateException("Corrupt mapped graph file: " + direction + " offsets decrease at index " + u);
+            }
+        }
+        for (long e = 0; e < noEdges; e++) {
+            int v = endpoints.get(e);
+            if (v < 0 || v >= noVertices) {
+                throw new IllegalStateException("Corrupt mapped graph file: " + direction + " edge " + e + " has vertex index " + v);
+            }
+        }
+    }
+
+    /**
+     * Maps the graph stored in the given file. The file is not read into memory; pages are loaded by the
+     *  operating system as they are accessed.
+     * The vertex IDs, the offsets and the edge endpoints are checked once, which reads the whole file except the weights
+     * @param path - Path of a file written by {@link #write(GraphView, Path)}
+     * @return MappedGraph - view over the file
+     * @throws IOException
+     *      Thrown if the file cannot be opened or mapped
+     * @throws IllegalStateException
+     *      Thrown if the file is not a valid mapped graph
+     */
+    public static MappedGraph open(Path path) throws IOException, IllegalStateException {
+        return open(path, false);
+    }
+
+    /**
+     * Maps the graph stored in the given file
+     * @param path - Path of a file written by {@link #write(GraphView, Path)}
+     * @param trusted - boolean - true to only check the header and the size of the file, so that no page is read before
+     *      it is accessed; a damaged trusted file leads to out-of-bounds errors or wrong results later on
+     * @return MappedGraph - view over the file
+     * @throws IOException
+     *      Thrown if the file cannot be opened or mapped
+     * @throws IllegalStateException
+     *      Thrown if the file is not a valid mapped graph
+     */
+    public static MappedGraph open(Path path, boolean trusted) throws IOException, IllegalStateException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedGraph(channel, trusted);
+        }
+    }
+
+    /**
+     * Writes a graph in the mapped binary layout
+     * @param graph - GraphView to be written
+     * @param path - Path of the file to be created or overwritten
+     * @throws IOException
+     *      Thrown if the file could not be written
+     */
+    public static void write(GraphView graph, Path path) throws IOException {
+        int n = graph.getNoVertices();
+        int m = graph.getNoEdges();
+        boolean dense = true;
+        for (int u = 0; u < n && dense; u++) {
+            dense = graph.vertexId(u) == u;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntWriter writer = new IntWriter(channel);
+            writer.put(MAGIC);
+            writer.put(VERSION);
+            writer.put(n);
+            writer.put(m);
+            writer.put(dense ? FLAG_DENSE_IDS : 0);
+
+            for (int u = 0; u < n; u++) {
+                writer.put(graph.vertexId(u));
+            }
+            for (int u = 0; u < n; u++) {
+                writer.put(graph.outBegin(u));
+            }
+            writer.put(m);
+            for (int e = 0; e < m; e++) {
+                writer.put(graph.outTarget(e));
+            }
+            for (int e = 0; e < m; e++) {
+                writer.put(graph.outWeight(e));
+            }
+            for (int v = 0; v < n; v++) {
+                writer.put(graph.inBegin(v));
+            }
+            writer.put(m);
+            for (int e = 0; e < m; e++) {
+                writer.put(graph.inSource(e));
+            }
+            for (int e = 0; e < m; e++) {
+                writer.put(graph.inWeight(e));
+            }
+            writer.flush();
+        }
+    }
+
+    private static long fileSize(int n, int m) {
+        return (HEADER_INTS + n + 2 * (n + 1L) + 4L * m) * Integer.BYTES;
+    }
+
+    @Override
+    public int getNoVertices() {
+        return noVertices;
+    }
+
+    @Override
+    public int getNoEdges() {
+        return noEdges;
+    }
+
+    @Override
+    public int vertexId(int index) {
+        return denseIds ? index : vertexIds.get(index);
+    }
+
+    @Override
+    public int indexOf(int vid) {
+        if (denseIds) {
+            return vid >= 0 && vid < noVertices ? vid : -1;
+        }
+        // The IDs are stored in increasing order
+        int low = 0, high = noVertices - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = vertexIds.get(mid);
+            if (id < vid) {
+                low = mid + 1;
+            } else if (id > vid) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int outBegin(int u) {
+        return outOffsets.get(u);
+    }
+
+    @Override
+    public int outEnd(int u) {
+        return outOffsets.get(u + 1);
+    }
+
+    @Override
+    public int outTarget(int e) {
+        return outTargets.get(e);
+    }
+
+    @Override
+    public int outWeight(int e) {
+        return outWeights.get(e);
+    }
+
+    @Override
+    public int inBegin(int v) {
+        return inOffsets.get(v);
+    }
+
+    @Override
+    public int inEnd(int v) {
+        return inOffsets.get(v + 1);
+    }
+
+    @Override
+    public int inSource(int e) {
+        return inSources.get(e);
+    }
+
+    @Override
+    public int inWeight(int e) {
+        return inWeights.get(e);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph{Vertices=" + noVertices + ", Edges=" + noEdges + "}";
+    }
+
+    /**
+     * A run of ints in the file. A single mapping cannot exceed 2GB, so longer runs are split into chunks.
+     */
+    static final class IntSection {
+        private static final int CHUNK_SHIFT = 28;
+        private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+        private final IntBuffer[] chunks;
+
+        IntSection(FileChannel channel, long position, long length) throws IOException {
+            int count = (int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+            chunks = new IntBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long size = Math.min(length - start, 1L << CHUNK_SHIFT);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + start * Integer.BYTES, size * Integer.BYTES)
+                        .asIntBuffer();
+            }
+        }
+
+        int get(long index) {
+            return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+        }
+    }
+
+    /**
+     * Buffers ints and writes them to a channel in large blocks
+     */
+    static final class IntWriter {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+        IntWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void put(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Append-only log of the changes made to a Graph, stored in a directory as numbered generations:
+ *      snapshot-N.bin - the whole graph at the start of generation N, written as ADD_VERTEX and ADD_EDGE records
+ *      log-N.bin - every change made during generation N, one record per change
+ * Each record takes {@link #RECORD_SIZE} bytes: the operation, 2 vertex IDs and a weight.
+ * A checkpoint starts a new generation and compacts the old one into a new snapshot, after which the files
+ *  of the old generation are deleted. Recovery loads the newest complete snapshot and replays the logs after it.
+ */
+public class MutationLog implements Closeable {
+    public enum Operation { ADD_EDGE, REMOVE_EDGE, ADD_VERTEX, REMOVE_VERTEX, SET_WEIGHT }
+
+    public static final int RECORD_SIZE = 1 + 3 * Integer.BYTES;
+    private static final int CHUNK_RECORDS = 1 << 16;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final Path directory;
+    private final boolean sync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final ExecutorService compactor;
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private FileChannel log;
+    private long generation;
+    private long recordsSinceCheckpoint;
+    private long compactionThreshold = Long.MAX_VALUE;
+    private Runnable compactionTask;
+
+    /**
+     * Opens the log stored in the given directory, creating the directory if needed.
+     * New records are appended to the log of the newest generation.
+     * @param directory - Path of the directory that holds the log
+     * @param sync - boolean - if true every record is forced to the storage device before append returns
+     * @throws IOException
+     *      Thrown if the directory or the log could not be opened
+     */
+    public MutationLog(Path directory, boolean sync) throws IOException {
+        this.directory = directory;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        this.generation = Math.max(latestSnapshot(directory), latestLog(directory));
+        this.log = openLog(generation);
+        this.recordsSinceCheckpoint = log.size() / RECORD_SIZE;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mutation-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return boolean - true if the directory holds a snapshot or a log that can be recovered
+     * @throws IOException
+     *      Thrown if the directory could not be listed
+     */
+    public boolean hasState() throws IOException {
+        return latestSnapshot(directory) >= 0 || log.size() > 0;
+    }
+
+    /**
+     * Runs the given task in the background once the log has grown by {@code threshold} records since the last checkpoint
+     * @param threshold - long - number of records that triggers a compaction
+     * @param task - Runnable - usually a call that checkpoints the logged graph
+     */
+    public void setCompaction(long threshold, Runnable task) {
+        this.compactionThreshold = threshold;
+        this.compactionTask = task;
+    }
+
+    /**
+     * Appends a change to the log of the current generation
+     * @param operation - Operation
+     * @param v1 - ID of the first vertex (the vertex itself for vertex operations)
+     * @param v2 - ID of the second vertex; ignored by vertex operations
+     * @param weight - weight of the edge; ignored by removals
+     * @throws IOException
+     *      Thrown if the record could not be written
+     */
+    public synchronized void append(Operation operation, int v1, int v2, int weight) throws IOException {
+        record.clear();
+        record.put((byte) operation.ordinal()).putInt(v1).putInt(v2).putInt(weight).flip();
+        while (record.hasRemaining()) {
+            log.write(record);
+        }
+        if (sync) {
+            log.force(false);
+        }
+        recordsSinceCheckpoint++;
+
+        if (recordsSinceCheckpoint >= compactionThreshold && compactionTask != null && compacting.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compactionTask.run();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return long - number of records appended since the last checkpoint
+     */
+    public synchronized long getRecordsSinceCheckpoint() {
+        return recordsSinceCheckpoint;
+    }
+
+    /**
+     * Starts a new generation and captures the records that describe the graph at this point.
+     * Must be called while no other thread changes the graph; the captured records are written
+     *  by {@link #writeSnapshot(Snapshot)}, which can run concurrently with further changes.
+     * The records are copied into chunks of {@link #CHUNK_RECORDS} records, so no single buffer grows with the graph;
+     *  the log itself is only locked while the new generation is opened.
+     * @param graph - Graph whose changes are logged
+     * @return Snapshot - the records of the graph
+     * @throws IOException
+     *      Thrown if the log of the new generation could not be created
+     */
+    public Snapshot rotate(Graph graph) throws IOException {
+        List<ByteBuffer> chunks = new ArrayList<>();
+        ByteBuffer chunk = ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+        for (Vertex vertex : graph.getVertices()) {
+            chunk = next(chunk, chunks);
+            chunk.put((byte) Operation.ADD_VERTEX.ordinal()).putInt(vertex.getvID()).putInt(0).putInt(0);
+        }
+        for (Edge edge : graph.getEdges()) {
+            chunk = next(chunk, chunks);
+            chunk.put((byte) Operation.ADD_EDGE.ordinal()).putInt(edge.getV1().getvID()).putInt(edge.getV2().getvID()).putInt(edge.getWeight());
+        }
+        chunk.flip();
+        chunks.add(chunk);
+
+        synchronized (this) {
+            log.close();
+            generation++;
+            log = openLog(generation);
+            recordsSinceCheckpoint = 0;
+            return new Snapshot(generation, chunks);
+        }
+    }
+
+    /**
+     * @return ByteBuffer - the given chunk if it has room for a record, otherwise a new one after the full chunk is kept
+     */
+    private static ByteBuffer next(ByteBuffer chunk, List<ByteBuffer> chunks) {
+        if (chunk.hasRemaining()) {
+            return chunk;
+        }
+        chunk.flip();
+        chunks.add(chunk);
+        return ByteBuffer.allocate(CHUNK_RECORDS * RECORD_SIZE);
+    }
+
+    /**
+     * Writes a captured snapshot and deletes the files of the generations it replaces
+     * @param snapshot - Snapshot returned by {@link #rotate(Graph)}
+     * @throws IOException
+     *      Thrown if the snapshot could not be written
+     */
+    public void writeSnapshot(Snapshot snapshot) throws IOException {
+        Path temporary = directory.resolve("snapshot-" + snapshot.generation + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer chunk : snapshot.chunks) {
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath(snapshot.generation), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long older = snapshot.generation - 1; older >= 0; older--) {
+            boolean deleted = Files.deleteIfExists(snapshotPath(older));
+            deleted |= Files.deleteIfExists(logPath(older));
+            if (!deleted && older < snapshot.generation - 1) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the logged graph from the newest snapshot and the logs written after it
+     * @return Graph - the recovered graph; empty if the directory holds no state
+     * @throws IOException
+     *      Thrown if a file could not be read
+     * @throws IllegalStateException
+     *      Thrown if a record refers to a vertex or an edge that does not exist
+     */
+    public synchronized Graph recover() throws IOException, IllegalStateException {
+        Graph graph = new Graph();
+        long first = latestSnapshot(directory);
+        if (first >= 0) {
+            replay(graph, snapshotPath(first));
+        } else {
+            first = 0;
+        }
+        for (long g = first; g <= generation; g++) {
+            if (Files.exists(logPath(g))) {
+                replay(graph, logPath(g));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Applies every complete record of a file to the graph; a partially written trailing record is ignored
+     * @throws IllegalStateException
+     *      If a record has an unknown operation or refers to a vertex or an edge that does not exist
+     */
+    private static void replay(Graph graph, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 4096);
+            long position = 0;
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (buffer.remaining() < RECORD_SIZE) {
+                    break;
+                }
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    byte operation = buffer.get();
+                    if (operation < 0 || operation >= OPERATIONS.length) {
+                        throw new IllegalStateException("Corrupt log record at byte " + position + " of " + path
+                                + ": unknown operation " + operation);
+                    }
+                    apply(graph, OPERATIONS[operation], buffer.getInt(), buffer.getInt(), buffer.getInt());
+                    position += RECORD_SIZE;
+                }
+                buffer.compact();
+            }
+        }
+    }
+
+    /**
+     * Applies a single change to a graph
+     * @param graph - Graph to be changed
+     * @param operation - Operation
+     * @param v1 - ID of the first vertex
+     * @param v2 - ID of the second vertex
+     * @param weight - weight of the edge
+     * @throws IllegalStateException
+     *      If the change refers to a vertex or an edge that does not exist
+     */
+    public static void apply(Graph graph, Operation operation, int v1, int v2, int weight) throws IllegalStateException {
+        switch (operation) {
+            case ADD_VERTEX:
+                graph.addVertex(new Vertex(v1));
+                break;
+            case REMOVE_VERTEX:
+                graph.removeVertex(vertex(graph, v1));
+                break;
+            case ADD_EDGE:
+                graph.addEdge(new Edge(vertex(graph, v1), vertex(graph, v2), weight));
+                break;
+            case REMOVE_EDGE:
+                graph.removeEdge(edge(graph, v1, v2));
+                break;
+            case SET_WEIGHT:
+                edge(graph, v1, v2).setWeight(weight);
+                break;
+        }
+    }
+
+    private static Vertex vertex(Graph graph, int vid) {
+        Optional<Vertex> vertex = graph.getVertexById(vid);
+        if (vertex.isEmpty()) {
+            throw new IllegalStateException("Logged vertex does not exist: " + vid);
+        }
+        return vertex.get();
+    }
+
+    private static Edge edge(Graph graph, int v1id, int v2id) {
+        Optional<Edge> edge = graph.getEdge(v1id, v2id);
+        if (edge.isEmpty()) {
+            throw new IllegalStateException("Logged edge does not exist: " + v1id + " " + v2id);
+        }
+        return edge.get();
+    }
+
+    private FileChannel openLog(long generation) throws IOException {
+        FileChannel channel = FileChannel.open(logPath(generation), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        // Drop a partially written trailing record left by a crash
+        channel.truncate(channel.size() - channel.size() % RECORD_SIZE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve("snapshot-" + generation + ".bin");
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve("log-" + generation + ".bin");
+    }
+
+    private static long latestSnapshot(Path directory) throws IOException {
+        return latestGeneration(directory, "snapshot-");
+    }
+
+    private static long latestLog(Path directory) throws IOException {
+        return Math.max(0, latestGeneration(directory, "log-"));
+    }
+
+    private static long latestGeneration(Path directory, String prefix) throws IOException {
+        long latest = -1;
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*.bin")) {
+            stream.forEach(files::add);
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            try {
+                latest = Math.max(latest, Long.parseLong(name.substring(prefix.length(), name.length() - ".bin".length())));
+            } catch (NumberFormatException ex) {
+                // Not a file of the log
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Stops the background compaction and closes the log
+     * @throws IOException
+     *      Thrown if the log could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        compactor.shutdown();
+        log.close();
+    }
+
+    /**
+     * Records of a graph captured by {@link #rotate(Graph)}
+     */
+    public static final class Snapshot {
+        private final long generation;
+        private final List<ByteBuffer> chunks;
+
+        Snapshot(long generation, List<ByteBuffer> chunks) {
+            this.generation = generation;
+            this.chunks = chunks;
+        }
+
+        /**
+         * @return long - size of the snapshot in bytes
+         */
+        public long getBytes() {
+            long bytes = 0;
+            for (ByteBuffer chunk : chunks) {
+                bytes += chunk.limit();
+            }
+            return bytes;
+        }
+
+        /**
+         * @return long - generation that starts with this snapshot
+         */
+        public long getGeneration() {
+            return generation;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded least-recently-used cache of path query results.
+ * Entries are keyed by (graph id, graph version, algorithm, source, target), so a result computed before a change of
+ *  the graph, or on another graph, is never served for it. Once a newer version or another graph is seen the other
+ *  entries are dropped at once, since they are unlikely to be hit again.
+ * A result is only stored if the version did not change while it was computed. Failed queries are not cached.
+ */
+public class PathCache {
+    public enum Algorithm {SHORTEST, LOWEST_COST, HIGHEST_COST}
+
+    private final int capacity;
+    private final LinkedHashMap<Key, List<Vertex>> entries;
+    private long currentGraph = -1;
+    private long currentVersion = Long.MIN_VALUE;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param capacity - int - maximum number of cached paths
+     */
+    public PathCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalStateException("Cache capacity must be positive!");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, List<Vertex>> eldest) {
+                if (size() > PathCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached path of a query, computing and caching it on a miss
+     * @param graph - long - identity of the queried graph
+     * @param version - supplies the current version of the graph
+     * @param algorithm - Algorithm that answers the query
+     * @param source - id of the starting Vertex
+     * @param target - id of the final Vertex
+     * @param compute - answers the query on a miss
+     * @return List<Vertex> - unmodifiable path
+     * @throws IllegalStateException
+     *      Thrown by {@code compute}, in which case nothing is cached
+     */
+    public List<Vertex> get(long graph, LongSupplier version, Algorithm algorithm, int source, int target,
+                            Supplier<List<Vertex>> compute) throws IllegalStateException {
+        long before = version.getAsLong();
+        Key key = new Key(graph, before, algorithm, source, target);
+        synchronized (this) {
+            if (graph != currentGraph || before > currentVersion) {
+                invalidations += entries.size();
+                entries.clear();
+                currentGraph = graph;
+                currentVersion = before;
+            }
+            List<Vertex> path = entries.get(key);
+            if (path != null) {
+                hits++;
+                return path;
+            }
+            misses++;
+        }
+
+        // Computed outside the lock so that concurrent queries do not wait for each other
+        List<Vertex> path = Collections.unmodifiableList(compute.get());
+        synchronized (this) {
+            if (version.getAsLong() == before && graph == currentGraph && before == currentVersion) {
+                entries.put(key, path);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Drops every entry, e.g. when the cached graph is replaced by another one
+     */
+    public synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+        currentGraph = -1;
+        currentVersion = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return int - number of cached paths
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return int - maximum number of cached paths
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return long - number of queries answered from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return long - number of queries that had to be computed
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return long - number of entries dropped to stay within the capacity
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return long - number of entries dropped because the graph changed or was replaced
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PathCache{Size=" + entries.size() + ", Capacity=" + capacity + ", Hits=" + hits + ", Misses=" + misses
+                + ", Evictions=" + evictions + ", Invalidations=" + invalidations + "}";
+    }
+
+    private static final class Key {
+        private final long graph;
+        private final long version;
+        private final Algorithm algorithm;
+        private final int source;
+        private final int target;
+
+        Key(long graph, long version, Algorithm algorithm, int source, int target) {
+            this.graph = graph;
+            this.version = version;
+            this.algorithm = algorithm;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return graph == other.graph && version == other.version && algorithm == other.algorithm && source == other.source && target == other.target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(graph, version, algorithm, source, target);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+import java.util.Arrays;
+
+/**
+ * Answers repeated lowest cost path queries between 2 vertices of a read-only GraphView.
+ * Searches:
+ *      dijkstra - plain forward Dijkstra that stops once the end vertex is settled
+ *      bidirectional - forward search from the start and backward search from the end, advancing the smaller queue,
+ *          until the sum of both minimum keys reaches the best meeting cost found
+ *      alt - A* whose lower bounds come from landmarks (A*, Landmarks, Triangle inequality): for every landmark L,
+ *          d(v,t) >= d(L,t) - d(L,v) and d(v,t) >= d(v,L) - d(t,L)
+ * Landmarks are chosen once by {@link #selectLandmarks(int)}, each new one being the vertex farthest from those already chosen.
+ * The working arrays are kept between queries and only the touched entries are reset, so a query costs
+ *  in proportion to the vertices it visits; queries on the same object are therefore serialized.
+ */
+public class PointToPointQuery {
+    private static final long INFINITY = Long.MAX_VALUE;
+
+    private final GraphView graph;
+    private final long[] distForward;
+    private final long[] distBackward;
+    private final int[] parentForward;
+    private final int[] parentBackward;
+    private final IndexedHeap heapForward;
+    private final IndexedHeap heapBackward;
+    private int[] touched = new int[64];
+    private int noTouched;
+    private int[] landmarks = new int[0];
+    private long[][] fromLandmark = new long[0][];
+    private long[][] toLandmark = new long[0][];
+
+    /**
+     * @param graph - GraphView to be searched; weights must be non-negative
+     */
+    public PointToPointQuery(GraphView graph) {
+        int n = graph.getNoVertices();
+        this.graph = graph;
+        this.distForward = new long[n];
+        this.distBackward = new long[n];
+        this.parentForward = new int[n];
+        this.parentBackward = new int[n];
+        this.heapForward = new IndexedHeap(n);
+        this.heapBackward = new IndexedHeap(n);
+        Arrays.fill(distForward, INFINITY);
+        Arrays.fill(distBackward, INFINITY);
+    }
+
+    /**
+     * Chooses the landmarks used by {@link #alt(int, int)} and computes the distances to and from each of them.
+     * The first landmark is the vertex farthest from vertex index 0; every next one maximizes the distance
+     *  to the closest landmark already chosen, vertices no landmark reaches being preferred.
+     * @param count - int - number of landmarks
+     */
+    public synchronized void selectLandmarks(int count) {
+        int n = graph.getNoVertices();
+        count = Math.min(count, n);
+        DijkstraEngine engine = new DijkstraEngine(graph);
+        landmarks = new int[count];
+        fromLandmark = new long[count][];
+        toLandmark = new long[count][];
+        if (count == 0) {
+            return;
+        }
+
+        long[] closest = new long[n];
+        ShortestPathTree initial = engine.run(0, DijkstraEngine.Direction.FORWARD);
+        for (int v = 0; v < n; v++) {
+            closest[v] = initial.getDistance(v);
+        }
+        for (int k = 0; k < count; k++) {
+            int landmark = 0;
+            for (int v = 1; v < n; v++) {
+                if (closest[v] > closest[landmark]) {
+                    landmark = v;
+                }
+            }
+            landmarks[k] = landmark;
+            fromLandmark[k] = distances(engine.run(landmark, DijkstraEngine.Direction.FORWARD));
+            toLandmark[k] = distances(engine.run(landmark, DijkstraEngine.Direction.BACKWARD));
+            if (k == 0) {
+                Arrays.fill(closest, INFINITY);
+            }
+            for (int v = 0; v < n; v++) {
+                closest[v] = Math.min(closest[v], fromLandmark[k][v]);
+            }
+            closest[landmark] = -1;
+        }
+    }
+
+    private long[] distances(ShortestPathTree tree) {
+        long[] dist = new long[graph.getNoVertices()];
+        for (int v = 0; v < dist.length; v++) {
+            dist[v] = tree.getDistance(v);
+        }
+        return dist;
+    }
+
+    /**
+     * @return int[] - IDs of the chosen landmarks
+     */
+    public int[] getLandmarks() {
+        int[] ids = new int[landmarks.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = graph.vertexId(landmarks[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Lowest cost path with a forward Dijkstra search, used as the baseline of the other searches
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return Result
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public synchronized Result dijkstra(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        try {
+            return aStar(start, end, false);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * Lowest cost path with an A* search guided by the landmark lower bounds.
+     * Without landmarks this is the same search as {@link #dijkstra(int, int)}.
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return Result
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public synchronized Result alt(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        try {
+            return aStar(start, end, true);
+        } finally {
+            reset();
+        }
+    }
+
+    private Result aStar(int start, int end, boolean useLandmarks) {
+        touch(start);
+        distForward[start] = 0;
+        parentForward[start] = -1;
+        heapForward.push(start, useLandmarks ? lowerBound(start, end) : 0);
+        int settled = 0;
+        int current;
+        while ((current = heapForward.pop()) != -1) {
+            settled++;
+            if (current == end) {
+                return new Result(trace(start, -1, end), distForward[end], settled);
+            }
+            long base = distForward[current];
+            for (int e = graph.outBegin(current); e < graph.outEnd(current); e++) {
+                int other = graph.outTarget(e);
+                long candidate = base + graph.outWeight(e);
+                if (candidate < distForward[other]) {
+                    if (distForward[other] == INFINITY && distBackward[other] == INFINITY) {
+                        touch(other);
+                    }
+                    distForward[other] = candidate;
+                    parentForward[other] = current;
+                    long bound = useLandmarks ? lowerBound(other, end) : 0;
+                    if (bound != INFINITY) {
+                        heapForward.push(other, candidate + bound);
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("No such path!");
+    }
+
+    /**
+     * Lowest cost path with a bidirectional Dijkstra search
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return Result
+     * @throws IllegalStateException
+     *      If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public synchronized Result bidirectional(int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = index(vertexStartID);
+        int end = index(vertexEndID);
+        try {
+            touch(start);
+            distForward[start] = 0;
+            parentForward[start] = -1;
+            heapForward.push(start, 0);
+            if (distBackward[end] == INFINITY && distForward[end] == INFINITY) {
+                touch(end);
+            }
+            distBackward[end] = 0;
+            parentBackward[end] = -1;
+            heapBackward.push(end, 0);
+
+            long best = start == end ? 0 : INFINITY;
+            int meeting = start == end ? start : -1;
+            int settled = 0;
+            while (!heapForward.isEmpty() && !heapBackward.isEmpty()
+                    && heapForward.minKey() + heapBackward.minKey() < best) {
+                boolean forward = heapForward.minKey() <= heapBackward.minKey();
+                IndexedHeap heap = forward ? heapForward : heapBackward;
+                long[] dist = forward ? distForward : distBackward;
+                long[] otherDist = forward ? distBackward : distForward;
+                int[] parent = forward ? parentForward : parentBackward;
+
+                int current = heap.pop();
+                settled++;
+                long base = dist[current];
+                int stop = forward ? graph.outEnd(current) : graph.inEnd(current);
+                for (int e = forward ? graph.outBegin(current) : graph.inBegin(current); e < stop; e++) {
+                    int other = forward ? graph.outTarget(e) : graph.inSource(e);
+                    long candidate = base + (forward ? graph.outWeight(e) : graph.inWeight(e));
+                    if (candidate < dist[other]) {
+                        if (dist[other] == INFINITY && otherDist[other] == INFINITY) {
+                            touch(other);
+                        }
+                        dist[other] = candidate;
+                        parent[other] = current;
+                        heap.push(other, candidate);
+                    }
+                    if (otherDist[other] != INFINITY && dist[other] + otherDist[other] < best) {
+                        best = dist[other] + otherDist[other];
+                        meeting = other;
+                    }
+                }
+            }
+
+            if (meeting == -1) {
+                throw new IllegalStateException("No such path!");
+            }
+            return new Result(trace(start, meeting, end), best, settled);
+        } finally {
+            reset();
+        }
+    }
+
+    /**
+     * @return long - largest landmark lower bound of the distance from v to end, INFINITY if end cannot be reached from v
+     */
+    private long lowerBound(int v, int end) {
+        long bound = 0;
+        for (int k = 0; k < landmarks.length; k++) {
+            long[] from = fromLandmark[k];
+            long[] to = toLandmark[k];
+            if (from[v] != INFINITY && from[end] != INFINITY) {
+                bound = Math.max(bound, from[end] - from[v]);
+            } else if (from[v] != INFINITY) {
+                // The landmark reaches v but not end, hence v cannot reach end
+                return INFINITY;
+            }
+            if (to[v] != INFINITY && to[end] != INFINITY) {
+                bound = Math.max(bound, to[v] - to[end]);
+            } else if (to[end] != INFINITY) {
+                // end reaches the landmark but v does not, hence v cannot reach end
+                return INFINITY;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Joins the forward parents from the meeting vertex back to start and the backward parents from it to end.
+     * A meeting vertex of -1 means the path is formed by the forward parents of end alone.
+     */
+    private int[] trace(int start, int meeting, int end) {
+        int middle = meeting == -1 ? end : meeting;
+        int length = 1;
+        for (int v = middle; v != start; v = parentForward[v]) {
+            length++;
+        }
+        int forwardLength = length;
+        if (meeting != -1) {
+            for (int v = middle; v != end; v = parentBackward[v]) {
+                length++;
+            }
+        }
+        int[] path = new int[length];
+        int v = middle;
+        for (int i = forwardLength - 1; i >= 0; i--) {
+            path[i] = graph.vertexId(v);
+            v = parentForward[v];
+        }
+        v = middle;
+        for (int i = forwardLength; i < length; i++) {
+            v = parentBackward[v];
+            path[i] = graph.vertexId(v);
+        }
+        return path;
+    }
+
+    private int index(int vid) {
+        int index = graph.indexOf(vid);
+        if (index == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return index;
+    }
+
+    private void touch(int v) {
+        if (noTouched == touched.length) {
+            touched = Arrays.copyOf(touched, noTouched * 2);
+        }
+        touched[noTouched++] = v;
+    }
+
+    private void reset() {
+        for (int i = 0; i < noTouched; i++) {
+            distForward[touched[i]] = INFINITY;
+            distBackward[touched[i]] = INFINITY;
+        }
+        noTouched = 0;
+        heapForward.clear();
+        heapBackward.clear();
+    }
+
+    /**
+     * Path found by a query, with its cost and the number of vertices the search settled
+     */
+    public static final class Result {
+        private final int[] path;
+        private final long distance;
+        private final int settled;
+
+        Result(int[] path, long distance, int settled) {
+            this.path = path;
+            this.distance = distance;
+            this.settled = settled;
+        }
+
+        /**
+         * @return int[] - ordered IDs of the vertices that form the lowest cost path
+         */
+        public int[] getPath() {
+            return path;
+        }
+
+        /**
+         * @return long - cost of the path
+         */
+        public long getDistance() {
+            return distance;
+        }
+
+        /**
+         * @return int - number of vertices settled by the search
+         */
+        public int getSettled() {
+            return settled;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{Distance=" + distance + ", Settled=" + settled + ", Path=" + Arrays.toString(path) + "}";
+        }
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Index that answers "does u reach v" for a read-only GraphView, built on the condensation of its strongly connected
+ *  components, so two vertices of the same component reach each other and the rest is a DAG.
+ * The components are numbered in a topological order, so a component only reaches components with higher numbers.
+ *  On top of that every component keeps:
+ *      - the pre-order interval of its subtree in a depth-first spanning tree; a descendant in the tree is reached
+ *      - GRAIL interval labels, one per randomized depth-first traversal: [lowest post-order rank below it, its own
+ *          post-order rank]. A component that reaches another contains its interval in every label, so a label
+ *          that does not contain the other interval proves that it is not reached
+ * Most queries are answered by these O(1) tests; the rest fall back to a depth-first search of the condensation that
+ *  only enters components whose labels can still contain the target.
+ * More labels take more memory and build time, and leave fewer queries to the search.
+ */
+public class ReachabilityIndex {
+    public static final int DEFAULT_NO_LABELS = 3;
+
+    private final int[] componentOf;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int noLabels;
+    private final int[] low;
+    private final int[] high;
+    private final int[] treeBegin;
+    private final int[] treeEnd;
+    private final ThreadLocal<Scratch> scratch;
+    private final Statistics statistics;
+
+    /**
+     * Builds an index with {@link #DEFAULT_NO_LABELS} labels
+     * @param graph - GraphView to be indexed
+     */
+    public ReachabilityIndex(GraphView graph) {
+        this(graph, DEFAULT_NO_LABELS, 0);
+    }
+
+    /**
+     * @param graph - GraphView to be indexed
+     * @param noLabels - int - number of interval labels per component, at least 1
+     * @param seed - long - seed of the randomized traversals
+     */
+    public ReachabilityIndex(GraphView graph, int noLabels, long seed) {
+        long startTime = System.nanoTime();
+        StronglyConnectedComponents.Result components = new StronglyConnectedComponents(graph).tarjan();
+        int n = graph.getNoVertices();
+        int k = components.getNoComponents();
+        this.componentOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            componentOf[v] = components.getComponentOf(v);
+        }
+
+        // The condensation edges come grouped by source component
+        EdgeList edges = components.getCondensationEdges();
+        this.offsets = new int[k + 1];
+        this.targets = new int[edges.size()];
+        for (int i = 0; i < edges.size(); i++) {
+            offsets[edges.source(i) + 1]++;
+            targets[i] = edges.target(i);
+        }
+        for (int c = 0; c < k; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+
+        this.noLabels = Math.max(1, noLabels);
+        this.low = new int[k * this.noLabels];
+        this.high = new int[k * this.noLabels];
+        this.treeBegin = new int[k];
+        this.treeEnd = new int[k];
+        Random random = new Random(seed);
+        for (int label = 0; label < this.noLabels; label++) {
+            traverse(label, random, label == 0);
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(k));
+        long bytes = 4L * (componentOf.length + offsets.length + targets.length + low.length + high.length
+                + treeBegin.length + treeEnd.length);
+        this.statistics = new Statistics(n, k, targets.length, this.noLabels, bytes, System.nanoTime() - startTime);
+    }
+
+    /**
+     * One depth-first traversal of the condensation from the components in random order, visiting the successors of
+     *  a component from a random offset. Assigns one GRAIL label, and the spanning tree intervals if asked to.
+     */
+    private void traverse(int label, Random random, boolean spanningTree) {
+        int k = offsets.length - 1;
+        int[] roots = new int[k];
+        for (int c = 0; c < k; c++) {
+            roots[c] = c;
+        }
+        for (int i = k - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = roots[i];
+            roots[i] = roots[j];
+            roots[j] = t;
+        }
+        int[] start = new int[k];
+        int[] step = new int[k];
+        int[] stack = new int[k];
+        boolean[] visited = new boolean[k];
+        int rank = 0;
+        int preorder = 0;
+        for (int root : roots) {
+            if (visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            stack[depth++] = root;
+            visited[root] = true;
+            enter(root, random, start, step, label);
+            if (spanningTree) {
+                treeBegin[root] = preorder++;
+            }
+            while (depth > 0) {
+                int c = stack[depth - 1];
+                int degree = offsets[c + 1] - offsets[c];
+                if (step[c] < degree) {
+                    int d = targets[offsets[c] + (start[c] + step[c]++) % degree];
+                    if (!visited[d]) {
+                        visited[d] = true;
+                        enter(d, random, start, step, label);
+                        if (spanningTree) {
+                            treeBegin[d] = preorder++;
+                        }
+                        stack[depth++] = d;
+                    } else {
+                        low[c * noLabels + label] = Math.min(low[c * noLabels + label], low[d * noLabels + label]);
+                    }
+                    continue;
+                }
+
+                // Every successor is done
+                depth--;
+                high[c * noLabels + label] = rank;
+                low[c * noLabels + label] = Math.min(low[c * noLabels + label], rank);
+                rank++;
+                if (spanningTree) {
+                    treeEnd[c] = preorder;
+                }
+                if (depth > 0) {
+                    int parent = stack[depth - 1];
+                    low[parent * noLabels + label] = Math.min(low[parent * noLabels + label], low[c * noLabels + label]);
+                }
+            }
+        }
+    }
+
+    private void enter(int c, Random random, int[] start, int[] step, int label) {
+        int degree = offsets[c + 1] - offsets[c];
+        start[c] = degree == 0 ? 0 : random.nextInt(degree);
+        step[c] = 0;
+        low[c * noLabels + label] = Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return boolean - true if every label of component c contains the label of component d
+     */
+    private boolean contains(int c, int d) {
+        int i = c * noLabels;
+        int j = d * noLabels;
+        for (int label = 0; label < noLabels; label++, i++, j++) {
+            if (low[j] < low[i] || high[j] > high[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean inTree(int c, int d) {
+        return treeBegin[c] <= treeBegin[d] && treeBegin[d] < treeEnd[c];
+    }
+
+    /**
+     * Can be called from many threads at once
+     * @param from - index of a vertex
+     * @param to - index of a vertex
+     * @return boolean - true if there is a path from the first vertex to the second
+     */
+    public boolean reachable(int from, int to) {
+        int c = componentOf[from];
+        int d = componentOf[to];
+        if (c == d) {
+            return true;
+        }
+        if (c > d || !contains(c, d)) {
+            return false;
+        }
+        if (inTree(c, d)) {
+            return true;
+        }
+
+        Scratch s = scratch.get();
+        int mark = s.nextMark();
+        int depth = 0;
+        s.stack[depth++] = c;
+        s.mark[c] = mark;
+        while (depth > 0) {
+            int u = s.stack[--depth];
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int w = targets[e];
+                if (w == d || (w < d && inTree(w, d))) {
+                    return true;
+                }
+                if (w < d && s.mark[w] != mark && contains(w, d)) {
+                    s.mark[w] = mark;
+                    s.stack[depth++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param index - index of a vertex
+     * @return int - number of the strongly connected component of the vertex, in a topological order of the condensation
+     */
+    public int getComponentOf(int index) {
+        return componentOf[index];
+    }
+
+    /**
+     * @return Statistics of the build
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Search state of one thread
+     */
+    private static final class Scratch {
+        private final int[] stack;
+        private final int[] mark;
+        private int current;
+
+        Scratch(int k) {
+            this.stack = new int[k];
+            this.mark = new int[k];
+        }
+
+        int nextMark() {
+            if (++current == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                current = 1;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Size and build time of an index
+     */
+    public static final class Statistics {
+        private final int vertices;
+        private final int components;
+        private final int edges;
+        private final int labels;
+        private final long bytes;
+        private final long nanos;
+
+        Statistics(int vertices, int components, int edges, int labels, long bytes, long nanos) {
+            this.vertices = vertices;
+            this.components = components;
+            this.edges = edges;
+            this.labels = labels;
+            this.bytes = bytes;
+            this.nanos = Math.max(1, nanos);
+        }
+
+        /**
+         * @return int - number of vertices of the graph
+         */
+        public int getVertices() {
+            return vertices;
+        }
+
+        /**
+         * @return int - number of strongly connected components, i.e. vertices of the condensation
+         */
+        public int getComponents() {
+            return components;
+        }
+
+        /**
+         * @return int - number of edges of the condensation
+         */
+        public int getEdges() {
+            return edges;
+        }
+
+        /**
+         * @return int - number of interval labels per component
+         */
+        public int getLabels() {
+            return labels;
+        }
+
+        /**
+         * @return long - size of the arrays of the index in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return double - time taken to build the index in milliseconds
+         */
+        public double getMillis() {
+            return nanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "ReachabilityIndex{Vertices=%d, Components=%d, Edges=%d, Labels=%d, Size=%.1fKB, Time=%.1fms}",
+                    vertices, components, edges, labels, bytes / 1024.0, getMillis());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Result of a single-source Dijkstra search over a GraphView, kept in primitive arrays indexed by vertex index.
+ * For a forward search the parent of a vertex is its predecessor on the path from the root;
+ *  for a backward search it is the next vertex on the path towards the root.
+ */
+public class ShortestPathTree {
+    public static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final GraphView graph;
+    private final int root;
+    private final boolean backward;
+    private final long[] dist;
+    private final int[] parent;
+    private final int settled;
+
+    ShortestPathTree(GraphView graph, int root, boolean backward, long[] dist, int[] parent, int settled) {
+        this.graph = graph;
+        this.root = root;
+        this.backward = backward;
+        this.dist = dist;
+        this.parent = parent;
+        this.settled = settled;
+    }
+
+    /**
+     * @return int - index of the vertex the search started from
+     */
+    public int getRoot() {
+        return root;
+    }
+
+    /**
+     * @return boolean - true if the search followed the inbound edges
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * @return int - number of vertices removed from the queue
+     */
+    public int getSettled() {
+        return settled;
+    }
+
+    /**
+     * @param index - index of a vertex
+     * @return long - distance between the root and the vertex, or {@link #UNREACHABLE}
+     */
+    public long getDistance(int index) {
+        return dist[index];
+    }
+
+    /**
+     * @param index - index of a vertex
+     * @return int - index of the parent of the vertex, -1 for the root and unreached vertices
+     */
+    public int getParent(int index) {
+        return parent[index];
+    }
+
+    /**
+     * @param index - index of a vertex
+     * @return boolean - true if the search reached the vertex
+     */
+    public boolean reaches(int index) {
+        return dist[index] != UNREACHABLE;
+    }
+
+    /**
+     * Builds the path between the root and a vertex in O(path length).
+     * The path always follows the direction of the edges: root to vertex for a forward search,
+     *  vertex to root for a backward search.
+     * @param index - index of a vertex
+     * @return int[] - ordered IDs of the vertices of the path
+     * @throws IllegalStateException
+     *      If the search did not reach the vertex
+     */
+    public int[] pathTo(int index) throws IllegalStateException {
+        if (!reaches(index)) {
+            throw new IllegalStateException("No such path!");
+        }
+        int length = 1;
+        for (int v = index; v != root; v = parent[v]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int v = index;
+        for (int i = 0; i < length; i++) {
+            path[backward ? i : length - 1 - i] = graph.vertexId(v);
+            v = parent[v];
+        }
+        return path;
+    }
+}
@@ -0,0 +1,425 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strongly connected components of a read-only GraphView.
+ * {@link #tarjan()} is Tarjan's algorithm with explicit stacks instead of recursion, so the depth of the graph is
+ *  only limited by the heap; its components are numbered in a topological order of the condensation.
+ * {@link #forwardBackward()} is the forward-backward algorithm for large graphs:
+ *      - vertices without inbound or outbound edges among the remaining vertices are trimmed first, each being a
+ *          component of its own
+ *      - the vertices reached both forward and backward from a pivot form its component; the vertices reached only
+ *          forward, only backward, or not at all are three independent subproblems, solved in parallel
+ *      - subproblems of at most {@link #SEQUENTIAL_THRESHOLD} vertices are solved by Tarjan's algorithm
+ *  Its components are numbered in no particular order.
+ * Every subproblem owns the vertices of one color, so the tasks share the per-vertex arrays without locking.
+ */
+public class StronglyConnectedComponents {
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 12;
+    private static final int DONE = -1;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine that runs in the common ForkJoinPool
+     * @param graph - GraphView to be decomposed
+     */
+    public StronglyConnectedComponents(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be decomposed
+     * @param pool - ForkJoinPool that runs the forward-backward subproblems
+     */
+    public StronglyConnectedComponents(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @return Result - the components, numbered in a topological order of the condensation
+     */
+    public Result tarjan() {
+        int n = graph.getNoVertices();
+        Search search = new Search(n);
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++) {
+            all[v] = v;
+        }
+        search.tarjan(all, 0);
+
+        // Tarjan completes a component only after every component it reaches, so the numbers are reversed
+        int k = search.counter.get();
+        for (int v = 0; v < n; v++) {
+            search.componentOf[v] = k - 1 - search.componentOf[v];
+        }
+        return new Result(graph, search.componentOf, k);
+    }
+
+    /**
+     * @return Result - the components, numbered in no particular order
+     */
+    public Result forwardBackward() {
+        int n = graph.getNoVertices();
+        Search search = new Search(n);
+        int[] remaining = search.trim();
+        if (remaining.length > 0) {
+            pool.invoke(new ForwardBackwardTask(search, remaining, 0));
+        }
+        return new Result(graph, search.componentOf, search.counter.get());
+    }
+
+    /**
+     * Per-vertex state of one decomposition
+     */
+    private final class Search {
+        private final int[] componentOf;
+        private final int[] color;
+        private final int[] index;
+        private final int[] low;
+        private final int[] edgePosition;
+        private final boolean[] onStack;
+        private final AtomicInteger counter = new AtomicInteger();
+        private final AtomicInteger colors = new AtomicInteger();
+
+        Search(int n) {
+            componentOf = new int[n];
+            color = new int[n];
+            index = new int[n];
+            low = new int[n];
+            edgePosition = new int[n];
+            onStack = new boolean[n];
+            Arrays.fill(index, -1);
+        }
+
+        /**
+         * Removes the vertices that have no inbound or no outbound edge among the remaining vertices, repeatedly
+         * @return int[] - the vertices that are left, all of color 0
+         */
+        int[] trim() {
+            int n = componentOf.length;
+            int[] inLive = new int[n];
+            int[] outLive = new int[n];
+            int[] queue = new int[n];
+            int tail = 0;
+            for (int v = 0; v < n; v++) {
+                inLive[v] = graph.getInDegree(v);
+                outLive[v] = graph.getOutDegree(v);
+                if (inLive[v] == 0 || outLive[v] == 0) {
+                    color[v] = DONE;
+                    queue[tail++] = v;
+                }
+            }
+            for (int head = 0; head < tail; head++) {
+                int v = queue[head];
+                componentOf[v] = counter.getAndIncrement();
+                for (int e = graph.outBegin(v); e < graph.outEnd(v); e++) {
+                    int w = graph.outTarget(e);
+                    if (--inLive[w] == 0 && color[w] != DONE) {
+                        color[w] = DONE;
+                        queue[tail++] = w;
+                    }
+                }
+                for (int e = graph.inBegin(v); e < graph.inEnd(v); e++) {
+                    int w = graph.inSource(e);
+                    if (--outLive[w] == 0 && color[w] != DONE) {
+                        color[w] = DONE;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+
+            int[] remaining = new int[n - tail];
+            int count = 0;
+            for (int v = 0; v < n; v++) {
+                if (color[v] != DONE) {
+                    remaining[count++] = v;
+                }
+            }
+            return remaining;
+        }
+
+        /**
+         * Tarjan's algorithm over the given vertices, which all have color c, following only edges between them
+         */
+        void tarjan(int[] vertices, int c) {
+            int[] callStack = new int[vertices.length];
+            int[] componentStack = new int[vertices.length];
+            int calls = 0;
+            int components = 0;
+            int next = 0;
+            for (int root : vertices) {
+                if (index[root] != -1) {
+                    continue;
+                }
+                index[root] = low[root] = next++;
+                edgePosition[root] = graph.outBegin(root);
+                componentStack[components++] = root;
+                onStack[root] = true;
+                callStack[calls++] = root;
+
+                while (calls > 0) {
+                    int v = callStack[calls - 1];
+                    if (edgePosition[v] < graph.outEnd(v)) {
+                        int w = graph.outTarget(edgePosition[v]++);
+                        if (color[w] != c) {
+                            continue;
+                        }
+                        if (index[w] == -1) {
+                            index[w] = low[w] = next++;
+                            edgePosition[w] = graph.outBegin(w);
+                            componentStack[components++] = w;
+                            onStack[w] = true;
+                            callStack[calls++] = w;
+                        } else if (onStack[w]) {
+                            low[v] = Math.min(low[v], index[w]);
+                        }
+                        continue;
+                    }
+
+                    calls--;
+                    if (calls > 0) {
+                        int u = callStack[calls - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                    if (low[v] == index[v]) {
+                        int id = counter.getAndIncrement();
+                        int w;
+                        do {
+                            w = componentStack[--components];
+                            onStack[w] = false;
+                            componentOf[w] = id;
+                            color[w] = DONE;
+                        } while (w != v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the subproblem of the vertices of one color; the unreached part is solved in the same task
+     */
+    private final class ForwardBackwardTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final int[] vertices;
+        private final int c;
+
+        ForwardBackwardTask(Search search, int[] vertices, int c) {
+            this.search = search;
+            this.vertices = vertices;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            int[] color = search.color;
+            List<ForwardBackwardTask> forked = new ArrayList<>();
+            int[] current = vertices;
+            int[] queue = new int[current.length];
+            while (current.length > 0) {
+                if (current.length <= SEQUENTIAL_THRESHOLD) {
+                    search.tarjan(current, c);
+                    break;
+                }
+                int forward = search.colors.incrementAndGet();
+                int backward = search.colors.incrementAndGet();
+
+                int pivot = current[0];
+                int head = 0, tail = 0;
+                color[pivot] = forward;
+                queue[tail++] = pivot;
+                while (head < tail) {
+                    int u = queue[head++];
+                    for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                        int w = graph.outTarget(e);
+                        if (color[w] == c) {
+                            color[w] = forward;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                // Reached both ways: the component of the pivot
+                int id = search.counter.getAndIncrement();
+                head = 0;
+                tail = 0;
+                color[pivot] = DONE;
+                search.componentOf[pivot] = id;
+                queue[tail++] = pivot;
+                while (head < tail) {
+                    int u = queue[head++];
+                    for (int e = graph.inBegin(u); e < graph.inEnd(u); e++) {
+                        int w = graph.inSource(e);
+                        if (color[w] == forward) {
+                            color[w] = DONE;
+                            search.componentOf[w] = id;
+                            queue[tail++] = w;
+                        } else if (color[w] == c) {
+                            color[w] = backward;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+
+                int[] forwardOnly = collect(current, forward);
+                int[] backwardOnly = collect(current, backward);
+                current = collect(current, c);
+                if (forwardOnly.length > 0) {
+                    forked.add(fork(new ForwardBackwardTask(search, forwardOnly, forward)));
+                }
+                if (backwardOnly.length > 0) {
+                    forked.add(fork(new ForwardBackwardTask(search, backwardOnly, backward)));
+                }
+            }
+            for (ForwardBackwardTask task : forked) {
+                task.join();
+            }
+        }
+
+        private ForwardBackwardTask fork(ForwardBackwardTask task) {
+            task.fork();
+            return task;
+        }
+
+        private int[] collect(int[] from, int wanted) {
+            int count = 0;
+            for (int v : from) {
+                if (search.color[v] == wanted) {
+                    count++;
+                }
+            }
+            int[] result = new int[count];
+            count = 0;
+            for (int v : from) {
+                if (search.color[v] == wanted) {
+                    result[count++] = v;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Components of a decomposition
+     */
+    public static final class Result {
+        private final GraphView graph;
+        private final int[] componentOf;
+        private final int noComponents;
+        private final int[] start;
+        private final int[] members;
+
+        Result(GraphView graph, int[] componentOf, int noComponents) {
+            this.graph = graph;
+            this.componentOf = componentOf;
+            this.noComponents = noComponents;
+
+            // Counting sort of the vertices by component
+            this.start = new int[noComponents + 1];
+            for (int c : componentOf) {
+                start[c + 1]++;
+            }
+            for (int c = 0; c < noComponents; c++) {
+                start[c + 1] += start[c];
+            }
+            this.members = new int[componentOf.length];
+            int[] fill = Arrays.copyOf(start, noComponents);
+            for (int v = 0; v < componentOf.length; v++) {
+                members[fill[componentOf[v]]++] = v;
+            }
+        }
+
+        /**
+         * @return int - number of strongly connected components
+         */
+        public int getNoComponents() {
+            return noComponents;
+        }
+
+        /**
+         * @param index - index of a vertex
+         * @return int - number 0..getNoComponents()-1 of the component of the vertex
+         */
+        public int getComponentOf(int index) {
+            return componentOf[index];
+        }
+
+        /**
+         * @param component - int - number of a component
+         * @return int - number of vertices of the component
+         */
+        public int getSize(int component) {
+            return start[component + 1] - start[component];
+        }
+
+        /**
+         * @param component - int - number of a component
+         * @return int[] - IDs of the vertices of the component, in index order
+         */
+        public int[] getComponentIds(int component) {
+            int[] ids = new int[getSize(component)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = graph.vertexId(members[start[component] + i]);
+            }
+            return ids;
+        }
+
+        /**
+         * Edges of the condensation, where every component is contracted into the vertex with its number.
+         * The edges inside a component are dropped, and the edges between two components are merged into one edge
+         *  with the largest of their weights.
+         * @return EdgeList - a DAG over the vertices 0..getNoComponents()-1
+         */
+        public EdgeList getCondensationEdges() {
+            EdgeList edges = new EdgeList(noComponents);
+            int[] seenFrom = new int[noComponents];
+            int[] weight = new int[noComponents];
+            int[] targets = new int[noComponents];
+            Arrays.fill(seenFrom, -1);
+            for (int c = 0; c < noComponents; c++) {
+                int count = 0;
+                for (int i = start[c]; i < start[c + 1]; i++) {
+                    int u = members[i];
+                    for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                        int d = componentOf[graph.outTarget(e)];
+                        if (d == c) {
+                            continue;
+                        }
+                        if (seenFrom[d] != c) {
+                            seenFrom[d] = c;
+                            weight[d] = graph.outWeight(e);
+                            targets[count++] = d;
+                        } else {
+                            weight[d] = Math.max(weight[d], graph.outWeight(e));
+                        }
+                    }
+                }
+                for (int i = 0; i < count; i++) {
+                    edges.add(c, targets[i], weight[targets[i]]);
+                }
+            }
+            return edges;
+        }
+
+        /**
+         * @return Graph - the condensation as a Graph, on which the DAG algorithms of {@link Graph} can run
+         */
+        public Graph condensation() {
+            return getCondensationEdges().toGraph();
+        }
+
+        @Override
+        public String toString() {
+            return "StronglyConnectedComponents{Components=" + noComponents + "}";
+        }
+    }
+}
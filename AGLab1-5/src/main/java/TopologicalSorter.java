@@ -0,0 +1,193 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Topological sorting of a read-only GraphView with Kahn's algorithm on primitive arrays, one level at a time.
+ * Level 0 holds the vertices without inbound edges and level k the vertices whose last predecessor is in level k-1,
+ *  so the vertices of a level do not depend on each other and can be processed concurrently.
+ * The sequential mode gives the order of a FIFO Kahn's algorithm. The parallel mode processes the large levels in
+ *  parallel, decrementing the inbound counts atomically; the order within a level is then unspecified.
+ */
+public class TopologicalSorter {
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private final GraphView graph;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a sorter that runs in the common ForkJoinPool
+     * @param graph - GraphView to be sorted
+     */
+    public TopologicalSorter(GraphView graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param graph - GraphView to be sorted
+     * @param pool - ForkJoinPool that runs the parallel levels
+     */
+    public TopologicalSorter(GraphView graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    /**
+     * @return Result - the topological order and its levels
+     * @throws IllegalStateException
+     *      If the graph has a cycle
+     */
+    public Result sort() throws IllegalStateException {
+        int n = graph.getNoVertices();
+        int[] inCount = new int[n];
+        int[] order = new int[n];
+        int[] levelOffsets = new int[n + 1];
+        int noLevels = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            inCount[v] = graph.getInDegree(v);
+            if (inCount[v] == 0) {
+                order[tail++] = v;
+            }
+        }
+
+        int head = 0;
+        while (head < tail) {
+            levelOffsets[++noLevels] = tail;
+            int levelEnd = tail;
+            for (; head < levelEnd; head++) {
+                int current = order[head];
+                for (int e = graph.outBegin(current); e < graph.outEnd(current); e++) {
+                    int v = graph.outTarget(e);
+                    if (--inCount[v] == 0) {
+                        order[tail++] = v;
+                    }
+                }
+            }
+        }
+        return result(order, tail, levelOffsets, noLevels);
+    }
+
+    /**
+     * @return Result - the topological order and its levels, with the large levels processed in parallel
+     * @throws IllegalStateException
+     *      If the graph has a cycle
+     */
+    public Result sortParallel() throws IllegalStateException {
+        int n = graph.getNoVertices();
+        AtomicIntegerArray inCount = new AtomicIntegerArray(n);
+        int[] order = new int[n];
+        int[] levelOffsets = new int[n + 1];
+        int noLevels = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++) {
+            int degree = graph.getInDegree(v);
+            inCount.set(v, degree);
+            if (degree == 0) {
+                order[tail++] = v;
+            }
+        }
+
+        int head = 0;
+        while (head < tail) {
+            levelOffsets[++noLevels] = tail;
+            int begin = head;
+            int end = tail;
+            IntStream level = IntStream.range(begin, end).map(i -> order[i])
+                    .flatMap(u -> IntStream.range(graph.outBegin(u), graph.outEnd(u)))
+                    .map(graph::outTarget)
+                    .filter(v -> inCount.decrementAndGet(v) == 0);
+            int[] next = end - begin < PARALLEL_THRESHOLD
+                    ? level.toArray()
+                    : pool.submit(() -> level.parallel().toArray()).join();
+            System.arraycopy(next, 0, order, tail, next.length);
+            head = end;
+            tail += next.length;
+        }
+        return result(order, tail, levelOffsets, noLevels);
+    }
+
+    private Result result(int[] order, int sorted, int[] levelOffsets, int noLevels) {
+        if (sorted != order.length) {
+            throw new IllegalStateException("TopologicalSort could not reach all vertices!");
+        }
+        return new Result(graph, order, Arrays.copyOf(levelOffsets, noLevels + 1));
+    }
+
+    /**
+     * Topological order of the vertices, grouped by level
+     */
+    public static final class Result {
+        private final GraphView graph;
+        private final int[] order;
+        private final int[] levelOffsets;
+
+        Result(GraphView graph, int[] order, int[] levelOffsets) {
+            this.graph = graph;
+            this.order = order;
+            this.levelOffsets = levelOffsets;
+        }
+
+        /**
+         * @return int[] - indices of the vertices in topological order; the levels are contiguous and ascending
+         */
+        public int[] getOrder() {
+            return order;
+        }
+
+        /**
+         * @return int[] - IDs of the vertices in topological order
+         */
+        public int[] getOrderIds() {
+            return toIds(0, order.length);
+        }
+
+        /**
+         * @return int - number of levels, i.e. the number of vertices on the longest path
+         */
+        public int getNoLevels() {
+            return levelOffsets.length - 1;
+        }
+
+        /**
+         * @param level - int - from 0 to {@link #getNoLevels()} - 1
+         * @return int[] - indices of the vertices of the level
+         */
+        public int[] getLevel(int level) {
+            return Arrays.copyOfRange(order, levelOffsets[level], levelOffsets[level + 1]);
+        }
+
+        /**
+         * @param level - int - from 0 to {@link #getNoLevels()} - 1
+         * @return int[] - IDs of the vertices of the level
+         */
+        public int[] getLevelIds(int level) {
+            return toIds(levelOffsets[level], levelOffsets[level + 1]);
+        }
+
+        /**
+         * @return int[][] - IDs of the vertices of every level
+         */
+        public int[][] getLevelsIds() {
+            int[][] levels = new int[getNoLevels()][];
+            for (int level = 0; level < levels.length; level++) {
+                levels[level] = getLevelIds(level);
+            }
+            return levels;
+        }
+
+        private int[] toIds(int from, int to) {
+            int[] ids = new int[to - from];
+            for (int i = from; i < to; i++) {
+                ids[i - from] = graph.vertexId(order[i]);
+            }
+            return ids;
+        }
+
+        @Override
+        public String toString() {
+            return "TopologicalOrder{Vertices=" + order.length + ", Levels=" + getNoLevels() + "}";
+        }
+    }
+}
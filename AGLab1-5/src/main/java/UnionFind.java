@@ -0,0 +1,102 @@
+/**
+ * Disjoint sets over the elements 0..n-1, with union by rank and path compression, backed by int arrays.
+ * A sequence of m operations takes O(m * alpha(n)) time.
+ */
+public class UnionFind {
+    private final int[] parent;
+    private final byte[] rank;
+    private int noComponents;
+
+    /**
+     * Creates n singleton sets
+     * @param n - int - number of elements
+     */
+    public UnionFind(int n) {
+        this.parent = new int[n];
+        this.rank = new byte[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        this.noComponents = n;
+    }
+
+    /**
+     * @return int - number of elements
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * @return int - number of disjoint sets
+     */
+    public int getNoComponents() {
+        return noComponents;
+    }
+
+    /**
+     * @param x - int - an element
+     * @return int - the representative of the set of x
+     */
+    public int find(int x) {
+        int root = x;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[x] != root) {
+            int next = parent[x];
+            parent[x] = root;
+            x = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets of a and b
+     * @return boolean - false if a and b were already in the same set
+     */
+    public boolean union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return false;
+        }
+        if (rank[ra] < rank[rb]) {
+            parent[ra] = rb;
+        } else if (rank[ra] > rank[rb]) {
+            parent[rb] = ra;
+        } else {
+            parent[rb] = ra;
+            rank[ra]++;
+        }
+        noComponents--;
+        return true;
+    }
+
+    /**
+     * @return boolean - true if a and b are in the same set
+     */
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    /**
+     * @return int[] - for every element the number of its set, numbered 0..getNoComponents()-1 in the order of their
+     *  smallest elements
+     */
+    public int[] componentIds() {
+        int n = parent.length;
+        int[] label = new int[n];
+        int[] ids = new int[n];
+        java.util.Arrays.fill(label, -1);
+        int next = 0;
+        for (int x = 0; x < n; x++) {
+            int root = find(x);
+            if (label[root] == -1) {
+                label[root] = next++;
+            }
+            ids[x] = label[root];
+        }
+        return ids;
+    }
+}
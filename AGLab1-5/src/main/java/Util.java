@@ -1,14 +1,14 @@
-import com.sun.jdi.request.InvalidRequestStateException;
-import javafx.util.Pair;
 
 import java.util.*;
 
 public class Util {
+    public static final long HAMILTONIAN_TIME_LIMIT_MILLIS = 10_000;
+
     /**
      * Searches for the shortest path between 2 vertices given by their IDs.
-     * Performs a BFS on the graph starting at {@code vertexStartID} and throws an exception if it cannot
-     *  find a path to {@code VertexEndID}.
-     * If it can, then it performs a reverse iteration on the parsed vertices in order to construct
+     * Performs a BFS on the graph starting at {@code vertexStartID} that stops once {@code vertexEndID} is reached
+     *  and throws an exception if it cannot find a path to it.
+     * If it can, then it follows the recorded predecessors back from {@code vertexEndID} in order to construct
      *  the path.
      * @param vertexStartID - id of the starting Vertex of the path
      * @param vertexEndID - id of the final Vertex of the path
@@ -25,70 +25,84 @@ public class Util {
         Vertex vertexStart = vertexStartOptional.get();
         Vertex vertexEnd = vertexEndOptional.get();
 
-        // Prepare for BFS
-        Queue<Vertex> queue = new LinkedList<>();
-        Map<Vertex, ArrayList<Vertex>> visited = new LinkedHashMap<>();
-        Vertex preStartingPoint = new Vertex(-1);
+        // Perform BFS; prev holds the predecessor of every visited vertex and doubles as the visited set
+        Queue<Vertex> queue = new ArrayDeque<>();
+        Map<Vertex, Vertex> prev = new HashMap<>();
         queue.add(vertexStart);
-        visited.put(preStartingPoint, new ArrayList<>());
-        visited.get(preStartingPoint).add(vertexStart);
-
-        // Perform BFS
-        boolean pathFound = false;
-        while(!pathFound && !queue.isEmpty()) {
+        prev.put(vertexStart, vertexStart);
+        while (!prev.containsKey(vertexEnd) && !queue.isEmpty()) {
             Vertex current = queue.poll();
-            for(Edge e : current.getOutEdges()) {
-                if(visited.get(current) == null || !visited.get(current).contains(e.getV2())) {
+            for (Edge e : current.getOutEdges()) {
+                if (!prev.containsKey(e.getV2())) {
+                    prev.put(e.getV2(), current);
                     queue.add(e.getV2());
-                    visited.computeIfAbsent(current, k -> new ArrayList<>());
-                    visited.get(current).add(e.getV2());
-                    if(e.getV2().equals(vertexEnd)) {
-                        pathFound = true;
-                        break;
-                    }
                 }
             }
         }
 
         // If the BFS did not find a path throw an exception
-        if(!pathFound) {
+        if (!prev.containsKey(vertexEnd)) {
             throw new IllegalStateException("No such path!");
         }
 
         // Construct the path by going backwards from vertexEnd
         List<Vertex> path = new ArrayList<>();
-        Iterator<Vertex> mapKeyReverseIterator = new LinkedList<Vertex>(visited.keySet()).descendingIterator();
-        Vertex key, value, prevKey;
-
-        key = mapKeyReverseIterator.next();
-        value = vertexEnd;
-        prevKey = key;
-        path.add(value);
-        path.add(key);
-        while (mapKeyReverseIterator.hasNext()) {
-            key = mapKeyReverseIterator.next();
-            if (key.getvID() == -1) {
-                break;
-            }
-
-            ArrayList<Vertex> entryValues = visited.get(key);
-            value = null;
-            for(Vertex v : entryValues)
-                if (v == prevKey)
-                    value = v;
-
-            if (value == null)
-                continue;
-
-            path.add(key);
-            prevKey = key;
+        for (Vertex v = vertexEnd; v != vertexStart; v = prev.get(v)) {
+            path.add(v);
         }
+        path.add(vertexStart);
         // Reverse the path such that it has the proper order
         Collections.reverse(path);
 
         return path;
     }
 
+    /**
+     * Searches for the shortest path between 2 vertices of a read-only graph given by their IDs.
+     * Performs a {@link BfsEngine} search starting at {@code vertexStartID} that stops once {@code vertexEndID} is reached.
+     * @param graph - GraphView to be searched
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the shortest path
+     * @throws IllegalStateException
+     *  If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public static int[] shortestPath(GraphView graph, int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return new BfsEngine(graph).shortestPath(vertexStartID, vertexEndID);
+    }
+
+    /**
+     * Performs a full BFS on a read-only graph, following the outbound edges.
+     * @param graph - GraphView to be searched
+     * @param rootIndex - index of the vertex the search starts from
+     * @return ShortestPathTree - forward tree whose distances are numbers of edges
+     */
+    public static ShortestPathTree breadthFirstTree(GraphView graph, int rootIndex) {
+        return new BfsEngine(graph).run(rootIndex);
+    }
+
+    /**
+     * Performs a BFS traversal on a read-only graph starting with a given vertex.
+     * Prints in the console the IDs of the vertices of each level of the traversal, one level per line.
+     * @param graph - GraphView to be traversed
+     * @param startVertexID - id of the Vertex from which the traversal begins
+     * @throws IllegalStateException
+     *  If there is no vertex with the given ID.
+     */
+    public static void PrintTree(GraphView graph, int startVertexID) throws IllegalStateException {
+        int start = graph.indexOf(startVertexID);
+        if (start == -1) {
+            throw new IllegalStateException("Given vertex does not exist!");
+        }
+        for (int[] level : new BfsEngine(graph).levels(start)) {
+            StringBuilder line = new StringBuilder();
+            for (int v : level) {
+                line.append(graph.vertexId(v)).append("  ");
+            }
+            System.out.println(line.toString().trim());
+        }
+    }
+
     /* Problem Statement:
         Write a program that, given a graph with positive costs and two vertices,
             finds a lowest cost walk between the given vertices,
@@ -97,16 +111,13 @@ public class Util {
     */
     /**
      * Searches for the lowest cost path between 2 vertices given by their IDs.
-     * Performs a Dijkstra's algorithm on the graph starting at {@code vertexEndID} and
-     *  going backwards to  {@code vertexStartID}
-     * Throws an exception if it cannot find a path to {@code vertexStartID}.
-     * If it can, then it performs a reverse iteration on the parsed vertices
-     * in order to construct the path.
+     * Performs a backwards Dijkstra's algorithm from {@code vertexEndID} to {@code vertexStartID} with a
+     *  {@link DijkstraEngine} over a {@link CsrGraph} snapshot, and maps the IDs of the path back to the vertices.
      * @param vertexStartID - id of the starting Vertex of the path
      * @param vertexEndID - id of the final Vertex of the path
      * @return List<Vertex> - ordered list of the vertices that form the lowest cost path
      * @throws IllegalStateException
-     *  If there is no path between the vertices or if there are no vertices with the given IDs.
+     *  If there is no path between the vertices, if there are no vertices with the given IDs or if a weight is negative.
      */
     public static List<Vertex> dijkstraLowestCostPath(Graph graph, Integer vertexStartID, Integer vertexEndID) {
         Optional<Vertex> vertexStartOptional = graph.getVertexById(vertexStartID);
@@ -117,118 +128,82 @@ public class Util {
         Vertex vertexStart = vertexStartOptional.get();
         Vertex vertexEnd = vertexEndOptional.get();
 
-        Map<Vertex, Vertex> prev = new LinkedHashMap<>();
-        Map<Vertex, Integer> dist = new LinkedHashMap<>();
-        PathComparator pathComparator = new PathComparator(dist);
-        PriorityQueue<Vertex> queue = new PriorityQueue<>(pathComparator);
-
-        dist.put(vertexEnd, 0);
-        queue.add(vertexEnd);
-        boolean found = false;
-
-        while(!queue.isEmpty() && !found) {
-            Vertex current = queue.poll();
-            for(Edge inEdge : current.getInEdges()) {
-                Vertex other = inEdge.getV1();
-                int costOtherToCurrent = inEdge.getWeight();
-                if (!dist.containsKey(other) || dist.get(current) + costOtherToCurrent < dist.get(other)) {
-                    dist.put(other, dist.get(current) + costOtherToCurrent);
-                    pathComparator.distCopy = dist;
-                    queue.add(other);
-                    prev.put(other, current);
-                }
-            }
-            if (current == vertexStart) {
-                found = true;
-            }
-        }
-
-        if (!found) {
-            throw new IllegalStateException("No such path!");
-        }
-
+        // The engine rejects negative weights while it scans the snapshot's weights
         List<Vertex> lowestCostPath = new ArrayList<>();
-        Vertex current = vertexEnd;
-        lowestCostPath.add(current);
-        while(current != vertexStart) {
-            final Vertex currentCopy = current;
-            current = prev.entrySet().stream()
-                    .filter(entry -> entry.getValue() == currentCopy)
-                    .findFirst()
-                    .get()
-                    .getKey();
-            lowestCostPath.add(current);
+        for (int vid : dijkstraLowestCostPath(graph.freeze(), vertexStart.getvID(), vertexEnd.getvID())) {
+            lowestCostPath.add(graph.getVertexById(vid).get());
         }
+        return lowestCostPath;
+    }
 
-        Collections.reverse(lowestCostPath);
+    /**
+     * Searches for the lowest cost path between 2 vertices of a read-only graph given by their IDs.
+     * Performs a backwards Dijkstra's algorithm from {@code vertexEndID} over the inbound edges with a {@link DijkstraEngine}
+     *  and stops once {@code vertexStartID} is settled.
+     * @param graph - GraphView to be searched
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *  If there is no path between the vertices or if there are no vertices with the given IDs.
+     */
+    public static int[] dijkstraLowestCostPath(GraphView graph, int vertexStartID, int vertexEndID) throws IllegalStateException {
+        return new DijkstraEngine(graph).lowestCostPath(vertexStartID, vertexEndID);
+    }
 
-        return lowestCostPath;
+    /**
+     * Searches for the lowest cost path between 2 vertices of a read-only graph whose weights may be negative.
+     * Runs a {@link BellmanFord} search from {@code vertexStartID}.
+     * @param graph - GraphView to be searched
+     * @param vertexStartID - id of the starting Vertex of the path
+     * @param vertexEndID - id of the final Vertex of the path
+     * @return int[] - ordered IDs of the vertices that form the lowest cost path
+     * @throws IllegalStateException
+     *  If there is no path between the vertices, if there are no vertices with the given IDs
+     *  or if a negative cycle can be reached from the starting vertex.
+     */
+    public static int[] bellmanFordLowestCostPath(GraphView graph, int vertexStartID, int vertexEndID) throws IllegalStateException {
+        int start = graph.indexOf(vertexStartID);
+        int end = graph.indexOf(vertexEndID);
+        if (start == -1 || end == -1) {
+            throw new IllegalStateException("Given vertices do not exist!");
+        }
+        return new BellmanFord(graph).run(start).getTree().pathTo(end);
     }
 
     /*
      * Problem Statement:
      *  Given an undirected graph, find a Hamiltonian cycle (if it exists).
+     * The search runs on a frozen copy of the graph, which is left unchanged, and gives up after
+     *  HAMILTONIAN_TIME_LIMIT_MILLIS.
      */
-    public static List<Vertex> FindHamiltonianCycle(Graph initGraph) {
-        Graph graph = new Graph(initGraph);
+    public static List<Vertex> FindHamiltonianCycle(Graph initGraph) throws IllegalStateException {
+        return FindHamiltonianCycle(initGraph, HAMILTONIAN_TIME_LIMIT_MILLIS);
+    }
 
-        for(Vertex vertex : graph.getVertices()) {
-            if (vertex.getOutDegree() < 2) {
-                throw new IllegalStateException("A graph with a vertex having degree < 2 cannot have a hamiltonian cycle!");
-            }
+    /**
+     * Finds a Hamiltonian cycle of an undirected graph within a time budget
+     * @param initGraph - Graph to be searched; left unchanged
+     * @param timeLimitMillis - long - time budget of the search in milliseconds, -1 for none
+     * @return List<Vertex> - the vertices of the cycle, starting and ending with the same vertex
+     * @throws IllegalStateException
+     *      If the graph has no Hamiltonian cycle, or if none was found within the time budget; the messages differ
+     */
+    public static List<Vertex> FindHamiltonianCycle(Graph initGraph, long timeLimitMillis) throws IllegalStateException {
+        HamiltonianCycleSolver solver = new HamiltonianCycleSolver(initGraph.freeze());
+        solver.setTimeLimit(timeLimitMillis);
+        HamiltonianCycleSolver.Result result = solver.solve();
+        if (result.getStatus() == HamiltonianCycleSolver.Status.TIMED_OUT && !result.hasCycle()) {
+            throw new IllegalStateException("No Hamiltonian cycle was found within " + timeLimitMillis
+                    + "ms; the graph may still contain one!");
         }
-
-        graph.sortVerticesByDecreasingNumberOfEdges();
-
-        for(Vertex vertex : graph.getVertices()) {
-            Iterator<Vertex> vertexIterator = vertex.getOutVertices().iterator();
-            while (vertex.getOutDegree() > 2) {
-                Vertex current = vertexIterator.next();
-                if (current.getOutDegree() > 2) {
-                    Edge inEdge = graph.getEdge(vertex.getvID(), current.getvID()).get();
-                    Edge outEdge = graph.getEdge(current.getvID(), vertex.getvID()).get();
-                    graph.removeEdge(inEdge);
-                    graph.removeEdge(outEdge);
-                }
-            }
+        if (!result.hasCycle()) {
+            throw new IllegalStateException("The graph does not contain a Hamiltonian cycle!");
         }
-
         List<Vertex> cycle = new ArrayList<>();
-        boolean[] visited = new boolean[graph.getNoVertices()];
-        for(Vertex vertex : graph.getVertices()) {
-            visited[vertex.getvID()] = false;
+        for (int vid : result.getCycle()) {
+            cycle.add(initGraph.getVertexById(vid).get());
         }
-
-        Vertex current = graph.getVertexById(0).get();
-        cycle.add(current);
-        boolean finished = false;
-        while(!finished) {
-            for(Vertex outbound : current.getOutVertices()) {
-                if (!visited[outbound.getvID()]) {
-                    visited[outbound.getvID()] = true;
-
-                    // Destroy the edge so that it can't go back
-                    Edge inEdge = graph.getEdge(outbound.getvID(), current.getvID()).get();
-                    Edge outEdge = graph.getEdge(current.getvID(), outbound.getvID()).get();
-                    graph.removeEdge(inEdge);
-                    graph.removeEdge(outEdge);
-
-                    current = outbound;
-                    cycle.add(current);
-                    break;
-                }
-            }
-            if (current == graph.getVertexById(0).get()) {
-                finished = true;
-            }
-        }
-
-        for(Vertex vertex : graph.getVertices()) {
-            if (!visited[vertex.getvID()]) {
-                throw new IllegalStateException("The graph does not contain a cycle!");
-            }
-        }
-
         return cycle;
     }
 }
\ No newline at end of file
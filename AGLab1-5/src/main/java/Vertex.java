@@ -10,6 +10,8 @@ public class Vertex implements Comparable{
     private int vID;
     private Set<Edge> in;
     private Set<Edge> out;
+    private Map<Integer, Edge> inBySource;
+    private Map<Integer, Edge> outByTarget;
     private int degreeIn;
     private int degreeOut;
 
@@ -23,6 +25,8 @@ public class Vertex implements Comparable{
         degreeIn = 0;
         out = new LinkedHashSet<>();
         degreeOut = 0;
+        inBySource = new HashMap<>();
+        outByTarget = new HashMap<>();
     }
 
     /**
@@ -45,6 +49,7 @@ public class Vertex implements Comparable{
      */
     public void addInEdge(Edge edge) {
         in.add(edge);
+        inBySource.putIfAbsent(edge.getV1().getvID(), edge);
         degreeIn += 1;
     }
 
@@ -54,6 +59,7 @@ public class Vertex implements Comparable{
      */
     public void addOutEdge(Edge edge) {
         out.add(edge);
+        outByTarget.putIfAbsent(edge.getV2().getvID(), edge);
         degreeOut += 1;
     }
 
@@ -63,6 +69,12 @@ public class Vertex implements Comparable{
      */
     public void removeInEdge(Edge edge) {
         in.remove(edge);
+        if (inBySource.remove(edge.getV1().getvID(), edge)) {
+            in.stream()
+                    .filter(e -> e.getV1().getvID() == edge.getV1().getvID())
+                    .findFirst()
+                    .ifPresent(e -> inBySource.put(e.getV1().getvID(), e));
+        }
         degreeIn -= 1;
     }
 
@@ -72,6 +84,12 @@ public class Vertex implements Comparable{
      */
     public void removeOutEdge(Edge edge) {
         out.remove(edge);
+        if (outByTarget.remove(edge.getV2().getvID(), edge)) {
+            out.stream()
+                    .filter(e -> e.getV2().getvID() == edge.getV2().getvID())
+                    .findFirst()
+                    .ifPresent(e -> outByTarget.put(e.getV2().getvID(), e));
+        }
         degreeOut -= 1;
     }
 
@@ -84,6 +102,39 @@ public class Vertex implements Comparable{
 
     public void setvID(int vid) { this.vID = vid; }
 
+    /**
+     * Looks up the outbound edge towards the Vertex with the given ID in constant time
+     * @param targetId - ID of the inbound Vertex of the Edge
+     * @return Optional<Edge> - empty if no such Edge exists; contains the Edge otherwise
+     */
+    public Optional<Edge> getOutEdge(int targetId) {
+        return Optional.ofNullable(outByTarget.get(targetId));
+    }
+
+    /**
+     * Looks up the inbound edge from the Vertex with the given ID in constant time
+     * @param sourceId - ID of the outbound Vertex of the Edge
+     * @return Optional<Edge> - empty if no such Edge exists; contains the Edge otherwise
+     */
+    public Optional<Edge> getInEdge(int sourceId) {
+        return Optional.ofNullable(inBySource.get(sourceId));
+    }
+
+    /**
+     * Rebuilds the lookup of edges by neighbour ID.
+     * Needed after the IDs of neighbouring vertices have been changed.
+     */
+    void reindexEdges() {
+        inBySource.clear();
+        outByTarget.clear();
+        for (Edge edge : in) {
+            inBySource.putIfAbsent(edge.getV1().getvID(), edge);
+        }
+        for (Edge edge : out) {
+            outByTarget.putIfAbsent(edge.getV2().getvID(), edge);
+        }
+    }
+
     /**
      * @return int - the inbound degree of the vertex (number of inbound edges)
      */
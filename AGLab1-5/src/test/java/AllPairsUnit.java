@@ -0,0 +1,123 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class AllPairsUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertPaths(GraphView graph, DistanceMatrix matrix)
+    {
+        for (int u = 0; u < graph.getNoVertices(); u++) {
+            for (int v = 0; v < graph.getNoVertices(); v++) {
+                int distance = matrix.distanceAt(u, v);
+                if (distance == DistanceMatrix.UNREACHABLE) {
+                    assertEquals(-1, matrix.nextHopAt(u, v));
+                    continue;
+                }
+                int[] path = matrix.path(graph.vertexId(u), graph.vertexId(v));
+                long cost = 0;
+                for (int i = 0; i + 1 < path.length; i++) {
+                    int a = graph.indexOf(path[i]);
+                    int b = graph.indexOf(path[i + 1]);
+                    long best = Long.MAX_VALUE;
+                    for (int e = graph.outBegin(a); e < graph.outEnd(a); e++) {
+                        if (graph.outTarget(e) == b) {
+                            best = Math.min(best, graph.outWeight(e));
+                        }
+                    }
+                    assertNotEquals(Long.MAX_VALUE, best);
+                    cost += best;
+                }
+                assertEquals(distance, cost);
+            }
+        }
+    }
+
+    @Test
+    public void testEnginesAgree()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(5, 150, 900, 0, 100);
+        DistanceMatrix floyd = new AllPairsShortestPaths(csr).floydWarshall();
+        DistanceMatrix johnson = new AllPairsShortestPaths(csr).johnson();
+        DijkstraEngine dijkstra = new DijkstraEngine(csr);
+        for (int u = 0; u < csr.getNoVertices(); u++) {
+            ShortestPathTree tree = dijkstra.run(u, DijkstraEngine.Direction.FORWARD);
+            for (int v = 0; v < csr.getNoVertices(); v++) {
+                long expected = tree.reaches(v) ? tree.getDistance(v) : DistanceMatrix.UNREACHABLE;
+                assertEquals(expected, floyd.distanceAt(u, v));
+                assertEquals(expected, johnson.distanceAt(u, v));
+            }
+        }
+        assertPaths(csr, floyd);
+        assertPaths(csr, johnson);
+    }
+
+    @Test
+    public void testNegativeWeights()
+    {
+        // A DAG keeps negative weights free of negative cycles
+        EdgeList edges = new EdgeList(80);
+        java.util.Random random = new java.util.Random(9);
+        for (int i = 0; i < 500; i++) {
+            int u = random.nextInt(79);
+            int v = u + 1 + random.nextInt(79 - u);
+            edges.add(u, v, random.nextInt(60) - 20);
+        }
+        CsrGraph csr = edges.toCsr();
+        DistanceMatrix floyd = new AllPairsShortestPaths(csr).floydWarshall();
+        DistanceMatrix johnson = new AllPairsShortestPaths(csr).johnson();
+        for (int u = 0; u < csr.getNoVertices(); u++) {
+            for (int v = 0; v < csr.getNoVertices(); v++) {
+                assertEquals(floyd.distanceAt(u, v), johnson.distanceAt(u, v));
+            }
+        }
+        assertPaths(csr, johnson);
+    }
+
+    @Test
+    public void testNegativeCycle()
+    {
+        EdgeList edges = new EdgeList(4);
+        edges.add(0, 1, 2);
+        edges.add(1, 2, -3);
+        edges.add(2, 1, 1);
+        edges.add(2, 3, 4);
+        CsrGraph csr = edges.toCsr();
+        try {
+            new AllPairsShortestPaths(csr).floydWarshall();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            new AllPairsShortestPaths(csr).johnson();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testMappedMatrix() throws IOException
+    {
+        CsrGraph csr = TestGraphs.randomGraph(11, 100, 400, 1, 50);
+        DistanceMatrix matrix = new AllPairsShortestPaths(csr).compute();
+        Path file = folder.newFile("apsp.bin").toPath();
+        matrix.write(file);
+        DistanceMatrix mapped = DistanceMatrix.map(file);
+        assertEquals(matrix.getNoVertices(), mapped.getNoVertices());
+        for (int u = 0; u < csr.getNoVertices(); u++) {
+            for (int v = 0; v < csr.getNoVertices(); v++) {
+                assertEquals(matrix.distanceAt(u, v), mapped.distanceAt(u, v));
+                assertEquals(matrix.nextHop(csr.vertexId(u), csr.vertexId(v)), mapped.nextHop(csr.vertexId(u), csr.vertexId(v)));
+            }
+        }
+        assertPaths(csr, mapped);
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BfsUnit {
+    private static int[] plainLevels(GraphView graph, int root)
+    {
+        int[] level = new int[graph.getNoVertices()];
+        Arrays.fill(level, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        level[root] = 0;
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                if (level[v] == -1) {
+                    level[v] = level[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return level;
+    }
+
+    private static boolean hasEdge(GraphView graph, int sourceId, int targetId)
+    {
+        int u = graph.indexOf(sourceId);
+        int v = graph.indexOf(targetId);
+        for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+            if (graph.outTarget(e) == v) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void assertTree(GraphView graph, ShortestPathTree tree, int[] expected)
+    {
+        int reached = 0;
+        for (int v = 0; v < graph.getNoVertices(); v++) {
+            if (expected[v] == -1) {
+                assertFalse(tree.reaches(v));
+                continue;
+            }
+            reached++;
+            assertEquals(expected[v], tree.getDistance(v));
+            if (v != tree.getRoot()) {
+                assertEquals(expected[v] - 1, expected[tree.getParent(v)]);
+            }
+        }
+        assertEquals(reached, tree.getSettled());
+    }
+
+    @Test
+    public void testDirectionOptimizing()
+    {
+        // Dense enough for the search to go bottom-up in its middle levels
+        GraphGenerator generator = new GraphGenerator(41);
+        CsrGraph csr = generator.rmat(1 << 13, 1 << 17, 0.57, 0.19, 0.19).toCsr();
+        BfsEngine engine = new BfsEngine(csr);
+        engine.setMinBottomUpVertices(0);
+        for (int root : new int[]{0, 1, 77, 4000}) {
+            int[] expected = plainLevels(csr, root);
+            assertTree(csr, engine.run(root), expected);
+            assertTree(csr, new BfsEngine(csr).run(root), expected);
+
+            BitSet reachable = engine.reachable(root);
+            int[][] levels = engine.levels(root);
+            for (int v = 0; v < csr.getNoVertices(); v++) {
+                assertEquals(expected[v] != -1, reachable.get(v));
+                if (expected[v] != -1) {
+                    assertTrue(Arrays.binarySearch(levels[expected[v]], v) >= 0);
+                }
+            }
+            assertEquals(reachable.cardinality(), Arrays.stream(levels).mapToInt(level -> level.length).sum());
+        }
+    }
+
+    @Test
+    public void testEarlyExit()
+    {
+        CsrGraph csr = new GraphGenerator(43).erdosRenyi(5000, 40000).toCsr();
+        BfsEngine engine = new BfsEngine(csr);
+        engine.setMinBottomUpVertices(0);
+        int[] expected = plainLevels(csr, 3);
+        for (int target = 0; target < csr.getNoVertices(); target += 97) {
+            ShortestPathTree tree = engine.run(3, target);
+            if (expected[target] == -1) {
+                assertFalse(tree.reaches(target));
+                continue;
+            }
+            int[] path = tree.pathTo(target);
+            assertEquals(expected[target] + 1, path.length);
+            for (int i = 0; i + 1 < path.length; i++) {
+                assertTrue(hasEdge(csr, path[i], path[i + 1]));
+            }
+        }
+    }
+
+    @Test
+    public void testGraphShortestPath() throws FileNotFoundException
+    {
+        Graph graph = Graph.readGraph("res/ex.txt");
+        CsrGraph csr = graph.freeze();
+        for (Vertex start : graph.getVertices()) {
+            int[] expected = plainLevels(csr, csr.indexOf(start.getvID()));
+            for (Vertex end : graph.getVertices()) {
+                int level = expected[csr.indexOf(end.getvID())];
+                if (level == -1) {
+                    continue;
+                }
+                List<Integer> path = Util.shortestPath(graph, start.getvID(), end.getvID()).stream()
+                        .map(Vertex::getvID).collect(Collectors.toList());
+                assertEquals(level + 1, path.size());
+                assertEquals(start.getvID(), (int) path.get(0));
+                assertEquals(end.getvID(), (int) path.get(path.size() - 1));
+                for (int i = 0; i + 1 < path.size(); i++) {
+                    assertTrue(graph.getEdge(path.get(i), path.get(i + 1)).isPresent());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CriticalPathUnit {
+    /*
+     * Events 0..5 of a small project:
+     *   0 -3-> 1 -4-> 3 -2-> 5
+     *   0 -2-> 2 -1-> 3
+     *          2 -6-> 4 -2-> 5
+     */
+    private static CsrGraph sampleProject()
+    {
+        EdgeList edges = new EdgeList(6);
+        edges.add(0, 1, 3);
+        edges.add(0, 2, 2);
+        edges.add(1, 3, 4);
+        edges.add(2, 3, 1);
+        edges.add(2, 4, 6);
+        edges.add(3, 5, 2);
+        edges.add(4, 5, 2);
+        return edges.toCsr();
+    }
+
+    @Test
+    public void testSchedule()
+    {
+        CriticalPathAnalysis.Schedule schedule = new CriticalPathAnalysis(sampleProject()).analyze();
+        assertEquals(10, schedule.getProjectLength());
+        assertArrayEquals(new long[]{0, 3, 2, 7, 8, 10}, new long[]{schedule.getEarliestStart(0), schedule.getEarliestStart(1),
+                schedule.getEarliestStart(2), schedule.getEarliestStart(3), schedule.getEarliestStart(4), schedule.getEarliestStart(5)});
+        assertArrayEquals(new long[]{0, 4, 2, 8, 8, 10}, new long[]{schedule.getLatestStart(0), schedule.getLatestStart(1),
+                schedule.getLatestStart(2), schedule.getLatestStart(3), schedule.getLatestStart(4), schedule.getLatestStart(5)});
+        assertArrayEquals(new int[]{0, 2, 4, 5}, schedule.getCriticalPath());
+        assertEquals(1, schedule.getSlack(1));
+        assertEquals(1, schedule.getSlack(3));
+    }
+
+    @Test
+    public void testSlack()
+    {
+        EdgeList edges = new EdgeList(4);
+        edges.add(0, 1, 5);
+        edges.add(0, 2, 1);
+        edges.add(1, 3, 5);
+        edges.add(2, 3, 2);
+        CriticalPathAnalysis.Schedule schedule = new CriticalPathAnalysis(edges.toCsr()).analyze();
+        assertEquals(10, schedule.getProjectLength());
+        assertEquals(7, schedule.getSlack(2));
+        assertFalse(schedule.isCritical(2));
+        assertTrue(schedule.isCritical(1));
+        assertArrayEquals(new int[]{0, 1, 3}, schedule.getCriticalPath());
+    }
+
+    @Test
+    public void testActivities()
+    {
+        CsrGraph graph = sampleProject();
+        CriticalPathAnalysis.Schedule schedule = new CriticalPathAnalysis(graph).analyze();
+        for (int u = 0; u < graph.getNoVertices(); u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                int v = graph.outTarget(e);
+                assertEquals(schedule.getEarliestStart(u), schedule.getActivityEarliestStart(e));
+                assertEquals(schedule.getLatestStart(v) - graph.outWeight(e), schedule.getActivityLatestStart(e));
+                assertTrue(schedule.getActivitySlack(e) >= schedule.getSlack(u));
+                if (u == 2 && v == 3) {
+                    // 2 is critical, but 2 -> 3 can start as late as 7
+                    assertEquals(5, schedule.getActivitySlack(e));
+                    assertFalse(schedule.isCriticalActivity(e));
+                }
+                if (u == 2 && v == 4) {
+                    assertTrue(schedule.isCriticalActivity(e));
+                }
+            }
+        }
+
+        // 2 is not reached from 1, so neither is its activity
+        schedule = new CriticalPathAnalysis(graph).analyze(new int[]{1});
+        int e = graph.outBegin(2);
+        assertEquals(CriticalPathAnalysis.UNREACHED, schedule.getActivityEarliestStart(e));
+        assertEquals(CriticalPathAnalysis.UNREACHED, schedule.getActivityLatestStart(e));
+        assertFalse(schedule.isCriticalActivity(e));
+    }
+
+    @Test
+    public void testManySources()
+    {
+        Random random = new Random(12);
+        int n = 400;
+        EdgeList edges = new EdgeList(n);
+        for (int i = 0; i < 2000; i++) {
+            int u = random.nextInt(n - 1);
+            edges.add(u, u + 1 + random.nextInt(n - 1 - u), random.nextInt(20));
+        }
+        CsrGraph dag = edges.toCsr();
+        int[] sources = {5, 17, 120};
+        CriticalPathAnalysis.Schedule schedule = new CriticalPathAnalysis(dag).analyze(sources);
+
+        // Longest distances from the sources, by dynamic programming over the index order
+        long[] expected = new long[n];
+        java.util.Arrays.fill(expected, CriticalPathAnalysis.UNREACHED);
+        for (int s : sources) {
+            expected[s] = 0;
+        }
+        for (int u = 0; u < n; u++) {
+            if (expected[u] == CriticalPathAnalysis.UNREACHED) {
+                continue;
+            }
+            for (int e = dag.outBegin(u); e < dag.outEnd(u); e++) {
+                expected[dag.outTarget(e)] = Math.max(expected[dag.outTarget(e)], expected[u] + dag.outWeight(e));
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            assertEquals(expected[v], schedule.getEarliestStart(v));
+            if (schedule.reaches(v)) {
+                assertTrue(schedule.getSlack(v) >= 0);
+                assertTrue(schedule.getLatestStart(v) <= schedule.getProjectLength());
+            }
+        }
+        for (int vid : schedule.getCriticalPath()) {
+            assertTrue(schedule.isCritical(dag.indexOf(vid)));
+        }
+        assertEquals(schedule.getProjectLength(),
+                schedule.getEarliestStart(dag.indexOf(schedule.getCriticalPath()[schedule.getCriticalPath().length - 1])));
+    }
+
+    @Test
+    public void testGraphHighestCostPath()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = {new Vertex(7), new Vertex(2), new Vertex(9)};
+        for (Vertex v : vertices) {
+            graph.addVertex(v);
+        }
+        graph.addEdge(new Edge(vertices[0], vertices[1], 1));
+        graph.addEdge(new Edge(vertices[1], vertices[2], 1));
+        graph.addEdge(new Edge(vertices[0], vertices[2], 1));
+        assertArrayEquals(new int[]{7, 2, 9},
+                Graph.HighestCostPath(graph, 7, 9).stream().mapToInt(Vertex::getvID).toArray());
+    }
+}
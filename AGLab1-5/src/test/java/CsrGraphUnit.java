@@ -0,0 +1,125 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CsrGraphUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Graph sampleGraph()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[5];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(i * 2);
+            graph.addVertex(vertices[i]);
+        }
+        graph.addEdge(new Edge(vertices[0], vertices[1], 4));
+        graph.addEdge(new Edge(vertices[0], vertices[2], 1));
+        graph.addEdge(new Edge(vertices[2], vertices[1], 2));
+        graph.addEdge(new Edge(vertices[1], vertices[3], 5));
+        graph.addEdge(new Edge(vertices[2], vertices[3], 9));
+        graph.addEdge(new Edge(vertices[3], vertices[4], 3));
+        return graph;
+    }
+
+    @Test
+    public void testFreeze()
+    {
+        CsrGraph csr = sampleGraph().freeze();
+
+        assertEquals(5, csr.getNoVertices());
+        assertEquals(6, csr.getNoEdges());
+        assertEquals(2, csr.indexOf(4));
+        assertEquals(-1, csr.indexOf(3));
+        assertEquals(6, csr.vertexId(3));
+        assertEquals(2, csr.getOutDegree(0));
+        assertEquals(2, csr.getInDegree(1));
+        assertEquals(0, csr.getInDegree(0));
+
+        int inWeights = 0;
+        for (int e = csr.inBegin(3); e < csr.inEnd(3); e++) {
+            inWeights += csr.inWeight(e);
+        }
+        assertEquals(14, inWeights);
+    }
+
+    @Test
+    public void testShortestPath()
+    {
+        CsrGraph csr = sampleGraph().freeze();
+
+        assertArrayEquals(new int[]{0, 2, 6, 8}, Util.shortestPath(csr, 0, 8));
+        assertArrayEquals(new int[]{4}, Util.shortestPath(csr, 4, 4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testShortestPathMissing()
+    {
+        Util.shortestPath(sampleGraph().freeze(), 8, 0);
+    }
+
+    @Test
+    public void testDijkstraLowestCostPath()
+    {
+        CsrGraph csr = sampleGraph().freeze();
+
+        assertArrayEquals(new int[]{0, 4, 2, 6, 8}, Util.dijkstraLowestCostPath(csr, 0, 8));
+        assertArrayEquals(new int[]{4, 2}, Util.dijkstraLowestCostPath(csr, 4, 2));
+    }
+
+    @Test
+    public void testTopologicalSort()
+    {
+        assertArrayEquals(new int[]{0, 4, 2, 6, 8}, Graph.TopologicalSort(sampleGraph().freeze()));
+    }
+
+    @Test
+    public void testHighestCostPath()
+    {
+        CsrGraph csr = sampleGraph().freeze();
+
+        assertArrayEquals(new int[]{0, 4, 6, 8}, Graph.HighestCostPath(csr, 0, 8));
+        assertArrayEquals(new int[]{4, 6}, Graph.HighestCostPath(csr, 4, 6));
+    }
+
+    @Test
+    public void testMappedGraph() throws IOException
+    {
+        File file = folder.newFile("sample.bin");
+        MappedGraph.write(sampleGraph().freeze(), file.toPath());
+        MappedGraph mapped = MappedGraph.open(file.toPath());
+
+        assertEquals(5, mapped.getNoVertices());
+        assertEquals(6, mapped.getNoEdges());
+        assertEquals(3, mapped.indexOf(6));
+        assertEquals(-1, mapped.indexOf(5));
+        assertEquals(8, mapped.vertexId(4));
+        assertArrayEquals(new int[]{0, 4, 2, 6, 8}, Util.dijkstraLowestCostPath(mapped, 0, 8));
+        assertArrayEquals(new int[]{0, 4, 6, 8}, Graph.HighestCostPath(mapped, 0, 8));
+    }
+
+    @Test
+    public void testCorruptMappedGraph() throws IOException
+    {
+        File file = folder.newFile("corrupt.bin");
+        MappedGraph.write(sampleGraph().freeze(), file.toPath());
+        // Header, 5 IDs and 6 outbound offsets come before the first outbound target
+        try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(file.toPath(),
+                java.nio.file.StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.allocate(Integer.BYTES).putInt(0, 77), (5 + 5 + 6) * Integer.BYTES);
+        }
+        try {
+            MappedGraph.open(file.toPath());
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("outbound edge 0 has vertex index 77"));
+        }
+        assertEquals(77, MappedGraph.open(file.toPath(), true).outTarget(0));
+    }
+}
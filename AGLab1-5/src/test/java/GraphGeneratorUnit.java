@@ -0,0 +1,115 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GraphGeneratorUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Set<Long> distinctEdges(EdgeList edges) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i < edges.size(); i++) {
+            assertTrue(edges.source(i) >= 0 && edges.source(i) < edges.getNoVertices());
+            assertTrue(edges.target(i) >= 0 && edges.target(i) < edges.getNoVertices());
+            keys.add(((long) edges.source(i) << 32) | edges.target(i));
+        }
+        return keys;
+    }
+
+    private static void assertSameEdges(EdgeList expected, EdgeList actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.source(i), actual.source(i));
+            assertEquals(expected.target(i), actual.target(i));
+            assertEquals(expected.weight(i), actual.weight(i));
+        }
+    }
+
+    @Test
+    public void testErdosRenyi()
+    {
+        EdgeList edges = new GraphGenerator(7).erdosRenyi(1000, 20000);
+        assertEquals(edges.size(), 20000);
+        assertEquals(distinctEdges(edges).size(), 20000);
+        assertSameEdges(edges, new GraphGenerator(7).erdosRenyi(1000, 20000));
+
+        EdgeList complete = new GraphGenerator(7).erdosRenyi(30, 900);
+        assertEquals(distinctEdges(complete).size(), 900);
+    }
+
+    @Test
+    public void testRmat()
+    {
+        GraphGenerator generator = new GraphGenerator(11);
+        generator.setWeights(GraphGenerator.WeightDistribution.constant(1));
+        EdgeList edges = generator.rmat(1000, 10000, 0.57, 0.19, 0.19);
+        assertEquals(edges.size(), 10000);
+        assertEquals(distinctEdges(edges).size(), 10000);
+        assertEquals(edges.weight(123), 1);
+        assertSameEdges(edges, generator.rmat(1000, 10000, 0.57, 0.19, 0.19));
+    }
+
+    @Test(timeout = 10000)
+    public void testRmatDegenerateProbabilities()
+    {
+        GraphGenerator generator = new GraphGenerator(11);
+        // Every draw lands on the pair (0, 0)
+        try {
+            generator.rmat(4, 2, 1.0, 0, 0);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("1 of 2"));
+        }
+        // Every draw lands on the pair (3, 3), which is outside 3 vertices
+        try {
+            generator.rmat(3, 1, 0, 0, 0);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("0 of 1"));
+        }
+    }
+
+    @Test
+    public void testBarabasiAlbert()
+    {
+        EdgeList edges = new GraphGenerator(3).barabasiAlbert(500, 4);
+        assertEquals(edges.size(), 5 + 495 * 4);
+        assertEquals(distinctEdges(edges).size(), edges.size());
+        assertSameEdges(edges, new GraphGenerator(3).barabasiAlbert(500, 4));
+    }
+
+    @Test
+    public void testGenerateToFile() throws IOException
+    {
+        File file = folder.newFile("generated.bin");
+        GraphGenerator generator = new GraphGenerator(5);
+        try (GraphWriter writer = new GraphWriter(file.toPath(), GraphWriter.Encoding.BINARY, GraphWriter.Compression.NONE)) {
+            generator.erdosRenyi(200, 3000L, writer);
+        }
+        EdgeList read = new GraphLoader(GraphLoader.Format.BINARY).load(file.toPath());
+        assertSameEdges(generator.erdosRenyi(200, 3000), read);
+    }
+
+    @Test
+    public void testEmptyGraph()
+    {
+        GraphGenerator generator = new GraphGenerator(1);
+        assertEquals(0, generator.erdosRenyi(0, 0).size());
+        assertEquals(0, generator.rmat(0, 0, 0.57, 0.19, 0.19).size());
+        assertEquals(0, Graph.generateGraph(0, 0).getNoVertices());
+        assertEquals(0, new Controller(0, 0).getGraph().getNoEdges());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTooManyEdges()
+    {
+        new GraphGenerator(1).erdosRenyi(10, 101);
+    }
+}
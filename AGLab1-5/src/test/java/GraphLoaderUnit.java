@@ -0,0 +1,177 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class GraphLoaderUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String content) throws IOException
+    {
+        File file = folder.newFile(name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+
+    @Test
+    public void testReadGraph() throws IOException
+    {
+        Graph graph = Graph.readGraph("res/ex.txt");
+
+        assertEquals(graph.getNoVertices(), 7);
+        assertEquals(graph.getNoEdges(), 9);
+        assertEquals(graph.getEdge(0, 3).get().getWeight(), 10);
+        assertEquals(graph.getEdge(4, 1).get().getWeight(), 20);
+    }
+
+    @Test
+    public void testDefaultFormat() throws IOException
+    {
+        File file = write("default.txt", "4 3\n0 1 5\n1 2 -3\r\n3 0 7");
+        GraphLoader loader = new GraphLoader(GraphLoader.Format.DEFAULT);
+        EdgeList edges = loader.load(file.toPath());
+
+        assertEquals(edges.getNoVertices(), 4);
+        assertEquals(edges.size(), 3);
+        assertEquals(edges.weight(1), -3);
+        assertEquals(edges.source(2), 3);
+        assertEquals(loader.getStatistics().getEdges(), 3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDefaultFormatEdgeCount() throws IOException
+    {
+        File file = write("wrong.txt", "3 3\n0 1 5\n1 2 3\n");
+        new GraphLoader(GraphLoader.Format.DEFAULT).load(file.toPath());
+    }
+
+    @Test
+    public void testValuesOutsideTheIntRange() throws IOException
+    {
+        EdgeList edges = new GraphLoader(GraphLoader.Format.SNAP).load(write("real.txt", "0 1 2.6\n").toPath());
+        assertEquals(3, edges.weight(0));
+
+        String[] malformed = {"0 4294967296\n", "99999999999999999999999 0\n", "0 1 2147483648\n", "0 1.5\n"};
+        for (String content : malformed) {
+            File file = folder.newFile();
+            Files.writeString(file.toPath(), content);
+            try {
+                new GraphLoader(GraphLoader.Format.SNAP).load(file.toPath());
+                fail(content);
+            } catch (IllegalStateException ex) {
+                assertTrue(ex.getMessage().startsWith("Malformed"));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDefaultFormatVertexCount() throws IOException
+    {
+        File file = write("wrong.txt", "2 2\n0 1 5\n1 2 3\n");
+        new GraphLoader(GraphLoader.Format.DEFAULT).load(file.toPath());
+    }
+
+    @Test
+    public void testSnapFormat() throws IOException
+    {
+        File file = write("snap.txt", "# Directed graph\n# Nodes: 5 Edges: 3\n# FromNodeId\tToNodeId\n0\t4\n4\t2\n2\t0\n");
+        EdgeList edges = new GraphLoader(GraphLoader.Format.SNAP).load(file.toPath());
+
+        assertEquals(edges.getNoVertices(), 5);
+        assertEquals(edges.size(), 3);
+        assertEquals(edges.target(0), 4);
+        assertEquals(edges.weight(2), 1);
+    }
+
+    @Test
+    public void testMatrixMarketFormat() throws IOException
+    {
+        File file = write("matrix.mtx", "%%MatrixMarket matrix coordinate real symmetric\n% comment\n3 3 3\n1 1 2.0\n2 1 4.6\n3 2 1e1\n");
+        CsrGraph graph = new GraphLoader(GraphLoader.Format.MATRIX_MARKET).load(file.toPath()).toCsr();
+
+        assertEquals(graph.getNoVertices(), 3);
+        assertEquals(graph.getNoEdges(), 5);
+        assertArrayEquals(Util.shortestPath(graph, 0, 2), new int[]{0, 1, 2});
+        assertArrayEquals(Util.dijkstraLowestCostPath(graph, 2, 0), new int[]{2, 1, 0});
+    }
+
+    @Test
+    public void testSaveGraph() throws IOException
+    {
+        Graph graph = Graph.readGraph("res/ex.txt");
+        File file = folder.newFile("saved.txt");
+        Graph.saveGraph(graph, file.getPath());
+        Graph saved = Graph.readGraph(file.getPath());
+
+        assertEquals(saved.getNoVertices(), 7);
+        assertEquals(saved.getNoEdges(), 9);
+        assertEquals(saved.getEdge(6, 3).get().getWeight(), 4);
+
+        Graph.saveGraph(new Graph(), file.getPath());
+        assertEquals(Files.readString(file.toPath()), "0 0\n");
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException
+    {
+        File file = folder.newFile("graph.bin");
+        GraphWriter.write(Graph.readGraph("res/ex.txt"), file.toPath(), GraphWriter.Encoding.BINARY, GraphWriter.Compression.NONE);
+        EdgeList edges = new GraphLoader(GraphLoader.Format.BINARY).load(file.toPath());
+
+        assertEquals(edges.getNoVertices(), 7);
+        assertEquals(edges.size(), 9);
+        assertEquals(edges.source(8), 6);
+        assertEquals(edges.weight(8), 4);
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws IOException
+    {
+        EdgeList edges = new EdgeList(3000);
+        for (int i = 0; i < 100000; i++) {
+            edges.add(i % 3000, (i * 7) % 3000, i % 500 - 250);
+        }
+        File plain = folder.newFile("plain.txt");
+        GraphWriter.write(edges, plain.toPath(), GraphWriter.Encoding.TEXT, GraphWriter.Compression.NONE);
+        String expected = Files.readString(plain.toPath());
+
+        for (GraphWriter.Compression compression : new GraphWriter.Compression[]{GraphWriter.Compression.GZIP, GraphWriter.Compression.BLOCK}) {
+            File file = folder.newFile(compression + ".txt");
+            GraphWriter.write(edges, file.toPath(), GraphWriter.Encoding.TEXT, compression);
+            assertTrue(file.length() < plain.length());
+            try (InputStream input = GraphWriter.openDecompressed(file.toPath(), compression)) {
+                assertEquals(new String(input.readAllBytes(), StandardCharsets.US_ASCII), expected);
+            }
+        }
+    }
+
+    @Test
+    public void testLoadCompressed() throws IOException
+    {
+        EdgeList edges = new GraphGenerator(3).erdosRenyi(500, 4000);
+        GraphWriter.Encoding[] encodings = {GraphWriter.Encoding.TEXT, GraphWriter.Encoding.BINARY};
+        GraphLoader.Format[] formats = {GraphLoader.Format.DEFAULT, GraphLoader.Format.BINARY};
+        for (GraphWriter.Compression compression : GraphWriter.Compression.values()) {
+            for (int i = 0; i < encodings.length; i++) {
+                File file = folder.newFile();
+                GraphWriter.write(edges, file.toPath(), encodings[i], compression);
+                EdgeList read = new GraphLoader(formats[i]).load(file.toPath(), compression);
+                assertEquals(edges.getNoVertices(), read.getNoVertices());
+                assertEquals(edges.size(), read.size());
+                for (int e = 0; e < edges.size(); e++) {
+                    assertEquals(edges.source(e), read.source(e));
+                    assertEquals(edges.target(e), read.target(e));
+                    assertEquals(edges.weight(e), read.weight(e));
+                }
+            }
+        }
+    }
+}
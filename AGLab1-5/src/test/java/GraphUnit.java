@@ -170,4 +170,36 @@ public class GraphUnit {
         assertFalse(graph.existsVertex(3));
         assertTrue(graph.existsVertex(5));
     }
+
+    @Test
+    public void testLookupAfterMutations()
+    {
+        Graph graph = new Graph();
+        Vertex v0 = new Vertex(0);
+        Vertex v1 = new Vertex(1);
+        Vertex v2 = new Vertex(2);
+        Edge e1 = new Edge(v0, v1, 10);
+        Edge e2 = new Edge(v1, v2, 20);
+        Edge e3 = new Edge(v2, v0, 5);
+        graph.addVertex(v0);
+        graph.addVertex(v1);
+        graph.addVertex(v2);
+        graph.addEdge(e1);
+        graph.addEdge(e2);
+        graph.addEdge(e3);
+
+        graph.removeEdge(e1);
+        assertEquals(graph.getEdge(0, 1), Optional.empty());
+        assertEquals(graph.existsEdge(v0, v1), Optional.empty());
+        assertEquals(v1.getInEdge(0), Optional.empty());
+
+        graph.removeVertex(v1);
+        assertEquals(graph.getNoVertices(), 2);
+        assertEquals(graph.getNoEdges(), 1);
+        assertEquals(graph.getVertexById(1).get(), v2);
+        assertFalse(graph.existsVertex(2));
+        assertEquals(graph.getEdge(1, 0).get(), e3);
+        assertEquals(v2.getInDegree(), 0);
+        assertEquals(v0.getInEdge(1).get(), e3);
+    }
 }
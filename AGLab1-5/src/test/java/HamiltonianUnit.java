@@ -0,0 +1,200 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HamiltonianUnit {
+    private static void addUndirected(EdgeList edges, int u, int v, int weight)
+    {
+        edges.add(u, v, weight);
+        edges.add(v, u, weight);
+    }
+
+    private static void assertCycle(GraphView graph, HamiltonianCycleSolver.Result result)
+    {
+        int n = graph.getNoVertices();
+        int[] cycle = result.getCycle();
+        assertEquals(n + 1, cycle.length);
+        assertEquals(cycle[0], cycle[n]);
+        boolean[] seen = new boolean[n];
+        long cost = 0;
+        for (int i = 0; i < n; i++) {
+            int u = graph.indexOf(cycle[i]);
+            int v = graph.indexOf(cycle[i + 1]);
+            assertFalse(seen[u]);
+            seen[u] = true;
+            long weight = Long.MAX_VALUE;
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                if (graph.outTarget(e) == v) {
+                    weight = Math.min(weight, graph.outWeight(e));
+                }
+            }
+            assertNotEquals(Long.MAX_VALUE, weight);
+            cost += weight;
+        }
+        assertEquals(cost, result.getCost());
+    }
+
+    /*
+     * Random undirected graph over a hidden Hamiltonian cycle
+     */
+    private static CsrGraph randomHamiltonian(long seed, int n, int extraEdges)
+    {
+        Random random = new Random(seed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        EdgeList edges = new EdgeList(n);
+        for (int i = 0; i < n; i++) {
+            addUndirected(edges, order[i], order[(i + 1) % n], 1 + random.nextInt(20));
+        }
+        for (int i = 0; i < extraEdges; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u != v) {
+                addUndirected(edges, u, v, 1 + random.nextInt(20));
+            }
+        }
+        return edges.toCsr();
+    }
+
+    @Test
+    public void testFindsCycle()
+    {
+        CsrGraph small = randomHamiltonian(1, 12, 10);
+        HamiltonianCycleSolver.Result result = new HamiltonianCycleSolver(small).solve();
+        assertEquals(HamiltonianCycleSolver.Status.FOUND, result.getStatus());
+        assertCycle(small, result);
+
+        CsrGraph large = randomHamiltonian(2, 60, 40);
+        result = new HamiltonianCycleSolver(large).solve();
+        assertEquals(HamiltonianCycleSolver.Status.FOUND, result.getStatus());
+        assertCycle(large, result);
+    }
+
+    @Test
+    public void testNoCycle()
+    {
+        // Two cycles that share a single vertex
+        EdgeList edges = new EdgeList(21);
+        for (int i = 0; i < 10; i++) {
+            addUndirected(edges, i, i + 1, 1);
+            addUndirected(edges, 10 + i, 10 + i + 1, 1);
+        }
+        addUndirected(edges, 10, 0, 1);
+        addUndirected(edges, 20, 10, 1);
+        assertEquals(HamiltonianCycleSolver.Status.NOT_FOUND, new HamiltonianCycleSolver(edges.toCsr()).solve().getStatus());
+
+        EdgeList star = new EdgeList(5);
+        for (int i = 1; i < 5; i++) {
+            addUndirected(star, 0, i, 1);
+        }
+        HamiltonianCycleSolver.Result result = new HamiltonianCycleSolver(star.toCsr()).solve();
+        assertEquals(HamiltonianCycleSolver.Status.NOT_FOUND, result.getStatus());
+        assertFalse(result.hasCycle());
+    }
+
+    @Test
+    public void testLowestCostAgreesWithHeldKarp()
+    {
+        for (long seed = 0; seed < 4; seed++) {
+            CsrGraph graph = randomHamiltonian(seed, 13, 25);
+            HamiltonianCycleSolver heldKarp = new HamiltonianCycleSolver(graph);
+            heldKarp.setLowestCost(true);
+            HamiltonianCycleSolver.Result exact = heldKarp.solve();
+            assertEquals(HamiltonianCycleSolver.Status.FOUND, exact.getStatus());
+            assertCycle(graph, exact);
+
+            HamiltonianCycleSolver backtracking = new HamiltonianCycleSolver(graph);
+            backtracking.setLowestCost(true);
+            backtracking.setMaxHeldKarpVertices(0);
+            HamiltonianCycleSolver.Result result = backtracking.solve();
+            assertEquals(HamiltonianCycleSolver.Status.FOUND, result.getStatus());
+            assertCycle(graph, result);
+            assertEquals(exact.getCost(), result.getCost());
+        }
+    }
+
+    @Test
+    public void testTimeLimit()
+    {
+        // Far too large to prove a lowest cost cycle within the limit
+        CsrGraph graph = randomHamiltonian(5, 400, 2000);
+        HamiltonianCycleSolver solver = new HamiltonianCycleSolver(graph);
+        solver.setLowestCost(true);
+        solver.setTimeLimit(200);
+        long started = System.nanoTime();
+        HamiltonianCycleSolver.Result result = solver.solve();
+        assertTrue(System.nanoTime() - started < 5_000_000_000L);
+        assertEquals(HamiltonianCycleSolver.Status.TIMED_OUT, result.getStatus());
+        if (result.hasCycle()) {
+            assertCycle(graph, result);
+        }
+    }
+
+    @Test
+    public void testTimeLimitIsReportedSeparately()
+    {
+        // Two cliques that share one vertex: no cycle, but every Hamiltonian path of the first clique is tried
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[23];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(i);
+            graph.addVertex(vertices[i]);
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                if ((i <= 11 && j <= 11) || (i >= 11 && j >= 11)) {
+                    graph.addEdge(new Edge(vertices[i], vertices[j], 1));
+                    graph.addEdge(new Edge(vertices[j], vertices[i], 1));
+                }
+            }
+        }
+        try {
+            Util.FindHamiltonianCycle(graph, 100);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("within 100ms"));
+        }
+        try {
+            Util.FindHamiltonianCycle(new EdgeList(3).toGraph());
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals("The graph does not contain a Hamiltonian cycle!", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testGraphUnchanged()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[5];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(i * 3);
+            graph.addVertex(vertices[i]);
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            for (int j = i + 1; j < vertices.length; j++) {
+                graph.addEdge(new Edge(vertices[i], vertices[j], 1));
+                graph.addEdge(new Edge(vertices[j], vertices[i], 1));
+            }
+        }
+        int edges = graph.getNoEdges();
+        List<Vertex> cycle = Util.FindHamiltonianCycle(graph);
+        assertEquals(vertices.length + 1, cycle.size());
+        assertSame(cycle.get(0), cycle.get(vertices.length));
+        assertEquals(edges, graph.getNoEdges());
+        for (Vertex v : vertices) {
+            assertEquals(vertices.length - 1, v.getOutDegree());
+        }
+    }
+}
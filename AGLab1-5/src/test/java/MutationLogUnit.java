@@ -0,0 +1,116 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class MutationLogUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecoverLoggedChanges() throws IOException
+    {
+        File directory = folder.newFolder("log");
+        Controller controller = new Controller(Graph.readGraph("res/ex.txt"));
+        controller.openMutationLog(directory.toPath(), Long.MAX_VALUE);
+
+        controller.addVertex(new Vertex(7));
+        controller.addEdge(new Edge(controller.getVertexById(7), controller.getVertexById(0), 42));
+        controller.updateEdgeWeight(0, 3, 99);
+        controller.removeEdge(controller.getEdge(4, 1));
+        controller.removeVertex(controller.getVertexById(2));
+        controller.closeMutationLog();
+
+        MutationLog log = new MutationLog(directory.toPath(), false);
+        Graph recovered = log.recover();
+        log.close();
+
+        assertEquals(recovered.getNoVertices(), 7);
+        assertEquals(recovered.getNoEdges(), 7);
+        assertEquals(recovered.getEdge(0, 2).get().getWeight(), 99);
+        assertEquals(recovered.getEdge(6, 0).get().getWeight(), 42);
+        assertFalse(recovered.getEdge(3, 1).isPresent());
+    }
+
+    @Test
+    public void testCorruptOperation() throws IOException
+    {
+        File directory = folder.newFolder("log");
+        byte[] record = new byte[1 + 3 * Integer.BYTES];
+        record[0] = 99;
+        java.nio.file.Files.write(directory.toPath().resolve("log-0.bin"), record);
+
+        MutationLog log = new MutationLog(directory.toPath(), false);
+        try {
+            log.recover();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().startsWith("Corrupt log record at byte 0"));
+        } finally {
+            log.close();
+        }
+    }
+
+    @Test
+    public void testCheckpointCompactsLog() throws IOException
+    {
+        File directory = folder.newFolder("log");
+        Controller controller = new Controller(Graph.readGraph("res/ex.txt"));
+        controller.openMutationLog(directory.toPath(), Long.MAX_VALUE);
+        controller.updateEdgeWeight(1, 6, 3);
+        controller.checkpoint();
+        controller.updateEdgeWeight(1, 6, 8);
+        controller.closeMutationLog();
+
+        String[] files = directory.list();
+        assertNotNull(files);
+        assertEquals(files.length, 2);
+
+        Controller reopened = new Controller(new Graph());
+        reopened.openMutationLog(directory.toPath(), Long.MAX_VALUE);
+        assertEquals(reopened.getNoVertices(), 7);
+        assertEquals(reopened.getEdge(1, 6).getWeight(), 8);
+        reopened.closeMutationLog();
+    }
+
+    @Test
+    public void testMissingEdgeIsNotLogged() throws IOException
+    {
+        File directory = folder.newFolder("log");
+        Controller controller = new Controller(Graph.readGraph("res/ex.txt"));
+        controller.openMutationLog(directory.toPath(), Long.MAX_VALUE);
+        int edges = controller.getNoEdges();
+        try {
+            controller.removeEdge(new Edge(controller.getVertexById(1), controller.getVertexById(2), 1));
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals(edges, controller.getNoEdges());
+        }
+        controller.closeMutationLog();
+
+        Controller reopened = new Controller(new Graph());
+        reopened.openMutationLog(directory.toPath(), Long.MAX_VALUE);
+        assertEquals(edges, reopened.getNoEdges());
+        reopened.closeMutationLog();
+    }
+
+    @Test
+    public void testSnapshotSpansChunks() throws IOException
+    {
+        File directory = folder.newFolder("log");
+        Graph graph = new GraphGenerator(5).erdosRenyi(2000, 150000).toGraph();
+        Controller controller = new Controller(graph);
+        controller.openMutationLog(directory.toPath(), Long.MAX_VALUE, false);
+        controller.closeMutationLog();
+
+        MutationLog log = new MutationLog(directory.toPath(), false);
+        Graph recovered = log.recover();
+        log.close();
+        assertEquals(2000, recovered.getNoVertices());
+        assertEquals(150000, recovered.getNoEdges());
+    }
+}
@@ -0,0 +1,152 @@
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PathCacheUnit {
+    private static List<Integer> ids(List<Vertex> path)
+    {
+        return path.stream().map(Vertex::getvID).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testHitsAndInvalidation() throws FileNotFoundException
+    {
+        Controller controller = new Controller(Graph.readGraph("res/ex.txt"));
+        PathCache cache = controller.getPathCache();
+        List<Vertex> first = controller.lowestCostPath(4, 3);
+        assertEquals(Arrays.asList(4, 0, 3), ids(first));
+        assertSame(first, controller.lowestCostPath(4, 3));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // Every mutation makes the cached path stale
+        Edge edge = controller.getEdge(4, 0);
+        edge.setWeight(edge.getWeight() + 1000);
+        assertEquals(Util.dijkstraLowestCostPath(controller.getGraph(), 4, 3), controller.lowestCostPath(4, 3));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getInvalidations());
+
+        controller.removeEdge(edge);
+        assertEquals(Util.dijkstraLowestCostPath(controller.getGraph(), 4, 3), controller.lowestCostPath(4, 3));
+        assertEquals(3, cache.getMisses());
+
+        controller.setGraph(Graph.readGraph("res/ex.txt"));
+        assertEquals(Arrays.asList(4, 0, 3), ids(controller.lowestCostPath(4, 3)));
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void testQueriesDuringMutations() throws InterruptedException
+    {
+        Controller controller = new Controller(new GraphGenerator(8).erdosRenyi(300, 1500).toGraph());
+        Vertex[] vertices = controller.getGraph().getVertices().toArray(new Vertex[0]);
+        Throwable[] failure = new Throwable[1];
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    Vertex v1 = vertices[i % vertices.length];
+                    Vertex v2 = vertices[(7 * i + 1) % vertices.length];
+                    if (v1.getOutEdge(v2.getvID()).isPresent()) {
+                        controller.updateEdgeWeight(v1.getvID(), v2.getvID(), i);
+                        continue;
+                    }
+                    Edge edge = new Edge(v1, v2, 1);
+                    controller.addEdge(edge);
+                    controller.removeEdge(edge);
+                }
+            } catch (Throwable ex) {
+                failure[0] = ex;
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 300; i++) {
+            try {
+                controller.lowestCostPath(vertices[i].getvID(), vertices[(i + 1) % vertices.length].getvID());
+            } catch (IllegalStateException ex) {
+                assertEquals("No such path!", ex.getMessage());
+            }
+        }
+        writer.join();
+        assertNull(failure[0]);
+
+        // Whatever was cached during the mutations belongs to an older version
+        for (int i = 0; i < 300; i++) {
+            int start = vertices[i].getvID();
+            int end = vertices[(i + 1) % vertices.length].getvID();
+            try {
+                assertEquals(Util.dijkstraLowestCostPath(controller.getGraph(), start, end), controller.lowestCostPath(start, end));
+            } catch (IllegalStateException ex) {
+                assertEquals("No such path!", ex.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testAlgorithmsAreSeparate() throws FileNotFoundException
+    {
+        Controller controller = new Controller(Graph.readGraph("res/ex.txt"));
+        controller.lowestCostPath(4, 3);
+        controller.shortestPath(4, 3);
+        assertEquals(0, controller.getPathCache().getHits());
+        assertEquals(2, controller.getPathCache().size());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        PathCache cache = new PathCache(2);
+        Vertex vertex = new Vertex(0);
+        int[] computed = new int[1];
+        for (int target : new int[]{1, 2, 1, 3, 2}) {
+            cache.get(0, () -> 7, PathCache.Algorithm.SHORTEST, 0, target, () -> {
+                computed[0]++;
+                return Arrays.asList(vertex);
+            });
+        }
+        // 1 is kept by its second use, 2 is evicted by 3 and computed again, which evicts 1
+        assertEquals(4, computed[0]);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getEvictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGraphsWithEqualVersionsAreSeparate()
+    {
+        PathCache cache = new PathCache(4);
+        Vertex vertex = new Vertex(0);
+        int[] computed = new int[1];
+        for (long graph : new long[]{1, 2, 1}) {
+            cache.get(graph, () -> 5, PathCache.Algorithm.SHORTEST, 0, 1, () -> {
+                computed[0]++;
+                return Arrays.asList(vertex);
+            });
+        }
+        assertEquals(3, computed[0]);
+        assertEquals(0, cache.getHits());
+        assertNotEquals(new Graph().getId(), new Graph().getId());
+    }
+
+    @Test
+    public void testFailuresAreNotCached()
+    {
+        PathCache cache = new PathCache(4);
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get(0, () -> 1, PathCache.Algorithm.LOWEST_COST, 0, 1, () -> {
+                    throw new IllegalStateException("No such path!");
+                });
+                fail();
+            } catch (IllegalStateException ex) {
+                assertEquals(0, cache.size());
+            }
+        }
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -0,0 +1,74 @@
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReachabilityUnit {
+    /*
+     * Mostly forward edges, so the graph has long chains, with a few backward edges that close cycles
+     */
+    private static CsrGraph randomGraph(long seed, int noVertices, int noEdges)
+    {
+        Random random = new Random(seed);
+        EdgeList edges = new EdgeList(noVertices, noEdges);
+        for (int i = 0; i < noEdges; i++) {
+            int u = random.nextInt(noVertices - 1);
+            int v = u + 1 + random.nextInt(Math.min(40, noVertices - 1 - u));
+            if (random.nextInt(50) == 0) {
+                edges.add(v, u, 1);
+            } else {
+                edges.add(u, v, 1);
+            }
+        }
+        return edges.toCsr();
+    }
+
+    @Test
+    public void testAgreesWithBfs()
+    {
+        CsrGraph graph = randomGraph(5, 3000, 4500);
+        BfsEngine bfs = new BfsEngine(graph);
+        ReachabilityIndex[] indices = {new ReachabilityIndex(graph), new ReachabilityIndex(graph, 1, 7),
+                new ReachabilityIndex(graph, 6, 11)};
+        Random random = new Random(3);
+        for (int i = 0; i < 40; i++) {
+            int source = random.nextInt(graph.getNoVertices());
+            BitSet reached = bfs.reachable(source);
+            for (int target = 0; target < graph.getNoVertices(); target++) {
+                for (ReachabilityIndex index : indices) {
+                    assertEquals(reached.get(target), index.reachable(source, target));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testComponentsAndStatistics()
+    {
+        // 0 <-> 1 -> 2 -> 3 <-> 4
+        EdgeList edges = new EdgeList(6);
+        edges.add(0, 1, 1);
+        edges.add(1, 0, 1);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 1);
+        edges.add(3, 4, 1);
+        edges.add(4, 3, 1);
+        ReachabilityIndex index = new ReachabilityIndex(edges.toCsr());
+        assertEquals(index.getComponentOf(0), index.getComponentOf(1));
+        assertTrue(index.reachable(1, 0));
+        assertTrue(index.reachable(0, 4));
+        assertFalse(index.reachable(4, 2));
+        assertFalse(index.reachable(0, 5));
+        assertFalse(index.reachable(5, 0));
+        assertTrue(index.reachable(5, 5));
+
+        ReachabilityIndex.Statistics statistics = index.getStatistics();
+        assertEquals(4, statistics.getComponents());
+        assertEquals(2, statistics.getEdges());
+        assertEquals(ReachabilityIndex.DEFAULT_NO_LABELS, statistics.getLabels());
+        assertTrue(statistics.getBytes() > 0);
+        assertTrue(statistics.getMillis() > 0);
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SccUnit {
+    /*
+     * Smallest vertex index of the component of every vertex, which does not depend on the numbering
+     */
+    private static int[] canonical(StronglyConnectedComponents.Result result, int n)
+    {
+        int[] smallest = new int[result.getNoComponents()];
+        java.util.Arrays.fill(smallest, Integer.MAX_VALUE);
+        for (int v = 0; v < n; v++) {
+            smallest[result.getComponentOf(v)] = Math.min(smallest[result.getComponentOf(v)], v);
+        }
+        int[] canonical = new int[n];
+        for (int v = 0; v < n; v++) {
+            canonical[v] = smallest[result.getComponentOf(v)];
+        }
+        return canonical;
+    }
+
+    @Test
+    public void testSmallGraph()
+    {
+        // {0, 1, 2} -> {3, 4} -> 5, and 6 alone
+        EdgeList edges = new EdgeList(7);
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 1);
+        edges.add(2, 0, 1);
+        edges.add(2, 3, 4);
+        edges.add(1, 4, 2);
+        edges.add(3, 4, 1);
+        edges.add(4, 3, 1);
+        edges.add(4, 5, 3);
+        CsrGraph graph = edges.toCsr();
+        StronglyConnectedComponents.Result result = new StronglyConnectedComponents(graph).tarjan();
+        assertEquals(4, result.getNoComponents());
+        assertArrayEquals(new int[]{0, 1, 2}, result.getComponentIds(result.getComponentOf(0)));
+        assertArrayEquals(new int[]{3, 4}, result.getComponentIds(result.getComponentOf(4)));
+        assertTrue(result.getComponentOf(0) < result.getComponentOf(3));
+        assertTrue(result.getComponentOf(3) < result.getComponentOf(5));
+        assertArrayEquals(canonical(result, 7),
+                canonical(new StronglyConnectedComponents(graph).forwardBackward(), 7));
+    }
+
+    @Test
+    public void testTarjanAndForwardBackwardAgree()
+    {
+        Random random = new Random(21);
+        int n = 30000;
+        EdgeList edges = new EdgeList(n);
+        for (int i = 0; i < 60000; i++) {
+            edges.add(random.nextInt(n), random.nextInt(n), 1);
+        }
+        CsrGraph graph = edges.toCsr();
+        StronglyConnectedComponents.Result tarjan = new StronglyConnectedComponents(graph).tarjan();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        StronglyConnectedComponents.Result parallel = new StronglyConnectedComponents(graph, pool).forwardBackward();
+        pool.shutdown();
+
+        assertEquals(tarjan.getNoComponents(), parallel.getNoComponents());
+        assertArrayEquals(canonical(tarjan, n), canonical(parallel, n));
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                assertTrue(tarjan.getComponentOf(u) <= tarjan.getComponentOf(graph.outTarget(e)));
+            }
+        }
+    }
+
+    @Test
+    public void testDeepCycle()
+    {
+        int n = 300000;
+        EdgeList edges = new EdgeList(n, n);
+        for (int i = 0; i < n; i++) {
+            edges.add(i, (i + 1) % n, 1);
+        }
+        CsrGraph graph = edges.toCsr();
+        assertEquals(1, new StronglyConnectedComponents(graph).tarjan().getNoComponents());
+        assertEquals(1, new StronglyConnectedComponents(graph).forwardBackward().getNoComponents());
+    }
+
+    @Test
+    public void testCondensation()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[6];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(i);
+            graph.addVertex(vertices[i]);
+        }
+        graph.addEdge(new Edge(vertices[0], vertices[1], 1));
+        graph.addEdge(new Edge(vertices[1], vertices[0], 1));
+        graph.addEdge(new Edge(vertices[1], vertices[2], 5));
+        graph.addEdge(new Edge(vertices[0], vertices[2], 7));
+        graph.addEdge(new Edge(vertices[2], vertices[3], 1));
+        graph.addEdge(new Edge(vertices[3], vertices[4], 1));
+        graph.addEdge(new Edge(vertices[4], vertices[2], 1));
+        graph.addEdge(new Edge(vertices[4], vertices[5], 2));
+
+        StronglyConnectedComponents.Result result = new StronglyConnectedComponents(graph.freeze()).tarjan();
+        Graph condensation = result.condensation();
+        assertEquals(3, condensation.getNoVertices());
+        assertEquals(2, condensation.getNoEdges());
+        int first = result.getComponentOf(0);
+        int middle = result.getComponentOf(2);
+        int last = result.getComponentOf(5);
+        assertEquals(7, condensation.getEdge(first, middle).get().getWeight());
+
+        Graph.TopologicalSort(condensation);
+        List<Vertex> path = Graph.HighestCostPath(condensation, first, last);
+        assertEquals(3, path.size());
+        assertEquals(last, path.get(2).getvID());
+    }
+}
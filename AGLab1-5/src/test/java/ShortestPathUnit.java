@@ -0,0 +1,280 @@
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ShortestPathUnit {
+    private static long pathCost(GraphView graph, int[] path)
+    {
+        long cost = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            int u = graph.indexOf(path[i]);
+            int v = graph.indexOf(path[i + 1]);
+            long best = Long.MAX_VALUE;
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                if (graph.outTarget(e) == v) {
+                    best = Math.min(best, graph.outWeight(e));
+                }
+            }
+            assertNotEquals(Long.MAX_VALUE, best);
+            cost += best;
+        }
+        return cost;
+    }
+
+    @Test
+    public void testQueuesAgree()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(17, 2000, 12000, 0, 500);
+        ShortestPathTree heap = new DijkstraEngine(csr, DijkstraEngine.QueueKind.D_ARY_HEAP).run(0, DijkstraEngine.Direction.FORWARD);
+        ShortestPathTree dial = new DijkstraEngine(csr, DijkstraEngine.QueueKind.DIAL).run(0, DijkstraEngine.Direction.FORWARD);
+        ShortestPathTree radix = new DijkstraEngine(csr, DijkstraEngine.QueueKind.RADIX_HEAP).run(0, DijkstraEngine.Direction.FORWARD);
+        for (int v = 0; v < csr.getNoVertices(); v++) {
+            assertEquals(heap.getDistance(v), dial.getDistance(v));
+            assertEquals(heap.getDistance(v), radix.getDistance(v));
+            if (heap.reaches(v)) {
+                assertEquals(heap.getDistance(v), pathCost(csr, radix.pathTo(v)));
+            }
+        }
+    }
+
+    @Test
+    public void testBackwardSearch()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(23, 500, 3000, 0, 20);
+        ShortestPathTree forward = new DijkstraEngine(csr).run(3, DijkstraEngine.Direction.FORWARD);
+        for (int v = 0; v < csr.getNoVertices(); v++) {
+            ShortestPathTree backward = new DijkstraEngine(csr, DijkstraEngine.QueueKind.RADIX_HEAP).run(v, DijkstraEngine.Direction.BACKWARD, 3);
+            assertEquals(forward.getDistance(v), backward.getDistance(3));
+            if (forward.reaches(v)) {
+                int[] path = backward.pathTo(3);
+                assertEquals(3, path[0]);
+                assertEquals(v, path[path.length - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testGraphLowestCostPathAgreesWithEngine()
+    {
+        Graph graph = new GraphGenerator(124).erdosRenyi(60, 400).toGraph();
+        CsrGraph csr = graph.freeze();
+        for (int start = 0; start < csr.getNoVertices(); start++) {
+            ShortestPathTree tree = new DijkstraEngine(csr).run(start, DijkstraEngine.Direction.FORWARD);
+            for (int end = 0; end < csr.getNoVertices(); end++) {
+                if (!tree.reaches(end)) {
+                    continue;
+                }
+                List<Vertex> path = Util.dijkstraLowestCostPath(graph, csr.vertexId(start), csr.vertexId(end));
+                int[] ids = path.stream().mapToInt(Vertex::getvID).toArray();
+                assertEquals(csr.vertexId(start), ids[0]);
+                assertEquals(csr.vertexId(end), ids[ids.length - 1]);
+                assertEquals(tree.getDistance(end), pathCost(csr, ids));
+            }
+        }
+    }
+
+    @Test
+    public void testGraphLowestCostPath() throws FileNotFoundException
+    {
+        Graph graph = Graph.readGraph("res/ex.txt");
+        List<Integer> path = Util.dijkstraLowestCostPath(graph, 4, 3).stream().map(Vertex::getvID).collect(Collectors.toList());
+        int[] expected = Util.dijkstraLowestCostPath(graph.freeze(), 4, 3);
+        assertArrayEquals(new int[]{4, 0, 3}, expected);
+        assertEquals(expected.length, path.size());
+        assertEquals(pathCost(graph.freeze(), expected), pathCost(graph.freeze(), path.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    @Test
+    public void testPointToPointQueries()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(31, 3000, 9000, 0, 100);
+        PointToPointQuery query = new PointToPointQuery(csr);
+        query.selectLandmarks(8);
+        assertEquals(8, query.getLandmarks().length);
+
+        long dijkstraSettled = 0, altSettled = 0;
+        DijkstraEngine engine = new DijkstraEngine(csr);
+        for (int s = 0; s < 40; s++) {
+            ShortestPathTree tree = engine.run(s, DijkstraEngine.Direction.FORWARD);
+            int t = (s * 7919 + 13) % csr.getNoVertices();
+            if (!tree.reaches(t)) {
+                continue;
+            }
+            PointToPointQuery.Result plain = query.dijkstra(s, t);
+            PointToPointQuery.Result bidirectional = query.bidirectional(s, t);
+            PointToPointQuery.Result alt = query.alt(s, t);
+            assertEquals(tree.getDistance(t), plain.getDistance());
+            assertEquals(tree.getDistance(t), bidirectional.getDistance());
+            assertEquals(tree.getDistance(t), alt.getDistance());
+            assertEquals(tree.getDistance(t), pathCost(csr, bidirectional.getPath()));
+            assertEquals(tree.getDistance(t), pathCost(csr, alt.getPath()));
+            assertEquals(s, bidirectional.getPath()[0]);
+            assertEquals(t, bidirectional.getPath()[bidirectional.getPath().length - 1]);
+            dijkstraSettled += plain.getSettled();
+            altSettled += alt.getSettled();
+        }
+        assertTrue(altSettled < dijkstraSettled);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPointToPointNoPath()
+    {
+        Graph graph = new Graph();
+        graph.addVertex(new Vertex(0));
+        graph.addVertex(new Vertex(1));
+        new PointToPointQuery(graph.freeze()).bidirectional(1, 0);
+    }
+
+    @Test
+    public void testContractionHierarchy()
+    {
+        GraphGenerator generator = new GraphGenerator(41);
+        generator.setWeights(GraphGenerator.WeightDistribution.uniform(0, 50));
+        Graph graph = generator.erdosRenyi(600, 2400).toGraph();
+        CsrGraph csr = graph.freeze();
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        DijkstraEngine engine = new DijkstraEngine(csr);
+
+        for (int s = 0; s < 30; s++) {
+            ShortestPathTree tree = engine.run(s, DijkstraEngine.Direction.FORWARD);
+            for (int t = 0; t < csr.getNoVertices(); t += 37) {
+                assertEquals(tree.reaches(t) ? tree.getDistance(t) : Long.MAX_VALUE, hierarchy.distance(s, t));
+                if (tree.reaches(t)) {
+                    List<Vertex> path = hierarchy.lowestCostPath(s, t);
+                    int[] ids = path.stream().mapToInt(Vertex::getvID).toArray();
+                    assertEquals(s, ids[0]);
+                    assertEquals(t, ids[ids.length - 1]);
+                    assertEquals(tree.getDistance(t), pathCost(csr, ids));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeltaStepping()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(53, 5000, 30000, 0, 200);
+        ShortestPathTree expected = new DijkstraEngine(csr).run(0, DijkstraEngine.Direction.FORWARD);
+        DeltaStepping deltaStepping = new DeltaStepping(csr);
+        deltaStepping.setSequentialThreshold(0);
+        for (long delta : new long[]{1, 7, deltaStepping.getDelta(), 1000}) {
+            deltaStepping.setDelta(delta);
+            ShortestPathTree tree = deltaStepping.run(0);
+            for (int v = 0; v < csr.getNoVertices(); v++) {
+                assertEquals(expected.getDistance(v), tree.getDistance(v));
+                if (tree.reaches(v)) {
+                    assertEquals(tree.getDistance(v), pathCost(csr, tree.pathTo(v)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBellmanFord()
+    {
+        CsrGraph csr = TestGraphs.randomGraph(61, 3000, 15000, 0, 100);
+        ShortestPathTree expected = new DijkstraEngine(csr).run(5, DijkstraEngine.Direction.FORWARD);
+        BellmanFord.Result result = new BellmanFord(csr).run(5);
+        assertFalse(result.hasNegativeCycle());
+        for (int v = 0; v < csr.getNoVertices(); v++) {
+            assertEquals(expected.getDistance(v), result.getTree().getDistance(v));
+        }
+    }
+
+    @Test
+    public void testBellmanFordNegativeWeights()
+    {
+        EdgeList edges = new EdgeList(5);
+        edges.add(0, 1, 4);
+        edges.add(0, 2, 5);
+        edges.add(2, 1, -3);
+        edges.add(1, 3, 2);
+        edges.add(3, 4, -1);
+        BellmanFord.Result result = new BellmanFord(edges.toCsr()).run(0);
+        assertEquals(4, result.getTree().getDistance(3));
+        assertArrayEquals(new int[]{0, 2, 1, 3, 4}, result.getTree().pathTo(4));
+        assertArrayEquals(new int[]{0, 2, 1, 3, 4}, Util.bellmanFordLowestCostPath(edges.toCsr(), 0, 4));
+    }
+
+    @Test
+    public void testBellmanFordLongChain()
+    {
+        // One vertex changes per round, so the negative cycle checks must not walk every vertex every round
+        int n = 80000;
+        EdgeList edges = new EdgeList(n, n);
+        for (int i = 0; i + 1 < n; i++) {
+            edges.add(i, i + 1, -1);
+        }
+        BellmanFord.Result result = new BellmanFord(edges.toCsr()).run(0);
+        assertFalse(result.hasNegativeCycle());
+        assertEquals(-(n - 1), result.getTree().getDistance(n - 1));
+    }
+
+    @Test
+    public void testBellmanFordNegativeCycle()
+    {
+        EdgeList edges = new EdgeList(6);
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 1);
+        edges.add(3, 4, -2);
+        edges.add(4, 2, 0);
+        edges.add(4, 5, 1);
+        BellmanFord.Result result = new BellmanFord(edges.toCsr()).run(0);
+        assertTrue(result.hasNegativeCycle());
+        int[] cycle = result.getNegativeCycle();
+        assertEquals(3, cycle.length);
+        int start = 0;
+        while (cycle[start] != 2) {
+            start++;
+        }
+        assertArrayEquals(new int[]{2, 3, 4}, new int[]{cycle[start], cycle[(start + 1) % 3], cycle[(start + 2) % 3]});
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDijkstraRejectsNegativeWeights() throws FileNotFoundException
+    {
+        Graph graph = Graph.readGraph("res/ex.txt");
+        graph.getEdge(4, 0).get().setWeight(-1);
+        Util.dijkstraLowestCostPath(graph, 4, 3);
+    }
+
+    @Test
+    public void testBatchedPaths()
+    {
+        GraphGenerator generator = new GraphGenerator(31);
+        generator.setWeights(GraphGenerator.WeightDistribution.uniform(0, 40));
+        EdgeList edges = generator.erdosRenyi(300, 900);
+        Controller controller = new Controller(edges.toGraph());
+        CsrGraph csr = edges.toCsr();
+
+        java.util.Random random = new java.util.Random(3);
+        int[][] pairs = new int[400][];
+        for (int i = 0; i < pairs.length; i++) {
+            // Few distinct starts, so that most pairs share a search
+            pairs[i] = new int[]{random.nextInt(12), random.nextInt(300)};
+        }
+        List<List<Vertex>> lowest = controller.lowestCostPaths(pairs);
+        List<List<Vertex>> shortest = controller.shortestPaths(pairs);
+        assertEquals(pairs.length, lowest.size());
+        for (int i = 0; i < pairs.length; i++) {
+            ShortestPathTree tree = new DijkstraEngine(csr).run(pairs[i][0], DijkstraEngine.Direction.FORWARD);
+            ShortestPathTree levels = Util.breadthFirstTree(csr, pairs[i][0]);
+            if (!tree.reaches(pairs[i][1])) {
+                assertTrue(lowest.get(i).isEmpty());
+                assertTrue(shortest.get(i).isEmpty());
+                continue;
+            }
+            int[] path = lowest.get(i).stream().mapToInt(Vertex::getvID).toArray();
+            assertEquals(pairs[i][0], path[0]);
+            assertEquals(pairs[i][1], path[path.length - 1]);
+            assertEquals(tree.getDistance(pairs[i][1]), pathCost(csr, path));
+            assertEquals(levels.getDistance(pairs[i][1]) + 1, shortest.get(i).size());
+            assertEquals(pairs[i][1], shortest.get(i).get(shortest.get(i).size() - 1).getvID());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * Graphs shared by the unit tests
+ */
+final class TestGraphs {
+    private TestGraphs()
+    {
+    }
+
+    /*
+     * G(n,m) random graph with weights drawn uniformly from [low, high)
+     */
+    static CsrGraph randomGraph(long seed, int noVertices, int noEdges, int low, int high)
+    {
+        GraphGenerator generator = new GraphGenerator(seed);
+        generator.setWeights(GraphGenerator.WeightDistribution.uniform(low, high));
+        return generator.erdosRenyi(noVertices, noEdges).toCsr();
+    }
+}
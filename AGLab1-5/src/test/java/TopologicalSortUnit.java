@@ -0,0 +1,169 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Stack;
+
+import static org.junit.Assert.*;
+
+public class TopologicalSortUnit {
+    private static CsrGraph randomDag(long seed, int noVertices, int noEdges)
+    {
+        Random random = new Random(seed);
+        EdgeList edges = new EdgeList(noVertices, noEdges);
+        for (int i = 0; i < noEdges; i++) {
+            int u = random.nextInt(noVertices - 1);
+            edges.add(u, u + 1 + random.nextInt(Math.min(50, noVertices - 1 - u)), 1);
+        }
+        return edges.toCsr();
+    }
+
+    private static void assertLevels(GraphView graph, TopologicalSorter.Result result)
+    {
+        int n = graph.getNoVertices();
+        int[] levelOf = new int[n];
+        int count = 0;
+        for (int level = 0; level < result.getNoLevels(); level++) {
+            for (int v : result.getLevel(level)) {
+                levelOf[v] = level;
+                count++;
+            }
+        }
+        assertEquals(n, count);
+        for (int u = 0; u < n; u++) {
+            for (int e = graph.outBegin(u); e < graph.outEnd(u); e++) {
+                assertTrue(levelOf[u] < levelOf[graph.outTarget(e)]);
+            }
+            // A vertex is in the level right after its latest predecessor
+            int expected = 0;
+            for (int e = graph.inBegin(u); e < graph.inEnd(u); e++) {
+                expected = Math.max(expected, levelOf[graph.inSource(e)] + 1);
+            }
+            assertEquals(expected, levelOf[u]);
+        }
+    }
+
+    @Test
+    public void testSequentialAndParallelLevels()
+    {
+        CsrGraph dag = randomDag(3, 20000, 80000);
+        TopologicalSorter sorter = new TopologicalSorter(dag);
+        TopologicalSorter.Result sequential = sorter.sort();
+        TopologicalSorter.Result parallel = sorter.sortParallel();
+        assertLevels(dag, sequential);
+        assertLevels(dag, parallel);
+        assertEquals(sequential.getNoLevels(), parallel.getNoLevels());
+        for (int level = 0; level < sequential.getNoLevels(); level++) {
+            int[] a = sequential.getLevel(level);
+            int[] b = parallel.getLevel(level);
+            java.util.Arrays.sort(a);
+            java.util.Arrays.sort(b);
+            assertArrayEquals(a, b);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCycle()
+    {
+        EdgeList edges = new EdgeList(4);
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 1);
+        edges.add(2, 3, 1);
+        edges.add(3, 1, 1);
+        new TopologicalSorter(edges.toCsr()).sortParallel();
+    }
+
+    @Test
+    public void testSparseIds()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = {new Vertex(10), new Vertex(3), new Vertex(42)};
+        for (Vertex v : vertices) {
+            graph.addVertex(v);
+        }
+        graph.addEdge(new Edge(vertices[2], vertices[0], 1));
+        graph.addEdge(new Edge(vertices[0], vertices[1], 1));
+        Stack<Vertex> sorted = Graph.TopologicalSort(graph);
+        assertEquals(3, sorted.pop().getvID());
+        assertEquals(10, sorted.pop().getvID());
+        assertEquals(42, sorted.pop().getvID());
+    }
+
+    private static void assertOrder(Graph graph)
+    {
+        DynamicTopologicalOrder order = graph.getTopologicalOrder().get();
+        assertEquals(graph.getNoVertices(), order.size());
+        for (Edge edge : graph.getEdges()) {
+            assertTrue(order.positionOf(edge.getV1()) < order.positionOf(edge.getV2()));
+        }
+    }
+
+    @Test
+    public void testDynamicOrder()
+    {
+        Random random = new Random(8);
+        Graph graph = new Graph();
+        Vertex[] vertices = new Vertex[300];
+        for (int i = 0; i < vertices.length; i++) {
+            vertices[i] = new Vertex(i);
+            graph.addVertex(vertices[i]);
+        }
+        graph.maintainTopologicalOrder();
+        int rejected = 0;
+        for (int i = 0; i < 1500; i++) {
+            Vertex from = vertices[random.nextInt(vertices.length)];
+            Vertex to = vertices[random.nextInt(vertices.length)];
+            if (graph.existsEdge(from, to).isPresent()) {
+                continue;
+            }
+            int edges = graph.getNoEdges();
+            try {
+                graph.addEdge(new Edge(from, to, 1));
+            } catch (IllegalStateException ex) {
+                // The edge is rejected only if it closes a cycle, and the graph stays as it was
+                rejected++;
+                assertEquals(edges, graph.getNoEdges());
+                assertTrue(from == to || Util.shortestPath(graph, to.getvID(), from.getvID()).size() > 0);
+            }
+        }
+        assertTrue(rejected > 0);
+        assertOrder(graph);
+        Graph.TopologicalSort(graph);
+
+        // A forward edge touches nothing
+        DynamicTopologicalOrder order = graph.getTopologicalOrder().get();
+        Vertex first = order.getOrder().get(0);
+        Vertex last = order.getOrder().get(order.size() - 1);
+        if (graph.existsEdge(first, last).isEmpty()) {
+            graph.addEdge(new Edge(first, last, 1));
+            assertEquals(0, order.getLastAffected());
+        }
+
+        Vertex extra = new Vertex(vertices.length);
+        graph.addVertex(extra);
+        graph.addEdge(new Edge(extra, vertices[0], 1));
+        assertOrder(graph);
+        graph.removeVertex(vertices[10]);
+        assertOrder(graph);
+    }
+
+    @Test
+    public void testControllerRejectsCycle()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = {new Vertex(0), new Vertex(1), new Vertex(2)};
+        for (Vertex v : vertices) {
+            graph.addVertex(v);
+        }
+        Controller controller = new Controller(graph);
+        controller.maintainTopologicalOrder();
+        controller.addEdge(new Edge(vertices[2], vertices[1], 1));
+        controller.addEdge(new Edge(vertices[1], vertices[0], 1));
+        assertArrayEquals(new int[]{2, 1, 0}, controller.getTopologicalOrder());
+        try {
+            controller.addEdge(new Edge(vertices[0], vertices[2], 1));
+            fail();
+        } catch (IllegalStateException ex) {
+            assertFalse(graph.getEdge(0, 2).isPresent());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class UnionFindUnit {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static EdgeList randomEdges(long seed, int noVertices, int noEdges)
+    {
+        Random random = new Random(seed);
+        EdgeList edges = new EdgeList(noVertices, noEdges);
+        for (int i = 0; i < noEdges; i++) {
+            edges.add(random.nextInt(noVertices), random.nextInt(noVertices), 1);
+        }
+        return edges;
+    }
+
+    @Test
+    public void testUnionFind()
+    {
+        UnionFind sets = new UnionFind(6);
+        assertTrue(sets.union(0, 1));
+        assertTrue(sets.union(2, 3));
+        assertTrue(sets.union(1, 3));
+        assertFalse(sets.union(0, 2));
+        assertTrue(sets.connected(0, 3));
+        assertFalse(sets.connected(0, 4));
+        assertEquals(3, sets.getNoComponents());
+        assertArrayEquals(new int[]{0, 0, 0, 0, 1, 2}, sets.componentIds());
+    }
+
+    @Test
+    public void testSequentialAndConcurrent()
+    {
+        int n = 50000;
+        EdgeList edges = randomEdges(4, n, 30000);
+        UnionFind sequential = new UnionFind(n);
+        for (int i = 0; i < edges.size(); i++) {
+            sequential.union(edges.source(i), edges.target(i));
+        }
+        ConcurrentUnionFind concurrent = new ConcurrentUnionFind(n);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        pool.submit(() -> java.util.stream.IntStream.range(0, edges.size()).parallel()
+                .forEach(i -> concurrent.union(edges.source(i), edges.target(i)))).join();
+        pool.shutdown();
+
+        assertEquals(sequential.getNoComponents(), concurrent.getNoComponents());
+        assertArrayEquals(sequential.componentIds(), concurrent.componentIds());
+        for (int i = 0; i < edges.size(); i++) {
+            assertTrue(concurrent.connected(edges.source(i), edges.target(i)));
+        }
+    }
+
+    @Test
+    public void testEngineFindsFirstCycleEdge()
+    {
+        // A path 0-1-2-3 with a second component 4-5; the edge 3-1 closes the first cycle
+        EdgeList edges = new EdgeList(6);
+        edges.add(0, 1, 1);
+        edges.add(1, 2, 1);
+        edges.add(4, 5, 1);
+        edges.add(2, 3, 1);
+        edges.add(3, 1, 1);
+        edges.add(5, 4, 1);
+        ConnectivityEngine.Report report = new ConnectivityEngine().run(edges);
+        assertTrue(report.hasCycle());
+        assertEquals(4, report.getCycleEdgeIndex());
+        assertArrayEquals(new int[]{3, 1}, report.getCycleEdge());
+        assertEquals(2, report.getNoComponents());
+        assertEquals(report.getComponentId(0), report.getComponentId(3));
+        assertNotEquals(report.getComponentId(0), report.getComponentId(5));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        EdgeList large = randomEdges(9, 100000, 60000);
+        ConnectivityEngine.Report sequential = new ConnectivityEngine().run(large);
+        ConnectivityEngine.Report parallel = new ConnectivityEngine(pool).run(large);
+        pool.shutdown();
+        assertEquals(sequential.getNoComponents(), parallel.getNoComponents());
+        assertEquals(sequential.hasCycle(), parallel.hasCycle());
+        int[] cycleEdge = parallel.getCycleEdge();
+        assertEquals(parallel.getComponentId(cycleEdge[0]), parallel.getComponentId(cycleEdge[1]));
+    }
+
+    @Test
+    public void testGraphEdgesTakenOnce()
+    {
+        Graph graph = new Graph();
+        Vertex[] vertices = {new Vertex(3), new Vertex(8), new Vertex(5), new Vertex(11)};
+        for (Vertex v : vertices) {
+            graph.addVertex(v);
+        }
+        for (int i = 0; i + 1 < vertices.length; i++) {
+            graph.addEdge(new Edge(vertices[i], vertices[i + 1], 1));
+            graph.addEdge(new Edge(vertices[i + 1], vertices[i], 1));
+        }
+        ConnectivityEngine.Report report = new ConnectivityEngine().run(graph);
+        assertFalse(report.hasCycle());
+        assertEquals(1, report.getNoComponents());
+
+        graph.addEdge(new Edge(vertices[3], vertices[0], 1));
+        report = new ConnectivityEngine().run(graph);
+        assertTrue(report.hasCycle());
+        assertEquals(0, report.getComponentId(11));
+    }
+
+    @Test
+    public void testFile() throws IOException
+    {
+        File file = folder.newFile("forest.txt");
+        Files.writeString(file.toPath(), "5 3\n0 1 1\n2 3 1\n3 4 1\n");
+        ConnectivityEngine.Report report = new ConnectivityEngine().run(file.toPath(), GraphLoader.Format.DEFAULT);
+        assertFalse(report.hasCycle());
+        assertEquals(2, report.getNoComponents());
+        assertEquals(1, report.getComponentId(4));
+
+        // 0-1-2-0 closes its cycle with the third edge; vertex 7 only appears in the SNAP header
+        file = folder.newFile("cycle.txt");
+        Files.writeString(file.toPath(), "# Nodes: 8 Edges: 5\n0 1\n1 2\n2 0\n3 4\n5 6\n");
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ConnectivityEngine.Report[] reports = {new ConnectivityEngine().run(file.toPath(), GraphLoader.Format.SNAP),
+                new ConnectivityEngine(pool).run(file.toPath(), GraphLoader.Format.SNAP)};
+        pool.shutdown();
+        for (ConnectivityEngine.Report streamed : reports) {
+            assertTrue(streamed.hasCycle());
+            assertEquals(2, streamed.getCycleEdgeIndex());
+            assertArrayEquals(new int[]{2, 0}, streamed.getCycleEdge());
+            assertEquals(4, streamed.getNoComponents());
+            assertEquals(3, streamed.getComponentId(7));
+        }
+
+        File malformed = folder.newFile("malformed.txt");
+        Files.writeString(malformed.toPath(), "3 1\n0 5 1\n");
+        try {
+            new ConnectivityEngine().run(malformed.toPath(), GraphLoader.Format.DEFAULT);
+            fail();
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().startsWith("Read number of vertices"));
+        }
+    }
+}
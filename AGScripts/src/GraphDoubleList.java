@@ -17,12 +17,14 @@ public class GraphDoubleList implements IGraph{
     public Integer addVertex() {
         this.outSets.add(new HashSet<>());
         this.inSets.add(new HashSet<>());
-        return outSets.size();
+        return this.noVertices++;
     }
 
     public void addEdge(Integer from, Integer to) {
-        this.outSets.get(from).add(to);
-        this.inSets.get(to).add(from);
+        if (this.outSets.get(from).add(to)) {
+            this.inSets.get(to).add(from);
+            this.noEdges++;
+        }
     }
     // ---------------------------------------------------
 
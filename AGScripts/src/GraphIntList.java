@@ -0,0 +1,161 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+
+public class GraphIntList implements IGraph {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[][] outLists;
+    private int[][] inLists;
+    private int[] outSizes;
+    private int[] inSizes;
+    private int noVertices;
+    private int noEdges;
+
+    /**
+     * Creates an empty graph backed by growable int arrays of neighbours
+     */
+    public GraphIntList() {
+        outLists = new int[INITIAL_CAPACITY][];
+        inLists = new int[INITIAL_CAPACITY][];
+        outSizes = new int[INITIAL_CAPACITY];
+        inSizes = new int[INITIAL_CAPACITY];
+        this.noVertices = 0;
+        this.noEdges = 0;
+    }
+
+    /**
+     * Creates a random graph with the given number of vertices and edges
+     * @param noVertices - Integer - number of vertices
+     * @param noEdges - Integer - number of edges
+     */
+    public GraphIntList(Integer noVertices, Integer noEdges) {
+        outLists = new int[noVertices][];
+        inLists = new int[noVertices][];
+        outSizes = new int[noVertices];
+        inSizes = new int[noVertices];
+        this.noVertices = 0;
+        this.noEdges = 0;
+        generateGraph(noVertices, noEdges);
+    }
+
+    public Integer addVertex() {
+        if (noVertices == outSizes.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, noVertices * 2);
+            outLists = Arrays.copyOf(outLists, capacity);
+            inLists = Arrays.copyOf(inLists, capacity);
+            outSizes = Arrays.copyOf(outSizes, capacity);
+            inSizes = Arrays.copyOf(inSizes, capacity);
+        }
+        outLists[noVertices] = new int[INITIAL_CAPACITY];
+        inLists[noVertices] = new int[INITIAL_CAPACITY];
+        return noVertices++;
+    }
+
+    public void addEdge(Integer from, Integer to) {
+        if (existsEdge(from, to)) {
+            return;
+        }
+        outLists[from] = append(outLists[from], outSizes[from]++, to);
+        inLists[to] = append(inLists[to], inSizes[to]++, from);
+        noEdges++;
+    }
+
+    public Integer getNoEdges() {
+        return noEdges;
+    }
+
+    public Integer getNoVertices() {
+        return noVertices;
+    }
+
+    public boolean existsEdge(Integer v1, Integer v2) {
+        int[] list = outLists[v1];
+        int target = v2;
+        for (int i = 0; i < outSizes[v1]; i++) {
+            if (list[i] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Set<Integer> parseNOut(Integer v) {
+        Set<Integer> outbound = new LinkedHashSet<>();
+        forEachOut(v, outbound::add);
+        return outbound;
+    }
+
+    public Set<Integer> parseNIn(Integer v) {
+        Set<Integer> inbound = new LinkedHashSet<>();
+        forEachIn(v, inbound::add);
+        return inbound;
+    }
+
+    @Override
+    public void forEachOut(int v, IntConsumer action) {
+        int[] list = outLists[v];
+        for (int i = 0; i < outSizes[v]; i++) {
+            action.accept(list[i]);
+        }
+    }
+
+    @Override
+    public void forEachIn(int v, IntConsumer action) {
+        int[] list = inLists[v];
+        for (int i = 0; i < inSizes[v]; i++) {
+            action.accept(list[i]);
+        }
+    }
+
+    /**
+     * @param v - int - represents a vertex
+     * @return int - the number of outbound vertices of Vertex v
+     */
+    public int getOutDegree(int v) {
+        return outSizes[v];
+    }
+
+    /**
+     * @param v - int - represents a vertex
+     * @return int - the number of inbound vertices of Vertex v
+     */
+    public int getInDegree(int v) {
+        return inSizes[v];
+    }
+
+    private static int[] append(int[] list, int size, int value) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private void generateGraph(Integer noVertices, Integer noEdges) {
+        Random rand = new Random();
+
+        for(int i = 0; i < noVertices; i++) {
+            this.addVertex();
+        }
+
+        while (this.noEdges < noEdges) {
+            int v1 = rand.nextInt(noVertices);
+            int v2 = rand.nextInt(noVertices);
+            this.addEdge(v1, v2);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("Graph{\n");
+        for(int v = 0; v < noVertices; v++) {
+            str.append("\t").append(v).append(":{ ");
+            for(int i = 0; i < outSizes[v]; i++) {
+                str.append(outLists[v][i]).append(" ");
+            }
+            str.append("}\n");
+        }
+        str.append("}");
+        return str.toString();
+    }
+}
@@ -1,7 +1,12 @@
 import java.util.*;
+import java.util.function.IntConsumer;
 
+/**
+ * Adjacency matrix where each row is a bitset packed into a long[]:
+ *  bit (v2 % 64) of word (v2 / 64) in row v1 is set if there is an edge from v1 to v2.
+ */
 public class GraphMatrix implements IGraph {
-    private Integer[][] matrix;
+    private long[][] rows;
     private Integer noVertices;
     private Integer noEdges;
 
@@ -11,19 +16,14 @@ public class GraphMatrix implements IGraph {
      */
     public Integer addVertex() {
         return 0;
-    }
-    /**
-     * Empty Stub
-     */
-    public void addEdge(Integer from, Integer to) {
-
     }
     // -----------------------------------------------
 
     public GraphMatrix(Integer noVertices, Integer noEdges) {
-        matrix = new Integer[noVertices][noVertices];
+        int words = (noVertices + 63) >>> 6;
+        rows = new long[noVertices][words];
         this.noVertices = noVertices;
-        this.noEdges = noEdges;
+        this.noEdges = 0;
         generateGraph(noVertices, noEdges);
     }
 
@@ -36,61 +36,133 @@ public class GraphMatrix implements IGraph {
     }
 
     public boolean existsEdge(Integer v1, Integer v2)  {
-        return matrix[v1][v2] != 0;
+        return (rows[v1][v2 >>> 6] & (1L << v2)) != 0;
     }
 
-    public Set<Integer> parseNOut(Integer v) {
-        Set<Integer> outbound = new HashSet<>();
-        for(int i = 0; i < noVertices; i++) {
-            if(matrix[v][i] != 0) {
-                outbound.add(i);
-            }
+    public void addEdge(Integer from, Integer to) {
+        long bit = 1L << to;
+        long[] row = rows[from];
+        if ((row[to >>> 6] & bit) == 0) {
+            row[to >>> 6] |= bit;
+            noEdges++;
         }
+    }
+
+    public Set<Integer> parseNOut(Integer v) {
+        Set<Integer> outbound = new LinkedHashSet<>();
+        forEachOut(v, outbound::add);
         return outbound;
     }
 
     public Set<Integer> parseNIn(Integer v) {
-        Set<Integer> inbound = new HashSet<>();
-        for(int i = 0; i < noVertices; i++) {
-            if(matrix[i][v] != 0) {
-                inbound.add(i);
-            }
-        }
+        Set<Integer> inbound = new LinkedHashSet<>();
+        forEachIn(v, inbound::add);
         return inbound;
     }
 
-    private void generateGraph(Integer noVertices, Integer noEdges) {
-        Random rand = new Random();
+    @Override
+    public void forEachOut(int v, IntConsumer action) {
+        long[] row = rows[v];
+        for (int w = 0; w < row.length; w++) {
+            long word = row[w];
+            while (word != 0) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
 
-        for(int i = 0; i < noVertices; i++) {
-            for(int j = 0; j < noVertices; j++) {
-                this.matrix[i][j] = 0;
+    @Override
+    public void forEachIn(int v, IntConsumer action) {
+        int w = v >>> 6;
+        long bit = 1L << v;
+        for (int i = 0; i < noVertices; i++) {
+            if ((rows[i][w] & bit) != 0) {
+                action.accept(i);
             }
         }
+    }
 
-        int i = 0;
-        while (i < noEdges) {
+    /**
+     * Computes the set of vertices that are outbound neighbours of v1 or of v2, one word at a time
+     * @param v1 - Integer - represents a vertex
+     * @param v2 - Integer - represents a vertex
+     * @return long[] - bitset of the union of the two rows
+     */
+    public long[] rowUnion(Integer v1, Integer v2) {
+        long[] a = rows[v1], b = rows[v2];
+        long[] result = new long[a.length];
+        for (int w = 0; w < a.length; w++) {
+            result[w] = a[w] | b[w];
+        }
+        return result;
+    }
+
+    /**
+     * Computes the set of vertices that are outbound neighbours of both v1 and v2, one word at a time
+     * @param v1 - Integer - represents a vertex
+     * @param v2 - Integer - represents a vertex
+     * @return long[] - bitset of the intersection of the two rows
+     */
+    public long[] rowIntersection(Integer v1, Integer v2) {
+        long[] a = rows[v1], b = rows[v2];
+        long[] result = new long[a.length];
+        for (int w = 0; w < a.length; w++) {
+            result[w] = a[w] & b[w];
+        }
+        return result;
+    }
+
+    /**
+     * Counts the common outbound neighbours of 2 vertices without materializing the intersection
+     * @param v1 - Integer - represents a vertex
+     * @param v2 - Integer - represents a vertex
+     * @return int - number of vertices that are outbound neighbours of both v1 and v2
+     */
+    public int countCommonOut(Integer v1, Integer v2) {
+        long[] a = rows[v1], b = rows[v2];
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Adds every outbound neighbour of {@code from} to the outbound neighbours of {@code into}
+     * @param into - Integer - represents the vertex whose row is updated
+     * @param from - Integer - represents the vertex whose row is merged
+     */
+    public void unionRowInto(Integer into, Integer from) {
+        long[] a = rows[into], b = rows[from];
+        int added = 0;
+        for (int w = 0; w < a.length; w++) {
+            added += Long.bitCount(b[w] & ~a[w]);
+            a[w] |= b[w];
+        }
+        noEdges += added;
+    }
+
+    private void generateGraph(Integer noVertices, Integer noEdges) {
+        Random rand = new Random();
+
+        while (this.noEdges < noEdges) {
             int v1 = rand.nextInt(noVertices);
             int v2 = rand.nextInt(noVertices);
-
-            if (this.existsEdge(v1, v2)) {
-                continue;
-            }
-            matrix[v1][v2] = 1;
-            i++;
+            addEdge(v1, v2);
         }
     }
 
     @Override
     public String toString() {
-        String str = "Graph{\n";
+        StringBuilder str = new StringBuilder("Graph{\n");
         for(int i = 0; i < noVertices; i++) {
             for(int j = 0; j < noVertices; j++) {
-                str += this.matrix[i][j] + " ";
+                str.append(existsEdge(i, j) ? 1 : 0).append(" ");
             }
-            str += "\n";
+            str.append("\n");
         }
-        str += "}";
-        return str;
+        str.append("}");
+        return str.toString();
     }
 }
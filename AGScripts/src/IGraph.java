@@ -1,4 +1,5 @@
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 public interface IGraph {
     /**
@@ -43,4 +44,26 @@ public interface IGraph {
      * @param to - Vertex of the edge
      */
     void addEdge(Integer from, Integer to);
+
+    /**
+     * Passes each outbound vertex of Vertex v to the given action
+     * @param v - int - represents a vertex
+     * @param action - IntConsumer - called once for every outbound vertex
+     */
+    default void forEachOut(int v, IntConsumer action) {
+        for (Integer i : parseNOut(v)) {
+            action.accept(i);
+        }
+    }
+
+    /**
+     * Passes each inbound vertex of Vertex v to the given action
+     * @param v - int - represents a vertex
+     * @param action - IntConsumer - called once for every inbound vertex
+     */
+    default void forEachIn(int v, IntConsumer action) {
+        for (Integer i : parseNIn(v)) {
+            action.accept(i);
+        }
+    }
 }
@@ -59,6 +59,13 @@ public class Main {
         //System.out.println("Adjacency matrix: ");
         //System.out.println(matrixGraph.toString() + '\n');
         Util.EvalGraph(matrixGraph, "Adjacency matrix parse");
+
+        start = System.currentTimeMillis();
+        IGraph intListGraph = new GraphIntList(n, m);
+        finish = System.currentTimeMillis();
+        genTime = finish - start;
+        System.out.println("Int arrays of neighbours for each vertex - Generation time: " + genTime + "ms");
+        Util.EvalGraph(intListGraph, "Int arrays of neighbours for each vertex parse");
     }
 
     public static void main(String[] args) {
@@ -1,4 +1,5 @@
 import java.util.*;
+import java.util.function.IntConsumer;
 
 public class Util {
     /**
@@ -8,22 +9,23 @@ public class Util {
      * @param startVertex - The vertex from which the traversal begins
      */
     public static void PrintTree(IGraph graph, Integer startVertex) {
-        Queue<Integer> queue = new LinkedList<Integer>();
-        Set<Integer> visited = new HashSet<>();
-        queue.add(startVertex);
-        visited.add(startVertex);
+        int[] queue = new int[graph.getNoVertices()];
+        int[] tail = {0};
+        boolean[] visited = new boolean[graph.getNoVertices()];
+        queue[tail[0]++] = startVertex;
+        visited[startVertex] = true;
 
         System.out.println(startVertex);
 
-        while (!queue.isEmpty()) {
-            Integer current = queue.poll();
-            for(Integer vertex : graph.parseNOut(current)) {
-                if (!visited.contains(vertex)) {
-                    queue.add(vertex);
-                    visited.add(vertex);
-                    System.out.print(vertex + "  ");
-                }
+        IntConsumer visit = vertex -> {
+            if (!visited[vertex]) {
+                queue[tail[0]++] = vertex;
+                visited[vertex] = true;
+                System.out.print(vertex + "  ");
             }
+        };
+        for (int head = 0; head < tail[0]; head++) {
+            graph.forEachOut(queue[head], visit);
             System.out.println();
         }
     }
@@ -34,18 +36,13 @@ public class Util {
      * @param measureTarget - string that specifies the type of the graph
      */
     public static void EvalGraph(IGraph graph, String measureTarget) {
-        Iterator<Integer> iterator;
+        long[] visited = {0};
+        IntConsumer count = vertex -> visited[0]++;
         double start = System.currentTimeMillis();
 
         for(int i = 0; i < graph.getNoVertices(); i++) {
-            iterator = graph.parseNOut(i).iterator();
-            while(iterator.hasNext()) {
-                iterator.next();
-            }
-            iterator = graph.parseNIn(i).iterator();
-            while(iterator.hasNext()) {
-                iterator.next();
-            }
+            graph.forEachOut(i, count);
+            graph.forEachIn(i, count);
         }
 
         double finish = System.currentTimeMillis();
@@ -60,22 +57,26 @@ public class Util {
      * @return Set<Integer> - the set of vertices accessible from vertex
      */
     public static Set<Integer> Accessible(IGraph graph, Integer vertex) {
-        Set<Integer> accessible = new HashSet<>();
-        List<Integer> list = new ArrayList<>();
-        accessible.add(vertex);
-        list.add(vertex);
+        int[] queue = new int[graph.getNoVertices()];
+        int[] tail = {0};
+        boolean[] visited = new boolean[graph.getNoVertices()];
+        queue[tail[0]++] = vertex;
+        visited[vertex] = true;
 
-        while(list.size() > 0) {
-            Integer current = list.get(0);
-            list.remove(0);
-            for(Integer v : graph.parseNOut(current)) {
-                if (!accessible.contains(v)) {
-                    accessible.add(v);
-                    list.add(v);
-                }
+        IntConsumer visit = v -> {
+            if (!visited[v]) {
+                visited[v] = true;
+                queue[tail[0]++] = v;
             }
+        };
+        for (int head = 0; head < tail[0]; head++) {
+            graph.forEachOut(queue[head], visit);
         }
 
+        Set<Integer> accessible = new HashSet<>();
+        for (int i = 0; i < tail[0]; i++) {
+            accessible.add(queue[i]);
+        }
         return accessible;
     }
 }